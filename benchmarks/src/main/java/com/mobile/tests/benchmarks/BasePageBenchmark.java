@@ -0,0 +1,156 @@
+package com.mobile.tests.benchmarks;
+
+import com.mobile.tests.base.BasePage;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// BasePage action wrappers against FakeWebDriverServer: what one click / text read / list read
+// costs on our side (waits, element cache, snapshots, HTTP + JSON) when the device answers
+// instantly. Each invocation starts on a new "screen" (a back command), so cached elements and
+// snapshots are dropped the way a real navigation drops them.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasePageBenchmark {
+
+    private final By title = AppiumBy.accessibilityId("test-Item title");
+    private final By addToCart = AppiumBy.accessibilityId("test-ADD TO CART");
+    private final By missing = AppiumBy.accessibilityId("missing");
+    private final By firstName = AppiumBy.accessibilityId("test-First Name");
+    private final By lastName = AppiumBy.accessibilityId("test-Last Name");
+    private final By postalCode = AppiumBy.accessibilityId("test-Zip/Postal Code");
+    private final By continueButton = AppiumBy.accessibilityId("test-CONTINUE");
+
+    private FakeWebDriverServer server;
+    private AppiumDriver driver;
+    private BenchPage page;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new FakeWebDriverServer(0);
+        driver = server.newDriver();
+        page = new BenchPage(driver);
+    }
+
+    @TearDown
+    public void tearDown() {
+        driver.quit();
+        server.close();
+    }
+
+    @Benchmark
+    public void click() {
+        driver.navigate().back();
+        page.click(addToCart);
+    }
+
+    @Benchmark
+    public String getText() {
+        driver.navigate().back();
+        return page.getText(title);
+    }
+
+
+    // Second read on the same screen: served from the element cache
+
+    @Benchmark
+    public String getTextSameScreen() {
+        return page.getText(title);
+    }
+
+    @Benchmark
+    public List<String> getTexts() {
+        driver.navigate().back();
+        return page.getTexts(title);
+    }
+
+    @Benchmark
+    public boolean isDisplayedAbsent() {
+        return page.isDisplayed(missing, Duration.ZERO);
+    }
+
+
+    // The checkout information form: three fields and CONTINUE, field by field against batched
+
+    @Benchmark
+    public void typeForm() {
+        driver.navigate().back();
+        page.type(firstName, "Kofi");
+        page.type(lastName, "Peter");
+        page.type(postalCode, "00233");
+        page.click(continueButton);
+    }
+
+    @Benchmark
+    public void fillForm() {
+        driver.navigate().back();
+        Map<By, String> fields = new LinkedHashMap<>();
+        fields.put(firstName, "Kofi");
+        fields.put(lastName, "Peter");
+        fields.put(postalCode, "00233");
+        page.fill(fields, continueButton);
+    }
+
+
+    // Exposes the protected wrappers to the benchmark
+
+    static final class BenchPage extends BasePage {
+
+        BenchPage(AppiumDriver driver) {
+            super(driver);
+        }
+
+        @Override
+        public void click(By locator) {
+            super.click(locator);
+        }
+
+        @Override
+        public String getText(By locator) {
+            return super.getText(locator);
+        }
+
+        @Override
+        public List<String> getTexts(By locator) {
+            return super.getTexts(locator);
+        }
+
+        @Override
+        public void type(By locator, String text) {
+            super.type(locator, text);
+        }
+
+        @Override
+        public void fill(Map<By, String> fields, By submit) {
+            super.fill(fields, submit);
+        }
+
+        @Override
+        public boolean isDisplayed(By locator, Duration timeout) {
+            return super.isDisplayed(locator, timeout);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mobile.tests.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compares two JMH JSON result files (-rf json) benchmark by benchmark:
+//
+//   java -cp benchmarks/target/benchmarks.jar com.mobile.tests.benchmarks.BenchmarkCompare \
+//        base.json head.json [thresholdPercent]
+//
+// Prints score and allocation per op (needs -prof gc) for both runs. A benchmark regresses when
+// it got worse by more than the threshold (default 10%) and the two error intervals do not
+// overlap; the exit code is 1 when anything regressed, so CI can gate on it.
+
+public final class BenchmarkCompare {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private BenchmarkCompare() {
+        // Prevent instantiation
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkCompare <base.json> <head.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Result> base = read(new File(args[0]));
+        Map<String, Result> head = read(new File(args[1]));
+
+        System.out.printf("%-60s %14s %14s %9s %12s %12s%n", "benchmark", "base", "head", "change", "base B/op", "head B/op");
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : head.entrySet()) {
+            Result now = entry.getValue();
+            Result before = base.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-60s %14s %14s %9s %12s %12s%n", entry.getKey(), "-", now.formatScore(), "new",
+                        "-", now.formatAlloc());
+                continue;
+            }
+            double change = (now.score - before.score) / before.score * 100.0;
+            // Lower is better for time modes, higher is better for throughput
+            double worse = now.higherIsBetter() ? -change : change;
+            boolean overlap = Math.abs(now.score - before.score) <= now.error + before.error;
+            boolean regressed = worse > threshold && !overlap;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-60s %14s %14s %+8.1f%% %12s %12s%s%n", entry.getKey(), before.formatScore(),
+                    now.formatScore(), change, before.formatAlloc(), now.formatAlloc(), regressed ? "  REGRESSION" : "");
+        }
+        for (String missing : base.keySet()) {
+            if (!head.containsKey(missing)) {
+                System.out.printf("%-60s %14s %14s %9s%n", missing, base.get(missing).formatScore(), "-", "removed");
+            }
+        }
+
+        System.out.println(regressions == 0
+                ? "No regressions above " + threshold + "%"
+                : regressions + " regression(s) above " + threshold + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText()
+                    .replace("com.mobile.tests.benchmarks.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode alloc = allocationMetric(run.path("secondaryMetrics"));
+            results.put(name.toString(), new Result(run.path("mode").asText(),
+                    primary.path("score").asDouble(), primary.path("scoreError").asDouble(0),
+                    primary.path("scoreUnit").asText(),
+                    alloc != null ? alloc.path("score").asDouble() : Double.NaN));
+        }
+        return results;
+    }
+
+    private static JsonNode allocationMetric(JsonNode secondary) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondary.fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            // Older JMH versions prefix profiler metrics with a middle dot
+            if (metric.getKey().replace("·", "").equals("gc.alloc.rate.norm")) {
+                return metric.getValue();
+            }
+        }
+        return null;
+    }
+
+    private record Result(String mode, double score, double error, String unit, double bytesPerOp) {
+
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+
+        String formatScore() {
+            return String.format("%.3f %s", score, unit);
+        }
+
+        String formatAlloc() {
+            return Double.isNaN(bytesPerOp) ? "-" : String.format("%.0f", bytesPerOp);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mobile.tests.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobile.tests.utils.CapabilitiesCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-test capabilities cost: BaseTest.setUp() and DriverManager.initDriver() each asked
+// for the capabilities once per test method. "legacy" re-parses capabilities.json and stats
+// the APK on every call (the old CapabilitiesReader); "snapshot" uses the parse-once catalog.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapabilitiesBenchmark {
+
+    private File capabilitiesFile;
+    private CapabilitiesCatalog catalog;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = Files.createTempDirectory("caps-bench");
+        Path app = Files.createFile(dir.resolve("app.apk"));
+        capabilitiesFile = dir.resolve("capabilities.json").toFile();
+        Files.writeString(capabilitiesFile.toPath(), Files.readString(Path.of("config/capabilities.json"))
+                .replaceAll("\"appium:app\"\\s*:\\s*\"[^\"]*\"", "\"appium:app\": \"" + app.toAbsolutePath() + "\""));
+        catalog = CapabilitiesCatalog.load(capabilitiesFile, new File("config/capability-profiles.json"));
+    }
+
+    @Benchmark
+    public void perTestSetupLegacy(Blackhole bh) throws IOException {
+        // BaseTest.setUp()
+        bh.consume(legacyGetCapabilities(capabilitiesFile));
+
+        // DriverManager.initDriver()
+        Map<String, Object> capabilitiesMap = legacyGetCapabilities(capabilitiesFile);
+        DesiredCapabilities capabilities = new DesiredCapabilities();
+        capabilitiesMap.forEach(capabilities::setCapability);
+        bh.consume(capabilities);
+    }
+
+    @Benchmark
+    public void perTestSetupSnapshot(Blackhole bh) {
+        bh.consume(catalog.snapshot(CapabilitiesCatalog.DEFAULT_PROFILE, null).asMap());
+        bh.consume(catalog.snapshot(CapabilitiesCatalog.DEFAULT_PROFILE, "emulator-5554").toDesiredCapabilities());
+    }
+
+    @Benchmark
+    public void profileSwitchSnapshot(Blackhole bh) {
+        bh.consume(catalog.snapshot("smoke-fast", null).toDesiredCapabilities());
+        bh.consume(catalog.snapshot("full-reset", null).toDesiredCapabilities());
+    }
+
+
+    // The pre-snapshot CapabilitiesReader.getCapabilities(), minus the console print
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> legacyGetCapabilities(File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Object> capabilitiesMap = mapper.readValue(file, Map.class);
+        if (capabilitiesMap.containsKey("appium:app")) {
+            File appFile = new File((String) capabilitiesMap.get("appium:app"));
+            if (!appFile.isAbsolute()) {
+                appFile = new File(System.getProperty("user.dir"), appFile.getPath());
+            }
+            if (!appFile.exists()) {
+                throw new RuntimeException(" App file not found at: " + appFile.getAbsolutePath());
+            }
+            capabilitiesMap.put("appium:app", appFile.getAbsolutePath());
+        }
+        return new HashMap<>(capabilitiesMap);
+    }
+}
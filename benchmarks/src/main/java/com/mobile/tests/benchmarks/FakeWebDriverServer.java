@@ -0,0 +1,220 @@
+package com.mobile.tests.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobile.tests.core.ObservableCommandExecutor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// In-process W3C/Appium endpoint with canned answers, so benchmarks exercise the real client
+// stack (executor, HTTP, JSON codec, element wrapping) without a device. Every element exists,
+// is displayed and enabled, and reads back the same text; locators whose value contains
+// "missing" are never found. The page source is the recorded products screen.
+// An optional fixed latency per command stands in for the device round trip.
+
+final class FakeWebDriverServer implements AutoCloseable {
+
+    static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    static final String ELEMENT_TEXT = "Sauce Labs Backpack";
+
+    private static final String PAGE_SOURCE = "src/main/resources/pagesources/products.xml";
+    // 1x1 transparent PNG
+    private static final String SCREENSHOT = Base64.getEncoder().encodeToString(new byte[]{
+            (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A});
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final String pageSource;
+    private final long latencyNanos;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicInteger elements = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    // Client address + port of every request, i.e. one entry per TCP connection
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    FakeWebDriverServer(long latencyMicros) throws IOException {
+        this.latencyNanos = latencyMicros * 1_000;
+        Path source = Path.of(PAGE_SOURCE);
+        this.pageSource = Files.exists(source) ? Files.readString(source) : "<hierarchy/>";
+        // Headers and body go out as separate writes; without TCP_NODELAY, Nagle + delayed ACK adds ~40 ms per command
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "fake-webdriver");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    int connections() {
+        return connections.size();
+    }
+
+
+    // A driver wired the way DriverManager wires one (ObservableCommandExecutor)
+
+    AppiumDriver newDriver() throws IOException {
+        return newDriver(null);
+    }
+
+
+    // Same, with HTTP going through the given client factory (null = Selenium's default)
+
+    AppiumDriver newDriver(HttpClient.Factory httpClientFactory) throws IOException {
+        DesiredCapabilities capabilities = new DesiredCapabilities();
+        capabilities.setCapability("platformName", "Android");
+        capabilities.setCapability("appium:automationName", "UiAutomator2");
+        return new AppiumDriver(new ObservableCommandExecutor(new URL(url()), httpClientFactory), capabilities);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        connections.add(exchange.getRemoteAddress());
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            Map<?, ?> request = body.length > 0 ? mapper.readValue(body, Map.class) : Map.of();
+            Object value = route(method, path, request);
+            if (value instanceof Failure failure) {
+                respond(exchange, failure.status, Map.of("value", Map.of(
+                        "error", failure.error, "message", failure.error, "stacktrace", "")));
+            } else {
+                Map<String, Object> wrapped = new LinkedHashMap<>();
+                wrapped.put("value", value);
+                respond(exchange, 200, wrapped);
+            }
+        }
+    }
+
+    private Object route(String method, String[] path, Map<?, ?> request) {
+        // /session
+        if (path.length == 1 && "session".equals(path[0])) {
+            String id = "fake-" + sessions.incrementAndGet();
+            return Map.of("sessionId", id, "capabilities", Map.of(
+                    "platformName", "Android", "automationName", "UiAutomator2"));
+        }
+        if (path.length < 2 || !"session".equals(path[0])) {
+            return "status".equals(path[0]) ? Map.of("ready", true, "message", "fake") : new Failure(404, "unknown command");
+        }
+        if (path.length == 2) {
+            // DELETE /session/{id}
+            return null;
+        }
+
+        String command = path[2];
+        switch (command) {
+            case "element", "elements" -> {
+                if (path.length == 3) {
+                    return find(command.equals("elements"), request);
+                }
+                return elementCommand(method, path, request);
+            }
+            case "source" -> {
+                return pageSource;
+            }
+            case "screenshot" -> {
+                return SCREENSHOT;
+            }
+            case "timeouts", "execute", "actions", "back", "appium" -> {
+                return "execute".equals(command) ? Boolean.TRUE : null;
+            }
+            default -> {
+                return new Failure(404, "unknown command");
+            }
+        }
+    }
+
+    private Object find(boolean many, Map<?, ?> request) {
+        String value = String.valueOf(request.get("value"));
+        if (value.contains("missing")) {
+            return many ? List.of() : new Failure(404, "no such element");
+        }
+        Map<String, String> element = Map.of(ELEMENT_KEY, "el-" + elements.incrementAndGet());
+        return many ? List.of(element, Map.of(ELEMENT_KEY, "el-" + elements.incrementAndGet())) : element;
+    }
+
+    private Object elementCommand(String method, String[] path, Map<?, ?> request) {
+        // /session/{id}/element/{elementId}/{action}[/{name}]
+        if (path.length < 5) {
+            return new Failure(404, "unknown command");
+        }
+        String action = path[4];
+        switch (action) {
+            case "element", "elements" -> {
+                return find(action.equals("elements"), request);
+            }
+            case "displayed", "enabled" -> {
+                return Boolean.TRUE;
+            }
+            case "selected" -> {
+                return Boolean.FALSE;
+            }
+            case "text" -> {
+                return ELEMENT_TEXT;
+            }
+            case "attribute" -> {
+                return path.length > 5 && "displayed".equals(path[5]) ? "true" : ELEMENT_TEXT;
+            }
+            case "rect" -> {
+                return Map.of("x", 0, "y", 0, "width", 100, "height", 40);
+            }
+            case "click", "clear", "value" -> {
+                return null;
+            }
+            default -> {
+                return "GET".equals(method) ? null : new Failure(404, "unknown command");
+            }
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object payload) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(payload);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private record Failure(int status, String error) {
+    }
+}
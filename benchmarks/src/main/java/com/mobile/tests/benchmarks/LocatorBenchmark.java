@@ -0,0 +1,105 @@
+package com.mobile.tests.benchmarks;
+
+import com.mobile.tests.locators.LocatorCompiler;
+import com.mobile.tests.snapshot.PageSnapshot;
+import com.mobile.tests.snapshot.SnapshotQuery;
+import io.appium.java_client.AppiumBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Lookup cost per strategy against a recorded products screen (src/main/resources/pagesources).
+// "xpath" mirrors what UiAutomator2 does for an XPath locator: serialise the whole hierarchy,
+// build a DOM and run a generic XPath engine. "rewritten" is the accessibility-id / UiSelector
+// LocatorCompiler picks, which the server answers by walking the node tree and comparing
+// attributes; it is modelled here by the same attribute walk over a parsed snapshot.
+// Device-side accessibility calls are not included, so absolute numbers are a lower bound.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocatorBenchmark {
+
+    @Param({
+            "//android.widget.TextView[@content-desc='test-Item title']",
+            "//android.view.ViewGroup[@content-desc='test-ADD TO CART']",
+            "//android.widget.TextView[@text=\"PRODUCTS\"]"
+    })
+    public String xpath;
+
+    private String pageSource;
+    private XPathExpression compiledXPath;
+    private DocumentBuilderFactory documentBuilders;
+    private PageSnapshot snapshot;
+    private SnapshotQuery rewrittenQuery;
+
+    @Setup
+    public void setUp() throws Exception {
+        pageSource = Files.readString(Path.of("src/main/resources/pagesources/products.xml"));
+        documentBuilders = DocumentBuilderFactory.newInstance();
+        compiledXPath = XPathFactory.newInstance().newXPath().compile(xpath);
+        snapshot = PageSnapshot.parse(pageSource);
+
+        By rewritten = LocatorCompiler.rewrite(xpath);
+        if (rewritten == null) {
+            throw new IllegalStateException("No rewrite for " + xpath);
+        }
+        rewrittenQuery = SnapshotQuery.compile(rewritten);
+        int expected = ((NodeList) compiledXPath.evaluate(
+                documentBuilders.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource))),
+                XPathConstants.NODESET)).getLength();
+        if (rewrittenQuery.evaluate(snapshot).length != expected) {
+            throw new IllegalStateException(rewritten + " does not match the same nodes as " + xpath);
+        }
+    }
+
+
+    // Per lookup: hierarchy -> XML -> DOM -> XPath
+
+    @Benchmark
+    public int xpath() throws Exception {
+        NodeList nodes = (NodeList) compiledXPath.evaluate(
+                documentBuilders.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource))),
+                XPathConstants.NODESET);
+        return nodes.getLength();
+    }
+
+
+    // Per lookup: attribute walk for the rewritten accessibility id / UiSelector
+
+    @Benchmark
+    public int rewritten() {
+        return rewrittenQuery.evaluate(snapshot).length;
+    }
+
+
+    // Original XPath answered by the local snapshot evaluator (page snapshot reads)
+
+    @Benchmark
+    public int snapshotXpath() {
+        return snapshot.count(AppiumBy.xpath(xpath));
+    }
+}
@@ -0,0 +1,152 @@
+package com.mobile.tests.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.appium.java_client.AppiumBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+// Logging cost of one page action (a click followed by a text read, two log lines), measured
+// with four threads writing at once like parallel test workers. Output goes to a discarding
+// stream so terminal speed is not measured, only formatting and contention.
+//
+//   println      what BasePage did before: string concatenation + synchronized System.out
+//   debugOff     SLF4J at DEBUG with the page loggers at INFO (the default): nothing is formatted
+//   infoSync     SLF4J at INFO straight into the encoder (what a plain ConsoleAppender would do)
+//   infoAsync    SLF4J at INFO through logback's AsyncAppender with the test-run pattern and MDC
+//
+// Enabled logging is bounded by the single writer, so infoSync / infoAsync at full speed mostly
+// measure that writer; the per-action lines in BasePage are DEBUG and cost what debugOff costs.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    private final By locator = AppiumBy.accessibilityId("test-Item title");
+    private final String text = "Sauce Labs Backpack";
+
+    private PrintStream originalOut;
+    private LoggerContext context;
+    private AsyncAppender async;
+    private Logger quietLogger;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+
+    @Setup
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(DISCARD, true));
+
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{HH:mm:ss.SSS} %-5level [%thread] [test=%X{test:--} device=%X{device:--}] %logger{0} - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setEncoder(encoder);
+        sink.setOutputStream(DISCARD);
+        sink.start();
+
+        async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(0);
+        async.addAppender(sink);
+        async.start();
+
+        ch.qos.logback.classic.Logger quiet = context.getLogger("bench.quiet");
+        quiet.setLevel(Level.INFO);
+        quiet.setAdditive(false);
+        quiet.addAppender(async);
+        quietLogger = quiet;
+
+        ch.qos.logback.classic.Logger sync = context.getLogger("bench.sync");
+        sync.setLevel(Level.INFO);
+        sync.setAdditive(false);
+        sync.addAppender(sink);
+        syncLogger = sync;
+
+        ch.qos.logback.classic.Logger loud = context.getLogger("bench.async");
+        loud.setLevel(Level.INFO);
+        loud.setAdditive(false);
+        loud.addAppender(async);
+        asyncLogger = loud;
+    }
+
+    @TearDown
+    public void tearDown() {
+        async.stop();
+        context.reset();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void println() {
+        System.out.println("Clicked element: " + locator);
+        System.out.println("Retrieved text from " + locator + " : " + text);
+    }
+
+    @Benchmark
+    public void debugOff() {
+        quietLogger.debug("Clicked element: {}", locator);
+        quietLogger.debug("Retrieved text from {} : {}", locator, text);
+    }
+
+    @Benchmark
+    public void infoSync(Worker worker) {
+        syncLogger.info("Clicked element: {}", locator);
+        syncLogger.info("Retrieved text from {} : {}", locator, text);
+    }
+
+    @Benchmark
+    public void infoAsync(Worker worker) {
+        asyncLogger.info("Clicked element: {}", locator);
+        asyncLogger.info("Retrieved text from {} : {}", locator, text);
+    }
+
+
+    // MDC is per thread, so each benchmark thread sets what BaseTest/DriverManager would
+
+    @State(Scope.Thread)
+    public static class Worker {
+
+        @Setup
+        public void setUp() {
+            MDC.put("test", "ProductsTest.testFirstProductDetails");
+            MDC.put("device", "emulator-5554");
+        }
+    }
+}
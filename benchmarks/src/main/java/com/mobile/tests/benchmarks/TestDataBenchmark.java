@@ -0,0 +1,72 @@
+package com.mobile.tests.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobile.tests.utils.TestDataUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Test data lookups as data providers and tests make them. "reparse*" is what TestDataUtils did
+// before TestDataRepository (open the resource and bind the whole file on every call).
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestDataBenchmark {
+
+    private static final String LOGIN_DATA = "testdata/loginData.json";
+    private static final String PRODUCT_DATA = "testdata/productData.json";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public Map<String, String> nestedMap() {
+        return TestDataUtils.getNestedMap(LOGIN_DATA, "validLogin");
+    }
+
+    @Benchmark
+    public String singleValue() {
+        return TestDataUtils.getData(LOGIN_DATA, "lockedOutUser");
+    }
+
+    @Benchmark
+    public List<Map<String, String>> listOfMaps() {
+        return TestDataUtils.getListOfMaps(PRODUCT_DATA, "products");
+    }
+
+    @Benchmark
+    public Map<String, Object> wholeFile() {
+        return TestDataUtils.getTestData(PRODUCT_DATA);
+    }
+
+    @Benchmark
+    public Map<String, Object> reparseWholeFile() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(PRODUCT_DATA)) {
+            return mapper.readValue(in, new TypeReference<>() {});
+        }
+    }
+
+    @Benchmark
+    public Object reparseNestedMap() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(LOGIN_DATA)) {
+            Map<String, Object> data = mapper.readValue(in, new TypeReference<>() {});
+            return data.get("validLogin");
+        }
+    }
+}
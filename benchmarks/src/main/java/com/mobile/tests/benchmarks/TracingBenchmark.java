@@ -0,0 +1,81 @@
+package com.mobile.tests.benchmarks;
+
+import com.mobile.tests.pages.CheckoutInformationPage;
+import com.mobile.tests.tracing.Span;
+import com.mobile.tests.tracing.Tracer;
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Cost of tracing on one page step against FakeWebDriverServer: the checkout information form filled
+// and submitted under a test span, with tracing off (the default) and on. The on variant records a
+// span per page method, wait and driver command; the recorded spans are dropped after every
+// iteration so the event cap is never reached. Against a device every command is milliseconds, so
+// the difference here is an upper bound on the overhead.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracingBenchmark {
+
+    private FakeWebDriverServer server;
+    private AppiumDriver driver;
+    private CheckoutInformationPage page;
+
+    @Setup
+    public void setUp() throws IOException {
+        Tracer.install();
+        server = new FakeWebDriverServer(0);
+        driver = server.newDriver();
+        page = new CheckoutInformationPage(driver);
+    }
+
+    @TearDown
+    public void tearDown() {
+        driver.quit();
+        server.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropSpans() {
+        Tracer.reset();
+    }
+
+    @Benchmark
+    public void checkoutStepUntraced() {
+        checkoutStep();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dtracing=true")
+    public void checkoutStepTraced() {
+        checkoutStep();
+    }
+
+    private void checkoutStep() {
+        Span test = Tracer.start("TracingBenchmark.checkoutStep", Tracer.TEST);
+        try {
+            driver.navigate().back();
+            page.fillCheckoutInformation("Kofi", "Peter", "00233");
+            page.continueToOverview();
+        } finally {
+            test.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mobile.tests.benchmarks;
+
+import com.mobile.tests.transport.JdkHttpTransport;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Per-request overhead of the HTTP client under a driver: Selenium's default client against the
+// shared JdkHttpTransport, with FakeWebDriverServer answering instantly. Every benchmark thread
+// drives its own session, as parallel tests do. At tear-down the server's request and connection
+// counts are printed, which gives the connection reuse rate of each client.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class TransportBenchmark {
+
+    @Param({"default", "jdk"})
+    public String transport;
+
+    private FakeWebDriverServer server;
+    private JdkHttpTransport jdk;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new FakeWebDriverServer(0);
+        if ("jdk".equals(transport)) {
+            jdk = new JdkHttpTransport(8, type -> null, type -> null, true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        long requests = server.requests();
+        int connections = server.connections();
+        System.out.printf("%n[%s] %d requests over %d connections (%.2f%% reused)%n", transport, requests, connections,
+                requests == 0 ? 0.0 : 100.0 * (requests - connections) / requests);
+        if (jdk != null) {
+            System.out.println(jdk.report());
+            jdk.close();
+        }
+        server.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        private final By title = AppiumBy.accessibilityId("test-Item title");
+
+        private AppiumDriver driver;
+
+        @Setup
+        public void setUp(TransportBenchmark benchmark) throws IOException {
+            driver = benchmark.server.newDriver(benchmark.jdk);
+        }
+
+        @TearDown
+        public void tearDown() {
+            driver.quit();
+        }
+    }
+
+    @Benchmark
+    public WebElement findElement(Session session) {
+        return session.driver.findElement(session.title);
+    }
+
+    @Benchmark
+    public String getPageSource(Session session) {
+        return session.driver.getPageSource();
+    }
+}
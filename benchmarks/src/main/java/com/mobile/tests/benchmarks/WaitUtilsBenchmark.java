@@ -0,0 +1,76 @@
+package com.mobile.tests.benchmarks;
+
+import com.mobile.tests.utils.WaitEngine;
+import com.mobile.tests.utils.WaitUtils;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one satisfied wait against FakeWebDriverServer (the element is there on the first
+// poll), so what is measured is wait construction and the commands a
+// wait sends. "seleniumWait" is the WebDriverWait + ExpectedConditions path WaitUtils used to build.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaitUtilsBenchmark {
+
+    private final By title = AppiumBy.accessibilityId("test-Item title");
+
+    private FakeWebDriverServer server;
+    private AppiumDriver driver;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new FakeWebDriverServer(0);
+        driver = server.newDriver();
+    }
+
+    @TearDown
+    public void tearDown() {
+        driver.quit();
+        server.close();
+    }
+
+    @Benchmark
+    public WebElement waitForVisibility() {
+        return WaitUtils.waitForVisibility(driver, title);
+    }
+
+    @Benchmark
+    public WebElement waitForClickable() {
+        return WaitUtils.waitForClickable(driver, title);
+    }
+
+    @Benchmark
+    public WebElement waitEngine() {
+        return WaitEngine.waitFor(driver, title, WaitEngine.Condition.VISIBLE, WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+    @Benchmark
+    public WebElement seleniumWait() {
+        return new WebDriverWait(driver, Duration.ofSeconds(20))
+                .until(ExpectedConditions.visibilityOfElementLocated(title));
+    }
+}
@@ -1,14 +1,38 @@
 package com.mobile.tests.base;
 
-import com.mobile.tests.utils.WaitUtils;
+import com.mobile.tests.metrics.FormInputMetrics;
+import com.mobile.tests.snapshot.PageSnapshot;
+import com.mobile.tests.snapshot.PageSnapshots;
+import com.mobile.tests.tracing.Span;
+import com.mobile.tests.tracing.Tracer;
+import com.mobile.tests.utils.ConfigReader;
+import com.mobile.tests.utils.WaitEngine;
 import io.appium.java_client.AppiumDriver;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
 
-import java.util.Objects;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+@Slf4j
 public abstract class BasePage {
 
+    // Share of the container scrolled per gesture; leaves some overlap so no row is skipped
+    private static final double SCROLL_PERCENT = 0.75;
+
+    private static final boolean batchedInput = Boolean.parseBoolean(ConfigReader.getProperty("batchedInput", "true"));
+    private static final Duration LIST_WAIT = Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("listWait", "10")));
+
     protected AppiumDriver driver;
 
     // Accept driver passed from tests/pages
@@ -21,12 +45,13 @@ public abstract class BasePage {
 
     protected void click(By locator) {
         try {
-            WebElement element = WaitUtils.waitForClickable(driver, locator);
-            assert element != null;
-            element.click();
-            System.out.println("Clicked element: " + locator);
+            withElement(locator, WaitEngine.Condition.CLICKABLE, element -> {
+                element.click();
+                return null;
+            });
+            log.debug("Clicked element: {}", locator);
         } catch (Exception e) {
-            System.err.println("Failed to click element: " + locator + " | Reason: " + e.getMessage());
+            log.warn("Failed to click element: {} | Reason: {}", locator, e.getMessage());
             throw e;
         }
     }
@@ -37,9 +62,9 @@ public abstract class BasePage {
     protected void click(WebElement element) {
         try {
             element.click();
-            System.out.println("Clicked element: " + element);
+            log.debug("Clicked element: {}", element);
         } catch (Exception e) {
-            System.err.println("Failed to click element: " + element + " | Reason: " + e.getMessage());
+            log.warn("Failed to click element: {} | Reason: {}", element, e.getMessage());
             throw e;
         }
     }
@@ -49,13 +74,14 @@ public abstract class BasePage {
 
     protected void type(By locator, String text) {
         try {
-            WebElement element = WaitUtils.waitForVisibility(driver, locator);
-            assert element != null;
-            element.clear();
-            element.sendKeys(text);
-            System.out.println("Typed '" + text + "' into: " + locator);
+            withElement(locator, WaitEngine.Condition.VISIBLE, element -> {
+                element.clear();
+                element.sendKeys(text);
+                return null;
+            });
+            log.debug("Typed '{}' into: {}", text, locator);
         } catch (Exception e) {
-            System.err.println("Failed to type into: " + locator + " | Reason: " + e.getMessage());
+            log.warn("Failed to type into: {} | Reason: {}", locator, e.getMessage());
             throw e;
         }
     }
@@ -65,28 +91,87 @@ public abstract class BasePage {
 
     protected void typeWithoutClear(By locator, String text) {
         try {
-            WebElement element = WaitUtils.waitForVisibility(driver, locator);
-            assert element != null;
-            element.sendKeys(text);
-            System.out.println("Appended '" + text + "' into: " + locator);
+            withElement(locator, WaitEngine.Condition.VISIBLE, element -> {
+                element.sendKeys(text);
+                return null;
+            });
+            log.debug("Appended '{}' into: {}", text, locator);
         } catch (Exception e) {
-            System.err.println("Failed to append text into: " + locator + " | Reason: " + e.getMessage());
+            log.warn("Failed to append text into: {} | Reason: {}", locator, e.getMessage());
             throw e;
         }
     }
 
 
+     // Fill the fields of one form in map order, then tap submit (may be null). All elements are
+     // located first; each field then gets its whole value in one mobile: replaceElementValue, with no
+     // clear() and no keyboard, and submit is tapped without another wait. When the driver rejects the
+     // script, or batchedInput=false, every field goes through type() instead.
+
+    protected void fill(Map<By, String> fields, By submit) {
+        FormInputMetrics.Sample sample = FormInputMetrics.start();
+        try {
+            boolean batched = batchedInput && fillBatched(fields, submit);
+            if (!batched) {
+                fields.forEach((locator, text) -> type(locator, text != null ? text : ""));
+                if (submit != null) {
+                    click(submit);
+                }
+            }
+            FormInputMetrics.record(getClass().getSimpleName(), batched ? "batched" : "typed", sample);
+        } finally {
+            FormInputMetrics.stop();
+        }
+    }
+
+    private boolean fillBatched(Map<By, String> fields, By submit) {
+        Map<By, WaitEngine.Condition> targets = new LinkedHashMap<>();
+        fields.keySet().forEach(locator -> targets.put(locator, WaitEngine.Condition.VISIBLE));
+        if (submit != null) {
+            targets.put(submit, WaitEngine.Condition.CLICKABLE);
+        }
+        Map<By, WebElement> elements = resolveAll(targets);
+
+        try {
+            for (Map.Entry<By, String> field : fields.entrySet()) {
+                replaceValue(elements.get(field.getKey()), field.getValue() != null ? field.getValue() : "");
+            }
+            if (submit != null) {
+                elements.get(submit).click();
+            }
+            log.debug("Filled {} fields in one pass: {}", fields.size(), fields.keySet());
+            return true;
+        } catch (StaleElementReferenceException e) {
+            fields.keySet().forEach(locator -> ElementCache.evict(driver, locator));
+            ElementCache.staleRetry();
+            log.debug("Form changed while filling it, typing field by field: {}", e.getMessage());
+            return false;
+        } catch (WebDriverException e) {
+            log.warn("Batched input failed, typing field by field | Reason: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void replaceValue(WebElement element, String text) {
+        if (text.isEmpty()) {
+            element.clear();
+            return;
+        }
+        driver.executeScript("mobile: replaceElementValue", Map.of(
+                "elementId", ((RemoteWebElement) element).getId(),
+                "text", text));
+    }
+
+
      // Get element text safely
 
     protected String getText(By locator) {
         try {
-            WebElement element = WaitUtils.waitForVisibility(driver, locator);
-            assert element != null;
-            String text = element.getText();
-            System.out.println("Retrieved text from " + locator + " : " + text);
+            String text = withElement(locator, WaitEngine.Condition.VISIBLE, WebElement::getText);
+            log.debug("Retrieved text from {} : {}", locator, text);
             return text != null ? text.trim() : "";
         } catch (Exception e) {
-            System.err.println("Failed to get text from " + locator + " | Reason: " + e.getMessage());
+            log.warn("Failed to get text from {} | Reason: {}", locator, e.getMessage());
             return "";
         }
     }
@@ -95,12 +180,24 @@ public abstract class BasePage {
      // Check if the element is displayed
 
     protected boolean isDisplayed(By locator) {
+        return isDisplayed(locator, WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+
+     // Check if the element is displayed within the given time (use a short deadline for negative checks)
+
+    protected boolean isDisplayed(By locator, Duration timeout) {
         try {
-            boolean visible = Objects.requireNonNull(WaitUtils.waitForVisibility(driver, locator)).isDisplayed();
-            System.out.println("Element displayed: " + locator);
-            return visible;
+            // A cached element only needs one isDisplayed() call instead of a new lookup
+            WebElement cached = ElementCache.get(driver, locator, WaitEngine.Condition.VISIBLE);
+            if (cached == null || !isStillDisplayed(locator, cached)) {
+                ElementCache.put(driver, locator, WaitEngine.Condition.VISIBLE,
+                        WaitEngine.waitFor(driver, locator, WaitEngine.Condition.VISIBLE, timeout));
+            }
+            log.debug("Element displayed: {}", locator);
+            return true;
         } catch (Exception e) {
-            System.out.println("Element not displayed: " + locator);
+            log.debug("Element not displayed: {}", locator);
             return false;
         }
     }
@@ -110,12 +207,208 @@ public abstract class BasePage {
 
     protected WebElement find(By locator) {
         try {
-            WebElement element = WaitUtils.waitForVisibility(driver, locator);
-            System.out.println("Found element: " + locator);
+            WebElement element = resolve(locator, WaitEngine.Condition.VISIBLE);
+            log.debug("Found element: {}", locator);
             return element;
         } catch (Exception e) {
-            System.err.println("Could not find element: " + locator + " | Reason: " + e.getMessage());
+            log.warn("Could not find element: {} | Reason: {}", locator, e.getMessage());
             throw e;
         }
     }
+
+
+     // First visible element among several candidate locators (one shared deadline), or null if none shows up
+
+    protected WaitEngine.Match waitForAny(Duration timeout, By... locators) {
+        try {
+            WaitEngine.Match match = WaitEngine.waitForAny(driver, WaitEngine.Condition.VISIBLE, timeout, locators);
+            ElementCache.put(driver, match.locator(), WaitEngine.Condition.VISIBLE, match.element());
+            log.debug("Matched locator {}: {}", match.index(), match.locator());
+            return match;
+        } catch (Exception e) {
+            log.debug("None of the locators displayed: {}", (Object) locators);
+            return null;
+        }
+    }
+
+
+     // Scroll the container one gesture in the given direction ("up", "down", "left", "right").
+     // Returns false once the container cannot scroll any further.
+
+    protected boolean scroll(By container, String direction) {
+        String elementId = withElement(container, WaitEngine.Condition.PRESENT, element -> ((RemoteWebElement) element).getId());
+        Object canScrollMore = driver.executeScript("mobile: scrollGesture", Map.of(
+                "elementId", elementId,
+                "direction", direction,
+                "percent", SCROLL_PERCENT));
+        log.debug("Scrolled {} in: {}", direction, container);
+        return Boolean.TRUE.equals(canScrollMore);
+    }
+
+
+     // Scroll the container down until the target is on screen (at most maxScrolls gestures)
+
+    protected boolean scrollTo(By target, By container, int maxScrolls) {
+        for (int scrolls = 0; ; scrolls++) {
+            if (isOnScreen(target)) {
+                return true;
+            }
+            if (scrolls == maxScrolls || !scroll(container, "down")) {
+                return isOnScreen(target);
+            }
+        }
+    }
+
+
+     // Lazily harvest a scrollable list: rows are read one screen at a time and de-duplicated by key
+
+    protected <T> ScrollingList<T> scrollingList(By container, By row,
+                                                 Function<PageSnapshot.Node, T> reader, Function<T, ?> key) {
+        return new ScrollingList<>(this, container, row, reader, key);
+    }
+
+    private boolean isOnScreen(By target) {
+        if (useSnapshot(target)) {
+            return PageSnapshots.current(driver).isDisplayed(target);
+        }
+        return isDisplayed(target, Duration.ZERO);
+    }
+
+
+     // Texts of all elements matching the locator. Read from one page-source snapshot when page
+     // snapshots are on and the locator is supported; otherwise one getText() per element.
+
+    protected List<String> getTexts(By locator) {
+        if (useSnapshot(locator)) {
+            List<String> texts = PageSnapshots.current(driver).texts(locator);
+            if (!texts.isEmpty()) {
+                texts.replaceAll(String::trim);
+                return texts;
+            }
+            // Nothing matched yet (screen may still be rendering); let the live lookup wait for it
+            PageSnapshots.invalidate(driver);
+        }
+        List<String> texts = new ArrayList<>();
+        for (WebElement element : findAll(locator)) {
+            String text = element.getText();
+            texts.add(text != null ? text.trim() : "");
+        }
+        return texts;
+    }
+
+
+     // Number of elements matching the locator (snapshot first, like getTexts)
+
+    protected int count(By locator) {
+        if (useSnapshot(locator)) {
+            int count = PageSnapshots.current(driver).count(locator);
+            if (count > 0) {
+                return count;
+            }
+            PageSnapshots.invalidate(driver);
+        }
+        return findAll(locator).size();
+    }
+
+
+     // All elements matching the locator, waiting up to listWait seconds for the first one
+     // (sessions have no implicit wait); an empty list when none shows up
+
+    protected List<WebElement> findAll(By locator) {
+        try {
+            return WaitEngine.until(driver, "any " + locator, LIST_WAIT, d -> {
+                List<WebElement> elements = d.findElements(locator);
+                return elements.isEmpty() ? null : elements;
+            });
+        } catch (TimeoutException e) {
+            return new ArrayList<>();
+        }
+    }
+
+     // Element for the locator: reused from this screen when already located, otherwise waited for.
+     // A stale cached element is dropped and the action retried once on a fresh lookup.
+
+    private <T> T withElement(By locator, WaitEngine.Condition condition, Function<WebElement, T> action) {
+        try {
+            return action.apply(resolve(locator, condition));
+        } catch (StaleElementReferenceException e) {
+            ElementCache.evict(driver, locator);
+            ElementCache.staleRetry();
+            return action.apply(resolve(locator, condition));
+        }
+    }
+
+    private WebElement resolve(By locator, WaitEngine.Condition condition) {
+        WebElement element = ElementCache.get(driver, locator, condition);
+        if (element == null) {
+            element = WaitEngine.waitFor(driver, locator, condition, WaitEngine.DEFAULT_TIMEOUT);
+            ElementCache.put(driver, locator, condition, element);
+        }
+        return element;
+    }
+
+    // Elements for several locators at once: cached ones as they are, the rest under a single wait
+
+    private Map<By, WebElement> resolveAll(Map<By, WaitEngine.Condition> targets) {
+        Map<By, WebElement> elements = new LinkedHashMap<>();
+        Map<By, WaitEngine.Condition> missing = new LinkedHashMap<>();
+        targets.forEach((locator, condition) -> {
+            WebElement cached = ElementCache.get(driver, locator, condition);
+            if (cached != null) {
+                elements.put(locator, cached);
+            } else {
+                missing.put(locator, condition);
+            }
+        });
+        if (!missing.isEmpty()) {
+            WaitEngine.waitForAll(driver, WaitEngine.DEFAULT_TIMEOUT, missing).forEach((locator, element) -> {
+                ElementCache.put(driver, locator, missing.get(locator), element);
+                elements.put(locator, element);
+            });
+        }
+        return elements;
+    }
+
+    private boolean isStillDisplayed(By locator, WebElement cached) {
+        try {
+            if (cached.isDisplayed()) {
+                return true;
+            }
+        } catch (StaleElementReferenceException e) {
+            ElementCache.staleRetry();
+        }
+        ElementCache.evict(driver, locator);
+        return false;
+    }
+
+    private static boolean useSnapshot(By locator) {
+        return PageSnapshots.isEnabled() && PageSnapshot.supports(locator);
+    }
+
+
+     // Wait for a custom condition on the driver (null/false means keep polling)
+
+    protected <T> T waitUntil(String description, Duration timeout, Function<AppiumDriver, T> condition) {
+        return WaitEngine.until(driver, description, timeout, condition);
+    }
+
+
+    // Run the body of a public page method in a span named <Page>.<method> (tracing=true), e.g.
+    // return traced("getTotal", () -> getText(totalLabel)). The name is only built when tracing is on.
+
+    protected <T> T traced(String method, Supplier<T> body) {
+        Span span = Tracer.isEnabled() ? Tracer.start(getClass().getSimpleName() + "." + method, Tracer.PAGE) : Span.NOOP;
+        try {
+            return body.get();
+        } finally {
+            span.close();
+        }
+    }
+
+    protected void traced(String method, Runnable body) {
+        traced(method, () -> {
+            body.run();
+            return null;
+        });
+    }
 }
@@ -0,0 +1,117 @@
+package com.mobile.tests.base;
+
+import com.mobile.tests.core.CommandListener;
+import com.mobile.tests.core.ObservableCommandExecutor;
+import com.mobile.tests.core.ScreenCommands;
+import com.mobile.tests.utils.ConfigReader;
+import com.mobile.tests.utils.WaitEngine;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Elements BasePage has already located, per session and per screen. A "screen" lasts until
+// the session sends a command that can navigate (click, gestures, back, executeScript, app
+// lifecycle...); reads and typing keep it. Only drivers built on ObservableCommandExecutor are
+// cached, because only their commands are seen. Stale references are handled by BasePage,
+// which evicts the entry and looks the element up again. elementCache=false caches nothing and
+// registers no command listener.
+
+final class ElementCache {
+
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("elementCache", "true"));
+
+    private static final Map<SessionId, Map<By, Entry>> screens = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder staleRetries = new LongAdder();
+    private static final LongAdder screenChanges = new LongAdder();
+
+    static {
+        if (enabled) {
+            ObservableCommandExecutor.addListener(new ScreenTracker());
+        }
+    }
+
+    private ElementCache() {
+        // Prevent instantiation
+    }
+
+
+    // Cached element that satisfied at least the requested condition on the current screen, or null
+
+    static WebElement get(AppiumDriver driver, By locator, WaitEngine.Condition condition) {
+        Map<By, Entry> screen = screenOf(driver);
+        if (screen == null) {
+            return null;
+        }
+        Entry entry = screen.get(locator);
+        if (entry != null && entry.condition.ordinal() >= condition.ordinal()) {
+            hits.increment();
+            return entry.element;
+        }
+        misses.increment();
+        return null;
+    }
+
+    static void put(AppiumDriver driver, By locator, WaitEngine.Condition condition, WebElement element) {
+        Map<By, Entry> screen = screenOf(driver);
+        if (screen != null) {
+            screen.put(locator, new Entry(element, condition));
+        }
+    }
+
+    static void evict(AppiumDriver driver, By locator) {
+        Map<By, Entry> screen = screenOf(driver);
+        if (screen != null) {
+            screen.remove(locator);
+        }
+    }
+
+    static void staleRetry() {
+        staleRetries.increment();
+    }
+
+    static String stats() {
+        return "element cache | hits: " + hits.sum() + " | misses: " + misses.sum()
+                + " | stale retries: " + staleRetries.sum() + " | screen changes: " + screenChanges.sum();
+    }
+
+
+    private static Map<By, Entry> screenOf(AppiumDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        if (!enabled || sessionId == null || !(driver.getCommandExecutor() instanceof ObservableCommandExecutor)) {
+            return null;
+        }
+        return screens.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>());
+    }
+
+    private record Entry(WebElement element, WaitEngine.Condition condition) {
+    }
+
+
+    // Forgets a session's elements whenever it sends a command that may leave the screen
+
+    private static final class ScreenTracker implements CommandListener {
+
+        @Override
+        public void beforeCommand(Command command) {
+            if (command.getSessionId() == null || ScreenCommands.keepsScreen(command)) {
+                return;
+            }
+            Map<By, Entry> screen = DriverCommand.QUIT.equals(command.getName())
+                    ? screens.remove(command.getSessionId())
+                    : screens.get(command.getSessionId());
+            if (screen != null && !screen.isEmpty()) {
+                screen.clear();
+                screenChanges.increment();
+            }
+        }
+    }
+}
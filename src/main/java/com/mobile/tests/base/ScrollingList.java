@@ -0,0 +1,112 @@
+package com.mobile.tests.base;
+
+import com.mobile.tests.snapshot.PageSnapshot;
+import com.mobile.tests.snapshot.PageSnapshots;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+
+// Lazily walks a scrollable list one screen at a time. Each screen is read from a single page
+// snapshot, every row is turned into a value in one pass (e.g. name + price together) and
+// values are de-duplicated by key, so rows that stay visible across a scroll are yielded once.
+// Scrolling only happens when the caller asks for more than the current screen holds, so
+// "find X" loops stop as soon as X is seen. The list is left wherever the walk stopped.
+//
+//   for (Product product : productsPage.products()) { if (...) break; }
+
+public final class ScrollingList<T> implements Iterable<T> {
+
+    private static final int DEFAULT_MAX_SCROLLS = 20;
+
+    private final BasePage page;
+    private final By container;
+    private final By row;
+    private final Function<PageSnapshot.Node, T> reader;
+    private final Function<T, ?> key;
+    private int maxScrolls = DEFAULT_MAX_SCROLLS;
+
+
+    // reader returns null for rows that are only partly on screen; they are read again after the next scroll
+
+    ScrollingList(BasePage page, By container, By row, Function<PageSnapshot.Node, T> reader, Function<T, ?> key) {
+        this.page = page;
+        this.container = container;
+        this.row = row;
+        this.reader = reader;
+        this.key = key;
+    }
+
+    public ScrollingList<T> maxScrolls(int scrolls) {
+        this.maxScrolls = scrolls;
+        return this;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Harvester();
+    }
+
+
+    private final class Harvester implements Iterator<T> {
+
+        private final Set<Object> seen = new HashSet<>();
+        private final Queue<T> pending = new ArrayDeque<>();
+        private boolean harvestedCurrentScreen;
+        private boolean exhausted;
+        private int scrolls;
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty() && !exhausted) {
+                if (!harvestedCurrentScreen) {
+                    harvestedCurrentScreen = true;
+                    if (harvest() > 0) {
+                        continue;
+                    }
+                    if (scrolls > 0) {
+                        // A whole screen after a scroll with nothing new: the end of the list
+                        exhausted = true;
+                        break;
+                    }
+                }
+                if (scrolls >= maxScrolls || !page.scroll(container, "down")) {
+                    // Read what the last scroll revealed, then stop
+                    exhausted = true;
+                    harvest();
+                    break;
+                }
+                scrolls++;
+                harvestedCurrentScreen = false;
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.remove();
+        }
+
+        private int harvest() {
+            AppiumDriver driver = page.driver;
+            int added = 0;
+            for (PageSnapshot.Node node : PageSnapshots.current(driver).findAll(row)) {
+                T value = reader.apply(node);
+                if (value != null && seen.add(key.apply(value))) {
+                    pending.add(value);
+                    added++;
+                }
+            }
+            return added;
+        }
+    }
+}
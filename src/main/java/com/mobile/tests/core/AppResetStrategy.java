@@ -0,0 +1,73 @@
+package com.mobile.tests.core;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Cheap ways of bringing the app back to its start screen between tests on a reused session
+
+public enum AppResetStrategy {
+
+    // Kill the app process and bring it back to the foreground (lands on the login screen)
+    TERMINATE_ACTIVATE {
+        @Override
+        public void reset(AppiumDriver driver, String appPackage) {
+            driver.executeScript("mobile: terminateApp", Map.of("appId", appPackage));
+            driver.executeScript("mobile: activateApp", Map.of("appId", appPackage));
+        }
+    },
+
+    // Wipe app data (logged in user, cart contents) and relaunch, without a reinstall
+    CLEAR_APP_DATA {
+        @Override
+        public void reset(AppiumDriver driver, String appPackage) {
+            driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+            driver.executeScript("mobile: activateApp", Map.of("appId", appPackage));
+        }
+    },
+
+    // Walk back to the login screen through the app's menu: reset app state (empties the cart), then
+    // log out. The process keeps running, so nothing is relaunched; a screen without the menu (or an
+    // app that is not in the foreground) falls back to TERMINATE_ACTIVATE
+    NAVIGATE_TO_LOGIN {
+        @Override
+        public void reset(AppiumDriver driver, String appPackage) {
+            if (!driver.findElements(LOGIN_BUTTON).isEmpty()) {
+                return;
+            }
+            List<WebElement> menu = driver.findElements(MENU_BUTTON);
+            if (menu.isEmpty()) {
+                TERMINATE_ACTIVATE.reset(driver, appPackage);
+                return;
+            }
+            menu.get(0).click();
+            WebDriverWait wait = new WebDriverWait(driver, NAVIGATION_TIMEOUT);
+            wait.until(ExpectedConditions.elementToBeClickable(RESET_APP_STATE)).click();
+            wait.until(ExpectedConditions.elementToBeClickable(LOGOUT)).click();
+            wait.until(ExpectedConditions.presenceOfElementLocated(LOGIN_BUTTON));
+        }
+    },
+
+    // Leave the app as the previous test left it
+    NONE {
+        @Override
+        public void reset(AppiumDriver driver, String appPackage) {
+            // Nothing to do
+        }
+    };
+
+    private static final By LOGIN_BUTTON = AppiumBy.accessibilityId("test-LOGIN");
+    private static final By MENU_BUTTON = AppiumBy.accessibilityId("test-Menu");
+    private static final By RESET_APP_STATE = AppiumBy.accessibilityId("test-RESET APP STATE");
+    private static final By LOGOUT = AppiumBy.accessibilityId("test-LOGOUT");
+    private static final Duration NAVIGATION_TIMEOUT = Duration.ofSeconds(5);
+
+    public abstract void reset(AppiumDriver driver, String appPackage);
+}
@@ -3,61 +3,253 @@ package com.mobile.tests.core;
 import com.mobile.tests.utils.ConfigReader;
 import io.appium.java_client.service.local.AppiumDriverLocalService;
 import io.appium.java_client.service.local.AppiumServiceBuilder;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
-
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Thread-safe registry of locally started Appium servers, one per port. Servers are
+// reference counted by the sessions using them and only stopped at suite end, or by
+// the idle reaper once nobody has used them for appiumServerIdleTimeout seconds.
+
+@Slf4j
 public class AppiumServerManager {
 
-    private static AppiumDriverLocalService service;
+    private static final Map<Integer, ServerHandle> servers = new ConcurrentHashMap<>();
+    private static volatile ScheduledExecutorService idleReaper;
 
     private AppiumServerManager() {
         // Prevent instantiation
     }
 
 
-     // Start the Appium server
+     // Default port from config.properties
 
-    public static void startServer() {
-        if (service == null || !service.isRunning()) {
-            try {
-                // Load values from config.properties (with fallbacks)
-                String ip = ConfigReader.getProperty("appiumServerIP");
-                int port = Integer.parseInt(ConfigReader.getProperty("appiumServerPort"));
-                String logPath = ConfigReader.getProperty("appiumLogFile");
+    public static int getDefaultPort() {
+        int port = Integer.parseInt(ConfigReader.getProperty("appiumServerPort", "4723"));
+        return port > 0 ? port : 4723;
+    }
 
-                AppiumServiceBuilder builder = new AppiumServiceBuilder()
-                        .withIPAddress(ip)
-                        .usingPort(port > 0 ? port : 4723)
-                        .withLogFile(new File(logPath));
 
-                service = AppiumDriverLocalService.buildService(builder);
-                service.start();
+     // Start (if needed) the server on the given port and register one more session on it
 
-                System.out.println("Appium server started on: " + service.getUrl());
+    public static String acquire(int port) {
+        ServerHandle handle = servers.computeIfAbsent(port, ServerHandle::new);
+        synchronized (handle) {
+            handle.ensureStarted();
+            handle.activeSessions.incrementAndGet();
+            handle.acquisitions.incrementAndGet();
+            return handle.url;
+        }
+    }
 
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to start Appium server", e);
+
+     // A session on this server has ended; the server keeps running for the next one
+
+    public static void release(int port) {
+        ServerHandle handle = servers.get(port);
+        if (handle == null) {
+            return;
+        }
+        synchronized (handle) {
+            if (handle.activeSessions.decrementAndGet() <= 0) {
+                handle.activeSessions.set(0);
+                handle.idleSince = System.nanoTime();
+            }
+        }
+    }
+
+
+     // Start servers for all given ports in parallel, before the first test needs them
+
+    public static void prewarm(Collection<Integer> ports) {
+        List<CompletableFuture<Void>> starts = new ArrayList<>();
+        for (int port : ports) {
+            ServerHandle handle = servers.computeIfAbsent(port, ServerHandle::new);
+            starts.add(CompletableFuture.runAsync(() -> {
+                synchronized (handle) {
+                    handle.ensureStarted();
+                }
+            }));
+        }
+        CompletableFuture.allOf(starts.toArray(CompletableFuture<?>[]::new)).join();
+    }
+
+
+     // Stop every server and print start-up / reuse figures (call once at suite end)
+
+    public static void stopAll() {
+        ScheduledExecutorService reaper = idleReaper;
+        if (reaper != null) {
+            reaper.shutdownNow();
+            idleReaper = null;
+        }
+        for (ServerHandle handle : servers.values()) {
+            synchronized (handle) {
+                handle.stop();
+            }
+            log.info("{}", handle.report());
+        }
+        servers.clear();
+    }
+
+
+     // Get Appium server URL for the given port
+
+    public static String getServerUrl(int port) {
+        ServerHandle handle = servers.get(port);
+        if (handle == null || handle.service == null || !handle.service.isRunning()) {
+            throw new IllegalStateException("Appium server is not running on port: " + port);
+        }
+        return handle.url;
+    }
+
+
+    private static void scheduleIdleReaper() {
+        long idleSeconds = Long.parseLong(ConfigReader.getProperty("appiumServerIdleTimeout", "0"));
+        if (idleSeconds <= 0 || idleReaper != null) {
+            return;
+        }
+        synchronized (AppiumServerManager.class) {
+            if (idleReaper == null) {
+                ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "appium-server-reaper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                long period = Math.max(1, idleSeconds / 2);
+                reaper.scheduleAtFixedRate(() -> stopIdleServers(Duration.ofSeconds(idleSeconds)),
+                        period, period, TimeUnit.SECONDS);
+                idleReaper = reaper;
+            }
+        }
+    }
+
+    private static void stopIdleServers(Duration idleTimeout) {
+        for (ServerHandle handle : servers.values()) {
+            synchronized (handle) {
+                if (handle.isRunning() && handle.activeSessions.get() == 0
+                        && System.nanoTime() - handle.idleSince > idleTimeout.toNanos()) {
+                    log.info("Stopping idle Appium server on port {}", handle.port);
+                    handle.stop();
+                }
             }
         }
     }
 
 
-      // Stop the Appium server
+     // Poll {serverUrl}/status until the server answers 200 or the timeout passes
 
-    public static void stopServer() {
-        if (service != null && service.isRunning()) {
-            service.stop();
-            System.out.println("Appium server stopped.");
+    static void waitUntilReady(String serverUrl, Duration timeout) {
+        String statusUrl = serverUrl.endsWith("/") ? serverUrl + "status" : serverUrl + "/status";
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long backoff = 50;
+        while (true) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(statusUrl).openConnection();
+                connection.setConnectTimeout(1000);
+                connection.setReadTimeout(2000);
+                int code = connection.getResponseCode();
+                connection.disconnect();
+                if (code == 200) {
+                    return;
+                }
+            } catch (Exception ignored) {
+                // Not listening yet
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Appium server did not become ready at " + statusUrl
+                        + " within " + timeout.toSeconds() + "s");
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for Appium server", e);
+            }
+            backoff = Math.min(backoff * 2, 500);
         }
     }
 
 
-      // Get Appium server URL
+    // One server process plus its usage counters. All mutation happens under the handle's monitor.
+
+    private static final class ServerHandle {
+
+        private final int port;
+        private final AtomicInteger activeSessions = new AtomicInteger();
+        private final AtomicLong acquisitions = new AtomicLong();
+        private AppiumDriverLocalService service;
+        private String url;
+        private int starts;
+        private long totalStartupMillis;
+        private long idleSince = System.nanoTime();
+
+        private ServerHandle(int port) {
+            this.port = port;
+        }
+
+        private boolean isRunning() {
+            return service != null && service.isRunning();
+        }
+
+        private void ensureStarted() {
+            if (isRunning()) {
+                return;
+            }
+            try {
+                String ip = ConfigReader.getProperty("appiumServerIP");
+                String logPath = ConfigReader.getProperty("appiumLogFile");
+                Duration readyTimeout = Duration.ofSeconds(
+                        Long.parseLong(ConfigReader.getProperty("appiumServerReadyTimeout", "60")));
+
+                long startedAt = System.nanoTime();
+                AppiumServiceBuilder builder = new AppiumServiceBuilder()
+                        .withIPAddress(ip)
+                        .usingPort(port)
+                        .withLogFile(new File(logPath.replace(".log", "-" + port + ".log")));
+
+                service = AppiumDriverLocalService.buildService(builder);
+                service.start();
+                url = service.getUrl().toString();
+                waitUntilReady(url, readyTimeout);
+
+                long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                starts++;
+                totalStartupMillis += startupMillis;
+                idleSince = System.nanoTime();
+                log.info("Appium server started on: {} in {} ms", url, startupMillis);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to start Appium server on port " + port, e);
+            }
+            scheduleIdleReaper();
+        }
+
+        private void stop() {
+            if (isRunning()) {
+                service.stop();
+                log.info("Appium server stopped on port {}", port);
+            }
+        }
 
-    public static String getServerUrl() {
-        if (service == null || !service.isRunning()) {
-            throw new IllegalStateException("Appium server is not running!");
+        private String report() {
+            long reused = Math.max(0, acquisitions.get() - starts);
+            long avgStartup = starts == 0 ? 0 : totalStartupMillis / starts;
+            return "Appium server :" + port + " | starts: " + starts + " | avg start-up: " + avgStartup
+                    + " ms | sessions served: " + acquisitions.get() + " | reused: " + reused;
         }
-        return service.getUrl().toString();
     }
 }
@@ -0,0 +1,19 @@
+package com.mobile.tests.core;
+
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.Response;
+
+// Hook into every WebDriver command sent by drivers that DriverManager creates
+// (see ObservableCommandExecutor). Called on the test thread, so keep it cheap and never throw.
+
+public interface CommandListener {
+
+    default void beforeCommand(Command command) {
+    }
+
+
+    // response is null when the command failed; failure is null when it succeeded
+
+    default void afterCommand(Command command, Response response, Throwable failure, long durationNanos) {
+    }
+}
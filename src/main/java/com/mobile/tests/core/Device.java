@@ -0,0 +1,45 @@
+package com.mobile.tests.core;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+// One entry of config/devices.json: a device plus the host ports reserved for it so
+// parallel UiAutomator2 sessions do not collide. appiumPort (optional) gives the device
+// its own locally started Appium server; appiumServerURL points it at an existing one.
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Device(String udid,
+                     String deviceName,
+                     String platformVersion,
+                     int systemPort,
+                     int chromedriverPort,
+                     int mjpegServerPort,
+                     String appiumServerURL,
+                     int appiumPort) {
+
+    public Device {
+        if (udid == null || udid.isBlank()) {
+            throw new IllegalArgumentException(" Device entry is missing 'udid'");
+        }
+    }
+
+
+    // Bind the session capabilities to this device and its ports
+
+    public void applyTo(DesiredCapabilities capabilities) {
+        capabilities.setCapability("appium:udid", udid);
+        capabilities.setCapability("appium:deviceName", deviceName != null ? deviceName : udid);
+        if (platformVersion != null) {
+            capabilities.setCapability("appium:platformVersion", platformVersion);
+        }
+        if (systemPort > 0) {
+            capabilities.setCapability("appium:systemPort", systemPort);
+        }
+        if (chromedriverPort > 0) {
+            capabilities.setCapability("appium:chromedriverPort", chromedriverPort);
+        }
+        if (mjpegServerPort > 0) {
+            capabilities.setCapability("appium:mjpegServerPort", mjpegServerPort);
+        }
+    }
+}
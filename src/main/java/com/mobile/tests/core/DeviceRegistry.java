@@ -0,0 +1,129 @@
+package com.mobile.tests.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands out devices from config/devices.json to TestNG worker threads, one device
+// per thread at a time. The lowest free entry is always leased first, so N threads
+// settle on the first N devices and keep hitting the same warm sessions.
+
+public class DeviceRegistry {
+
+    private final List<Device> devices;
+    private final boolean[] leased;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition deviceReturned = lock.newCondition();
+
+    public DeviceRegistry(List<Device> devices) {
+        if (devices == null || devices.isEmpty()) {
+            throw new IllegalArgumentException(" Device registry needs at least one device");
+        }
+        this.devices = List.copyOf(devices);
+        this.leased = new boolean[this.devices.size()];
+    }
+
+
+    // Load the registry from a devices.json file ({"devices": [ ... ]})
+
+    public static DeviceRegistry fromFile(String path) {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode root = mapper.readTree(new File(path));
+            List<Device> devices = mapper.convertValue(root.path("devices"), new TypeReference<List<Device>>() {});
+            return new DeviceRegistry(devices);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException(" Failed to load device registry from path: " + path, e);
+        }
+    }
+
+
+    // The devices of one shard of a sharded run: entry n goes to shard n % shardCount, so every
+    // forked JVM gets its own devices (and their ports) from the same devices.json
+
+    public DeviceRegistry forShard(Shard shard) {
+        if (!shard.isSharded()) {
+            return this;
+        }
+        List<Device> owned = new ArrayList<>();
+        for (int i = 0; i < devices.size(); i++) {
+            if (shard.owns(i)) {
+                owned.add(devices.get(i));
+            }
+        }
+        if (owned.isEmpty()) {
+            throw new IllegalStateException(" No device for " + shard + ": the registry lists " + devices.size()
+                    + " devices, a sharded run needs at least one per shard");
+        }
+        return new DeviceRegistry(owned);
+    }
+
+
+    // Block until a device is free (or the timeout passes) and lease it to the caller
+
+    public Device lease(Duration timeout) {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                for (int i = 0; i < leased.length; i++) {
+                    if (!leased[i]) {
+                        leased[i] = true;
+                        return devices.get(i);
+                    }
+                }
+                if (remaining <= 0) {
+                    throw new IllegalStateException(
+                            "No free device after " + timeout.toSeconds() + "s; all " + devices.size() + " devices are leased");
+                }
+                remaining = deviceReturned.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free device", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // Give a leased device back so another worker can use it
+
+    public void release(Device device) {
+        lock.lock();
+        try {
+            int index = devices.indexOf(device);
+            if (index < 0 || !leased[index]) {
+                throw new IllegalStateException("Device was not leased from this registry: " + device.udid());
+            }
+            leased[index] = false;
+            deviceReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    public Device get(String udid) {
+        return devices.stream()
+                .filter(d -> d.udid().equals(udid))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(" Unknown device udid: " + udid));
+    }
+
+    public List<Device> getDevices() {
+        return devices;
+    }
+
+    public int size() {
+        return devices.size();
+    }
+}
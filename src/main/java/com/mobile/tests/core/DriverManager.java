@@ -1,61 +1,133 @@
 package com.mobile.tests.core;
 
+import com.mobile.tests.metrics.CommandMetrics;
+import com.mobile.tests.replay.DriverRecording;
+import com.mobile.tests.sim.SimulatedAppiumServer;
+import com.mobile.tests.tracing.Tracer;
+import com.mobile.tests.transport.HttpTransport;
 import com.mobile.tests.utils.ConfigReader;
 import com.mobile.tests.utils.CapabilitiesReader;
+import com.mobile.tests.utils.CapabilitiesSnapshot;
 import io.appium.java_client.AppiumDriver;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.remote.DesiredCapabilities;
+import org.slf4j.MDC;
 
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 public class DriverManager {
 
+    // Logging MDC key holding the udid of the device leased to the current thread
+    public static final String MDC_DEVICE = "device";
+
+    private static final String DEFAULT_POOL_KEY = "default";
+
     private static final ThreadLocal<AppiumDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<SessionPool.PooledSession> pooledSession = new ThreadLocal<>();
+    private static final ThreadLocal<Device> leasedDevice = new ThreadLocal<>();
+    private static final Map<AppiumDriver, Integer> serverPorts = new ConcurrentHashMap<>();
+
+    private static volatile SessionPool sessionPool;
+    private static volatile DeviceRegistry deviceRegistry;
 
     private DriverManager() {
         // Prevent instantiation
     }
 
 
-     // Initialize Appium Driver
+     // Initialize Appium Driver (on a leased device when useDeviceRegistry=true,
+     // borrowed from the session pool when useSessionPool=true)
 
     public static void initDriver() {
         if (driver.get() == null) {
+            Device device = isDeviceRegistryEnabled() ? leaseDevice() : null;
             try {
-                String serverURL;
-
-                // Get server URL either from AppiumServerManager or config.properties
-                boolean startAppium = Boolean.parseBoolean(ConfigReader.getProperty("startAppiumServer"));
-                if (startAppium) {
-                    AppiumServerManager.startServer();
-                    serverURL = AppiumServerManager.getServerUrl();
+                if (isSessionPoolEnabled()) {
+                    // Capabilities only matter when a session is opened, so sessions are pooled per device and profile
+                    String poolKey = (device != null ? device.udid() : DEFAULT_POOL_KEY) + "#" + CapabilitiesReader.getProfile();
+                    SessionPool.PooledSession session = getSessionPool().acquire(poolKey);
+                    pooledSession.set(session);
+                    driver.set(session.getDriver());
+                    log.info("Using pooled Appium session on {} (use #{})", poolKey, session.getUses());
                 } else {
-                    serverURL = ConfigReader.getProperty("appiumServerURL");
+                    driver.set(createDriver(device));
                 }
+            } catch (RuntimeException e) {
+                releaseDevice();
+                throw e;
+            }
+        }
+    }
 
-                // Load capabilities from CapabilitiesReader
-                Map<String, Object> capabilitiesMap = CapabilitiesReader.getCapabilities();
-                DesiredCapabilities capabilities = new DesiredCapabilities();
-                capabilitiesMap.forEach(capabilities::setCapability);
 
-                // Create Appium Driver
-                AppiumDriver appiumDriver = new AppiumDriver(new URL(serverURL), capabilities);
+     // Open a brand new Appium session, bound to the given device when one is leased
 
-                // Configure implicit wait from config.properties
-                int implicitWait = Integer.parseInt(ConfigReader.getProperty("implicitWait"));
-                appiumDriver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+    private static AppiumDriver createDriver(Device device) {
+        try {
+            String serverURL;
+            int serverPort = 0;
 
-                driver.set(appiumDriver);
+            // Get server URL either from the simulator, the device entry, AppiumServerManager or config.properties
+            // (a replay never connects, so it keeps the configured URL)
+            if (DriverRecording.isReplay()) {
+                serverURL = ConfigReader.getProperty("appiumServerURL");
+            } else if (isSimulated()) {
+                serverURL = SimulatedAppiumServer.shared().url();
+            } else if (device != null && device.appiumServerURL() != null) {
+                serverURL = device.appiumServerURL();
+            } else if (isStartAppiumServer()) {
+                serverPort = serverPortFor(device);
+                serverURL = AppiumServerManager.acquire(serverPort);
+            } else {
+                serverURL = ConfigReader.getProperty("appiumServerURL");
+            }
 
-                System.out.println("Appium driver started successfully with capabilities: " + capabilitiesMap);
+            // Capabilities come from the parse-once snapshot for this thread's profile and device
+            CapabilitiesSnapshot snapshot = CapabilitiesReader.getSnapshot(device != null ? device.udid() : null);
+            if (!isSimulated() && !DriverRecording.isReplay()) {
+                snapshot.requireApp();
+            }
+            DesiredCapabilities capabilities = snapshot.toDesiredCapabilities();
+            if (device != null) {
+                device.applyTo(capabilities);
+            }
 
-            } catch (MalformedURLException e) {
-                throw new RuntimeException("Invalid Appium server URL. Check config.properties", e);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to initialize Appium driver", e);
+            // Create Appium Driver (through ObservableCommandExecutor so CommandListeners see every command;
+            // HTTP goes through the configured transport, or the recorder / replayer when driverRecording is on)
+            CommandMetrics.install();
+            Tracer.install();
+            AppiumDriver appiumDriver;
+            try {
+                appiumDriver = new AppiumDriver(
+                        new ObservableCommandExecutor(new URL(serverURL), DriverRecording.httpClientFactory()), capabilities);
+            } catch (RuntimeException e) {
+                if (serverPort > 0) {
+                    AppiumServerManager.release(serverPort);
+                }
+                throw e;
+            }
+            if (serverPort > 0) {
+                serverPorts.put(appiumDriver, serverPort);
             }
+
+            // No implicit wait: every lookup that waits goes through WaitEngine, whose polls must not block
+            appiumDriver.manage().timeouts().implicitlyWait(Duration.ZERO);
+
+            log.info("Appium driver started successfully on {}", serverURL);
+            log.debug("Session capabilities: {}", capabilities);
+            return appiumDriver;
+
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Invalid Appium server URL. Check config.properties", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize Appium driver", e);
         }
     }
 
@@ -70,17 +142,188 @@ public class DriverManager {
     }
 
 
-     // Quit driver and cleanup
+     // Whether the current thread has a driver (e.g. a failed setUp leaves none)
+
+    public static boolean hasDriver() {
+        return driver.get() != null;
+    }
+
+
+     // Device leased to the current thread, or null when the device registry is off
+
+    public static Device getCurrentDevice() {
+        return leasedDevice.get();
+    }
+
+
+     // Quit driver and cleanup (pooled sessions are reset and handed back instead)
 
     public static void quitDriver() {
         if (driver.get() != null) {
-            driver.get().quit();
-            driver.remove();
-            boolean startAppium = Boolean.parseBoolean(ConfigReader.getProperty("startAppiumServer"));
-            if (startAppium) {
-                AppiumServerManager.stopServer();
+            SessionPool.PooledSession session = pooledSession.get();
+            try {
+                if (session != null) {
+                    getSessionPool().release(session);
+                    log.info("Appium session returned to pool");
+                } else {
+                    closeDriver(driver.get());
+                    log.info("Appium driver stopped successfully");
+                }
+            } finally {
+                driver.remove();
+                pooledSession.remove();
+                releaseDevice();
+            }
+        }
+    }
+
+
+     // Start the local Appium server(s) up front so the first tests do not pay for Node start-up
+
+    public static void prewarm() {
+        if (DriverRecording.isReplay()) {
+            return;
+        }
+        if (isSimulated()) {
+            SimulatedAppiumServer.shared();
+            return;
+        }
+        if (!isStartAppiumServer()) {
+            return;
+        }
+        Set<Integer> ports = new TreeSet<>();
+        if (isDeviceRegistryEnabled()) {
+            for (Device device : getDeviceRegistry().getDevices()) {
+                if (device.appiumServerURL() == null) {
+                    ports.add(serverPortFor(device));
+                }
+            }
+        } else {
+            ports.add(AppiumServerManager.getDefaultPort());
+        }
+        AppiumServerManager.prewarm(ports);
+    }
+
+
+     // Quit all pooled sessions and stop local Appium servers (call once at suite end)
+
+    public static void shutdown() {
+        SessionPool pool = sessionPool;
+        if (pool != null) {
+            pool.shutdown();
+            sessionPool = null;
+            log.info("Session pool shut down");
+        }
+        DriverRecording.close();
+        HttpTransport.close();
+        if (isSimulated()) {
+            SimulatedAppiumServer.stopShared();
+        } else if (isStartAppiumServer()) {
+            AppiumServerManager.stopAll();
+        }
+    }
+
+
+     // Quit a session and release its hold on the local Appium server
+
+    private static void closeDriver(AppiumDriver appiumDriver) {
+        try {
+            appiumDriver.quit();
+        } finally {
+            Integer port = serverPorts.remove(appiumDriver);
+            if (port != null) {
+                AppiumServerManager.release(port);
+            }
+        }
+    }
+
+    private static int serverPortFor(Device device) {
+        return device != null && device.appiumPort() > 0 ? device.appiumPort() : AppiumServerManager.getDefaultPort();
+    }
+
+
+     // executionMode=simulated: sessions go to the in-process SimulatedAppiumServer instead of a device
+
+    public static boolean isSimulated() {
+        return "simulated".equalsIgnoreCase(ConfigReader.getProperty("executionMode", "device"));
+    }
+
+    private static boolean isStartAppiumServer() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("startAppiumServer"));
+    }
+
+
+    private static Device leaseDevice() {
+        Duration timeout = Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("deviceLeaseTimeout", "600")));
+        Device device = getDeviceRegistry().lease(timeout);
+        leasedDevice.set(device);
+        MDC.put(MDC_DEVICE, device.udid());
+        log.info("Leased device {}", device.udid());
+        return device;
+    }
+
+    private static void releaseDevice() {
+        Device device = leasedDevice.get();
+        if (device != null) {
+            leasedDevice.remove();
+            MDC.remove(MDC_DEVICE);
+            getDeviceRegistry().release(device);
+        }
+    }
+
+    private static boolean isDeviceRegistryEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("useDeviceRegistry", "false"));
+    }
+
+    private static DeviceRegistry getDeviceRegistry() {
+        DeviceRegistry registry = deviceRegistry;
+        if (registry == null) {
+            synchronized (DriverManager.class) {
+                registry = deviceRegistry;
+                if (registry == null) {
+                    registry = DeviceRegistry.fromFile(ConfigReader.getProperty("devicesFile", "config/devices.json"));
+                    // Shards of a sharded run split the devices; the simulator ignores them, so it shares them
+                    if (!isSimulated()) {
+                        registry = registry.forShard(Shard.current());
+                    }
+                    deviceRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+
+     // Swap in a registry built from a fake device list (e.g. devices pointing at a stub server)
+
+    public static void useDeviceRegistry(DeviceRegistry registry) {
+        deviceRegistry = registry;
+    }
+
+    private static boolean isSessionPoolEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("useSessionPool", "false"));
+    }
+
+    private static SessionPool getSessionPool() {
+        SessionPool pool = sessionPool;
+        if (pool == null) {
+            synchronized (DriverManager.class) {
+                pool = sessionPool;
+                if (pool == null) {
+                    String appPackage = String.valueOf(CapabilitiesReader.getSnapshot().get("appium:appPackage"));
+                    pool = new SessionPool(
+                            Integer.parseInt(ConfigReader.getProperty("sessionPoolSize", "2")),
+                            Integer.parseInt(ConfigReader.getProperty("sessionMaxReuse", "20")),
+                            Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("sessionIdleTimeout", "300"))),
+                            Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("sessionAcquireTimeout", "600"))),
+                            AppResetStrategy.valueOf(ConfigReader.getProperty("sessionResetStrategy", "TERMINATE_ACTIVATE")),
+                            appPackage,
+                            key -> createDriver(leasedDevice.get()),
+                            DriverManager::closeDriver);
+                    sessionPool = pool;
+                }
             }
-            System.out.println("Appium driver stopped successfully");
         }
+        return pool;
     }
 }
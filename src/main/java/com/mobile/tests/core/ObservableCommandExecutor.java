@@ -0,0 +1,69 @@
+package com.mobile.tests.core;
+
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// AppiumCommandExecutor that reports every command to the registered CommandListeners.
+// With no listeners registered it is a plain AppiumCommandExecutor.
+
+public class ObservableCommandExecutor extends AppiumCommandExecutor {
+
+    private static final List<CommandListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ObservableCommandExecutor(URL serverUrl) {
+        super(MobileCommand.commandRepository, serverUrl);
+    }
+
+
+    // Same, with HTTP going through the given client factory (null = Selenium's default)
+
+    public ObservableCommandExecutor(URL serverUrl, HttpClient.Factory httpClientFactory) {
+        super(MobileCommand.commandRepository, serverUrl,
+                httpClientFactory != null ? httpClientFactory : HttpClient.Factory.createDefault());
+    }
+
+    public static void addListener(CommandListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public static void removeListener(CommandListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    @Override
+    public Response execute(Command command) throws WebDriverException {
+        if (listeners.isEmpty()) {
+            return super.execute(command);
+        }
+
+        for (CommandListener listener : listeners) {
+            listener.beforeCommand(command);
+        }
+        long start = System.nanoTime();
+        Response response = null;
+        Throwable failure = null;
+        try {
+            response = super.execute(command);
+            return response;
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            for (CommandListener listener : listeners) {
+                listener.afterCommand(command, response, failure, duration);
+            }
+        }
+    }
+}
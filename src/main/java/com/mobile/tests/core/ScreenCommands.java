@@ -0,0 +1,52 @@
+package com.mobile.tests.core;
+
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+
+import java.util.Set;
+
+// Which driver commands leave the screen as it is, for the listeners that drop per-screen state when
+// it may have changed (PageSnapshots, ElementCache). Commands are matched on Command.getName();
+// the activity and package reads are listed by name because their MobileCommand constants are
+// deprecated, and their "mobile:" executeScript equivalents count as reads too.
+
+public final class ScreenCommands {
+
+    private static final Set<String> READS = Set.of(
+            DriverCommand.FIND_ELEMENT, DriverCommand.FIND_ELEMENTS,
+            DriverCommand.FIND_CHILD_ELEMENT, DriverCommand.FIND_CHILD_ELEMENTS,
+            DriverCommand.GET_ELEMENT_TEXT, DriverCommand.GET_ELEMENT_ATTRIBUTE, DriverCommand.GET_ELEMENT_TAG_NAME,
+            DriverCommand.IS_ELEMENT_DISPLAYED, DriverCommand.IS_ELEMENT_ENABLED, DriverCommand.IS_ELEMENT_SELECTED,
+            DriverCommand.GET_ELEMENT_RECT, DriverCommand.GET_ELEMENT_LOCATION, DriverCommand.GET_ELEMENT_SIZE,
+            DriverCommand.GET_PAGE_SOURCE, DriverCommand.SCREENSHOT, DriverCommand.ELEMENT_SCREENSHOT,
+            DriverCommand.STATUS, DriverCommand.GET_CAPABILITIES, DriverCommand.GET_TIMEOUTS, DriverCommand.SET_TIMEOUT,
+            DriverCommand.GET_SCREEN_ORIENTATION, DriverCommand.GET_CONTEXT_HANDLES, DriverCommand.GET_CURRENT_CONTEXT_HANDLE,
+            "currentActivity", "getCurrentPackage");
+
+    private static final Set<String> READ_SCRIPTS = Set.of("mobile: getCurrentActivity", "mobile: getCurrentPackage");
+
+    // Typing changes what the page source says, but not the screen or its element references
+    private static final Set<String> TYPING = Set.of(DriverCommand.SEND_KEYS_TO_ELEMENT, DriverCommand.CLEAR_ELEMENT);
+
+    private ScreenCommands() {
+        // Prevent instantiation
+    }
+
+
+    // Neither the screen nor anything on it changes (a page-source snapshot stays valid)
+
+    public static boolean isRead(Command command) {
+        String name = command.getName();
+        if (READS.contains(name)) {
+            return true;
+        }
+        return DriverCommand.EXECUTE_SCRIPT.equals(name) && READ_SCRIPTS.contains(command.getParameters().get("script"));
+    }
+
+
+    // The screen and its elements stay, though their text may change (located elements stay valid)
+
+    public static boolean keepsScreen(Command command) {
+        return TYPING.contains(command.getName()) || isRead(command);
+    }
+}
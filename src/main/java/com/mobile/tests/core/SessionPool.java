@@ -0,0 +1,273 @@
+package com.mobile.tests.core;
+
+import io.appium.java_client.AppiumDriver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Keeps Appium sessions alive between test methods so each test does not pay for
+// a new session (app reinstall + UiAutomator2 bootstrap). Sessions are grouped by
+// key (device) and reset with a cheap AppResetStrategy when they are handed back.
+
+@Slf4j
+public class SessionPool {
+
+    private final int maxSize;
+    private final int maxReuse;
+    private final Duration idleTimeout;
+    private final Duration acquireTimeout;
+    private final AppResetStrategy resetStrategy;
+    private final String appPackage;
+    private final Function<String, AppiumDriver> sessionFactory;
+    private final Consumer<AppiumDriver> sessionCloser;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sessionReturned = lock.newCondition();
+    private final Map<String, Deque<PooledSession>> idleSessions = new HashMap<>();
+    private int liveSessions;
+    private boolean shutdown;
+
+    public SessionPool(int maxSize, int maxReuse, Duration idleTimeout, Duration acquireTimeout,
+                       AppResetStrategy resetStrategy, String appPackage,
+                       Function<String, AppiumDriver> sessionFactory, Consumer<AppiumDriver> sessionCloser) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException(" Session pool size must be at least 1, was: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.maxReuse = maxReuse;
+        this.idleTimeout = idleTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.resetStrategy = resetStrategy;
+        this.appPackage = appPackage;
+        this.sessionFactory = sessionFactory;
+        this.sessionCloser = sessionCloser;
+    }
+
+
+    // Borrow a session for the given key, reusing an idle one when possible
+
+    public PooledSession acquire(String key) {
+        long deadline = System.nanoTime() + acquireTimeout.toNanos();
+        while (true) {
+            PooledSession idle = reserve(key, deadline);
+            if (idle == null) {
+                break;
+            }
+            // Health probe is a device round trip, so it runs outside the lock
+            if (isHealthy(idle)) {
+                idle.uses++;
+                return idle;
+            }
+            evict(idle);
+        }
+
+        // Slot reserved; open the session outside the lock since it takes tens of seconds
+        try {
+            PooledSession created = new PooledSession(key, sessionFactory.apply(key));
+            created.uses++;
+            log.info("Opened new pooled Appium session for: {}", key);
+            return created;
+        } catch (RuntimeException e) {
+            releaseSlot();
+            throw e;
+        }
+    }
+
+
+    // Take an idle session for the key, or reserve a slot for a new one (returns null)
+
+    private PooledSession reserve(String key, long deadline) {
+        List<PooledSession> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            while (true) {
+                if (shutdown) {
+                    throw new IllegalStateException("Session pool has been shut down");
+                }
+
+                PooledSession idle = pollUnexpired(key, evicted);
+                if (idle != null) {
+                    return idle;
+                }
+
+                if (liveSessions < maxSize || evictIdleFromOtherKey(key, evicted)) {
+                    liveSessions++;
+                    return null;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException(
+                            "Timed out after " + acquireTimeout.toSeconds() + "s waiting for a pooled session for: " + key);
+                }
+                sessionReturned.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled session", e);
+        } finally {
+            lock.unlock();
+            evicted.forEach(this::quitQuietly);
+        }
+    }
+
+
+    // Hand a session back: reset the app and keep it, or evict it when worn out or unhealthy
+
+    public void release(PooledSession session) {
+        boolean keep = (maxReuse <= 0 || session.uses < maxReuse) && resetQuietly(session);
+
+        lock.lock();
+        try {
+            if (keep && !shutdown) {
+                session.lastReleased = System.nanoTime();
+                idleSessions.computeIfAbsent(session.key, k -> new ArrayDeque<>()).push(session);
+                sessionReturned.signalAll();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        quitQuietly(session);
+        releaseSlot();
+    }
+
+
+    // Quit a session that must not be reused (e.g. the test broke it)
+
+    public void evict(PooledSession session) {
+        quitQuietly(session);
+        releaseSlot();
+    }
+
+
+    // Quit every idle session and refuse further acquisitions
+
+    public void shutdown() {
+        List<PooledSession> toQuit = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            idleSessions.values().forEach(toQuit::addAll);
+            idleSessions.clear();
+            liveSessions -= toQuit.size();
+            sessionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        toQuit.forEach(this::quitQuietly);
+    }
+
+
+    private PooledSession pollUnexpired(String key, List<PooledSession> evicted) {
+        Deque<PooledSession> sessions = idleSessions.get(key);
+        while (sessions != null && !sessions.isEmpty()) {
+            PooledSession candidate = sessions.pop();
+            if (isExpired(candidate)) {
+                evicted.add(candidate);
+                liveSessions--;
+                continue;
+            }
+            return candidate;
+        }
+        return null;
+    }
+
+
+    // Make room for a new key when the pool is full of idle sessions bound elsewhere
+
+    private boolean evictIdleFromOtherKey(String key, List<PooledSession> evicted) {
+        for (Map.Entry<String, Deque<PooledSession>> entry : idleSessions.entrySet()) {
+            if (!entry.getKey().equals(key) && !entry.getValue().isEmpty()) {
+                evicted.add(entry.getValue().pollLast());
+                liveSessions--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExpired(PooledSession session) {
+        return !idleTimeout.isZero()
+                && System.nanoTime() - session.lastReleased > idleTimeout.toNanos();
+    }
+
+    private boolean isHealthy(PooledSession session) {
+        try {
+            Object state = session.driver.executeScript("mobile: queryAppState", Map.of("appId", appPackage));
+            // 3 = running in background, 4 = running in foreground
+            return state instanceof Number && ((Number) state).intValue() >= 3;
+        } catch (Exception e) {
+            log.warn("Evicting unhealthy pooled session for: {} | Reason: {}", session.key, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean resetQuietly(PooledSession session) {
+        try {
+            resetStrategy.reset(session.driver, appPackage);
+            return true;
+        } catch (Exception e) {
+            log.warn("App reset failed, evicting session for: {} | Reason: {}", session.key, e.getMessage());
+            return false;
+        }
+    }
+
+    private void quitQuietly(PooledSession session) {
+        try {
+            sessionCloser.accept(session.driver);
+        } catch (Exception e) {
+            log.warn("Failed to quit pooled session for: {} | Reason: {}", session.key, e.getMessage());
+        }
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            liveSessions--;
+            sessionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // A live session plus the bookkeeping the pool needs to decide whether to keep it
+
+    public static final class PooledSession {
+
+        private final String key;
+        private final AppiumDriver driver;
+        private int uses;
+        private long lastReleased;
+
+        private PooledSession(String key, AppiumDriver driver) {
+            this.key = key;
+            this.driver = driver;
+            this.lastReleased = System.nanoTime();
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public AppiumDriver getDriver() {
+            return driver;
+        }
+
+        public int getUses() {
+            return uses;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mobile.tests.core;
+
+import com.mobile.tests.utils.ConfigReader;
+
+// This JVM's slice of a sharded run: shard <index> of <count>, passed in as -DshardIndex / -DshardCount
+// by ShardRunner for each JVM it forks. Test methods are split by ShardMethodInterceptor, devices by
+// DeviceRegistry.forShard(). The default shardCount=1 is an ordinary, unsharded run.
+
+public record Shard(int index, int count) {
+
+    public Shard {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(" Invalid shard " + index + " of " + count
+                    + " (need shardCount >= 1 and 0 <= shardIndex < shardCount)");
+        }
+    }
+
+    public static Shard current() {
+        return new Shard(Integer.parseInt(ConfigReader.getProperty("shardIndex", "0")),
+                Integer.parseInt(ConfigReader.getProperty("shardCount", "1")));
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+
+    // Round-robin ownership of the n-th entry of a list every shard sees in the same order
+
+    public boolean owns(int position) {
+        return position % count == index;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + index + " of " + count;
+    }
+}
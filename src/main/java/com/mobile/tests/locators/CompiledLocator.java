@@ -0,0 +1,88 @@
+package com.mobile.tests.locators;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+// A page-object locator paired with a faster equivalent chosen by LocatorCompiler.
+//
+// Until the fast locator has found something, every lookup that it misses is retried with the
+// original. If the original finds elements the fast one did not, the rewrite is wrong for this
+// app and is dropped for good. Once the fast locator has matched, it is trusted on its own, so
+// negative checks (waits for absence, error probes) do not pay for two lookups per poll.
+
+public final class CompiledLocator extends By {
+
+    private final By original;
+    private final By fast;
+    private volatile boolean verified;
+    private volatile boolean disabled;
+
+    CompiledLocator(By original, By fast) {
+        this.original = original;
+        this.fast = fast;
+    }
+
+    public By getOriginal() {
+        return original;
+    }
+
+    public By getFast() {
+        return fast;
+    }
+
+    public boolean isActive() {
+        return !disabled;
+    }
+
+    @Override
+    public List<WebElement> findElements(SearchContext context) {
+        if (disabled) {
+            return context.findElements(original);
+        }
+        List<WebElement> elements = context.findElements(fast);
+        if (!elements.isEmpty()) {
+            verified = true;
+            return elements;
+        }
+        if (verified) {
+            return elements;
+        }
+        List<WebElement> fallback = context.findElements(original);
+        if (!fallback.isEmpty()) {
+            disabled = true;
+            LocatorCompiler.rewriteRejected(this);
+        }
+        return fallback;
+    }
+
+    @Override
+    public WebElement findElement(SearchContext context) {
+        List<WebElement> elements = findElements(context);
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException("Cannot locate an element using " + this);
+        }
+        return elements.get(0);
+    }
+
+
+    // Same string as the original, so logs and wait statistics keep their familiar keys
+
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CompiledLocator compiled && original.equals(compiled.original);
+    }
+
+    @Override
+    public int hashCode() {
+        return original.hashCode();
+    }
+}
@@ -0,0 +1,102 @@
+package com.mobile.tests.locators;
+
+import com.mobile.tests.utils.ConfigReader;
+import io.appium.java_client.AppiumBy;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.By;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Rewrites single-step XPath locators into strategies UiAutomator2 resolves without building
+// an XML dump of the whole screen:
+//   //*[@content-desc='v']             -> accessibilityId("v")
+//   //tag[@content-desc='v']           -> UiSelector().className("tag").description("v")
+//   //tag[@text='v']                   -> UiSelector().className("tag").text("v")
+//   //tag[contains(@text,'v')]         -> UiSelector().className("tag").textContains("v")
+//   //tag[@resource-id='v']            -> UiSelector().className("tag").resourceId("v")
+// Anything else (child steps, indexes, other functions) is left as it is. Each locator is
+// analysed once per JVM and each applied rewrite is logged once. locatorRewrite=false turns it off.
+
+@Slf4j
+public final class LocatorCompiler {
+
+    // An XPath 1.0 literal cannot contain its own quote, so the value stops at the first one;
+    // otherwise "[@a='x' and @b='y']" or "[@a='x']//*[@b='y']" would read as one long value
+    private static final Pattern SIMPLE_XPATH = Pattern.compile(
+            "^//([A-Za-z0-9_.]+|\\*)\\[\\s*(?:@(content-desc|text|resource-id)\\s*=\\s*(['\"])((?:(?!\\3).)*)\\3"
+                    + "|contains\\(\\s*@(text|content-desc)\\s*,\\s*(['\"])((?:(?!\\6).)*)\\6\\s*\\))\\s*]$");
+
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("locatorRewrite", "true"));
+    private static final Map<By, By> compiled = new ConcurrentHashMap<>();
+
+    private LocatorCompiler() {
+        // Prevent instantiation
+    }
+
+
+    // Fastest equivalent of the locator: a CompiledLocator when a rewrite applies, otherwise the locator itself
+
+    public static By compile(By locator) {
+        if (!enabled || locator instanceof CompiledLocator) {
+            return locator;
+        }
+        By result = compiled.get(locator);
+        return result != null ? result : compiled.computeIfAbsent(locator, LocatorCompiler::analyse);
+    }
+
+
+    // The rewritten By for an XPath, or null when no rewrite applies (exposed for benchmarks)
+
+    public static By rewrite(String xpath) {
+        Matcher matcher = SIMPLE_XPATH.matcher(xpath.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        String tag = matcher.group(1);
+        boolean contains = matcher.group(5) != null;
+        String attribute = contains ? matcher.group(5) : matcher.group(2);
+        String value = contains ? matcher.group(7) : matcher.group(4);
+
+        if (!contains && "*".equals(tag) && "content-desc".equals(attribute)) {
+            return AppiumBy.accessibilityId(value);
+        }
+
+        StringBuilder selector = new StringBuilder("new UiSelector()");
+        if (!"*".equals(tag)) {
+            selector.append(".className(").append(quote(tag)).append(')');
+        }
+        String method = switch (attribute) {
+            case "content-desc" -> contains ? "descriptionContains" : "description";
+            case "text" -> contains ? "textContains" : "text";
+            default -> "resourceId";
+        };
+        selector.append('.').append(method).append('(').append(quote(value)).append(')');
+        return AppiumBy.androidUIAutomator(selector.toString());
+    }
+
+    static void rewriteRejected(CompiledLocator locator) {
+        log.warn("Locator rewrite dropped, original matched but rewrite did not: {} -> {}",
+                locator.getOriginal(), locator.getFast());
+    }
+
+
+    private static By analyse(By locator) {
+        if (!(locator instanceof By.Remotable remotable)
+                || !"xpath".equals(remotable.getRemoteParameters().using())) {
+            return locator;
+        }
+        By fast = rewrite(String.valueOf(remotable.getRemoteParameters().value()));
+        if (fast == null) {
+            return locator;
+        }
+        log.info("Locator rewrite: {} -> {}", locator, fast);
+        return new CompiledLocator(locator, fast);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
@@ -0,0 +1,235 @@
+package com.mobile.tests.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mobile.tests.core.CommandListener;
+import com.mobile.tests.core.ObservableCommandExecutor;
+import com.mobile.tests.utils.ConfigReader;
+import io.qameta.allure.Allure;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wall-clock time of every WebDriver command (findElement, clickElement, getElementText,
+// getPageSource, screenshot, ...) as seen by ObservableCommandExecutor, i.e. device + wire time,
+// without our own waits between polls. Kept per command and per command + locator; element
+// commands are attributed to the locator that found the element.
+//
+// install() registers the listener only when commandMetrics=true. ObservableCommandExecutor skips
+// listener dispatch only while no listener at all is registered, and pageSnapshots, elementCache
+// and tracing add their own when enabled, so turning this off alone removes the recording cost,
+// not the dispatch. writeReport() dumps JSON at suite end and attaches it to Allure.
+
+@Slf4j
+public final class CommandMetrics {
+
+    private static final String[] ELEMENT_KEYS = {"element-6066-11e4-a52e-4f735466cecf", "ELEMENT"};
+
+    // Element ids remembered per session for locator attribution; cleared past this size
+    private static final int MAX_TRACKED_ELEMENTS = 10_000;
+
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("commandMetrics", "true"));
+    private static final String reportPath =
+            ConfigReader.getProperty("commandMetricsReport", "target/command-metrics.json");
+
+    private static final Map<String, LatencyHistogram> byCommand = new ConcurrentHashMap<>();
+    private static final Map<CommandLocator, LatencyHistogram> byLocator = new ConcurrentHashMap<>();
+    private static final Map<SessionId, Map<String, String>> elementLocators = new ConcurrentHashMap<>();
+    private static final Recorder recorder = new Recorder();
+
+    private CommandMetrics() {
+        // Prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+
+    // Start timing commands of drivers built on ObservableCommandExecutor (no-op when disabled or already installed)
+
+    public static void install() {
+        if (enabled) {
+            ObservableCommandExecutor.addListener(recorder);
+        }
+    }
+
+    public static LatencyHistogram forCommand(String command) {
+        return byCommand.get(command);
+    }
+
+    public static void reset() {
+        byCommand.clear();
+        byLocator.clear();
+        elementLocators.clear();
+    }
+
+
+    // Write the JSON report (commandMetricsReport) and attach it to the running Allure test or fixture
+
+    public static void writeReport() {
+        if (!enabled || byCommand.isEmpty()) {
+            return;
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("unit", "ms");
+        report.put("commands", rows(byCommand.entrySet().stream()
+                .map(e -> row(e.getKey(), null, e.getValue())).toList()));
+        report.put("locators", rows(byLocator.entrySet().stream()
+                .map(e -> row(e.getKey().command(), e.getKey().locator(), e.getValue())).toList()));
+
+        try {
+            byte[] json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(report);
+            Path file = Paths.get(reportPath);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, json);
+            Allure.addAttachment("Command latency", "application/json", new String(json, StandardCharsets.UTF_8), "json");
+            log.info("Command latency report written to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Failed to write command latency report: {}", e.getMessage());
+        }
+        log.info("{}", summary());
+    }
+
+
+    // Slowest commands by total time, one line each
+
+    public static String summary() {
+        StringBuilder summary = new StringBuilder("Command latency (command | count | failures | p50 | p95 | p99 | max | total ms)");
+        byCommand.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> -e.getValue().getTotalMicros()))
+                .forEach(e -> {
+                    LatencyHistogram h = e.getValue();
+                    summary.append(System.lineSeparator()).append(e.getKey())
+                            .append(" | ").append(h.getCount())
+                            .append(" | ").append(h.getFailures())
+                            .append(" | ").append(millis(h.percentileMicros(50)))
+                            .append(" | ").append(millis(h.percentileMicros(95)))
+                            .append(" | ").append(millis(h.percentileMicros(99)))
+                            .append(" | ").append(millis(h.getMaxMicros()))
+                            .append(" | ").append(millis(h.getTotalMicros()));
+                });
+        return summary.toString();
+    }
+
+
+    private static List<Map<String, Object>> rows(Collection<Map<String, Object>> rows) {
+        List<Map<String, Object>> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingDouble(row -> -((Number) row.get("totalMs")).doubleValue()));
+        return sorted;
+    }
+
+    private static Map<String, Object> row(String command, String locator, LatencyHistogram histogram) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("command", command);
+        if (locator != null) {
+            row.put("locator", locator);
+        }
+        row.put("count", histogram.getCount());
+        row.put("failures", histogram.getFailures());
+        row.put("p50Ms", millis(histogram.percentileMicros(50)));
+        row.put("p95Ms", millis(histogram.percentileMicros(95)));
+        row.put("p99Ms", millis(histogram.percentileMicros(99)));
+        row.put("maxMs", millis(histogram.getMaxMicros()));
+        row.put("totalMs", millis(histogram.getTotalMicros()));
+        return row;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private record CommandLocator(String command, String locator) {
+    }
+
+
+    // Records each command and remembers which locator produced which element id
+
+    private static final class Recorder implements CommandListener {
+
+        @Override
+        public void afterCommand(Command command, Response response, Throwable failure, long durationNanos) {
+            String name = command.getName();
+            // W3C errors come back as a response with a non-zero status and are thrown later by the driver
+            boolean failed = failure != null || (response != null && response.getStatus() != null && response.getStatus() != 0);
+            byCommand.computeIfAbsent(name, key -> new LatencyHistogram()).record(durationNanos, failed);
+
+            SessionId sessionId = command.getSessionId();
+            if (sessionId == null) {
+                return;
+            }
+            if (DriverCommand.QUIT.equals(name)) {
+                elementLocators.remove(sessionId);
+                return;
+            }
+
+            String locator = locatorOf(command, sessionId);
+            if (locator != null) {
+                byLocator.computeIfAbsent(new CommandLocator(name, locator), key -> new LatencyHistogram())
+                        .record(durationNanos, failed);
+                if (!failed && response != null) {
+                    rememberElements(sessionId, locator, response.getValue());
+                }
+            }
+        }
+
+        private String locatorOf(Command command, SessionId sessionId) {
+            Map<String, ?> parameters = command.getParameters();
+            Object using = parameters.get("using");
+            if (using != null) {
+                return using + ": " + parameters.get("value");
+            }
+            Object elementId = parameters.get("id");
+            if (elementId == null) {
+                return null;
+            }
+            Map<String, String> locators = elementLocators.get(sessionId);
+            return locators != null ? locators.get(elementId.toString()) : null;
+        }
+
+        private void rememberElements(SessionId sessionId, String locator, Object value) {
+            if (value instanceof Map<?, ?> element) {
+                remember(sessionId, locator, element);
+            } else if (value instanceof List<?> elements) {
+                for (Object element : elements) {
+                    if (element instanceof Map<?, ?> map) {
+                        remember(sessionId, locator, map);
+                    }
+                }
+            }
+        }
+
+        private void remember(SessionId sessionId, String locator, Map<?, ?> element) {
+            for (String key : ELEMENT_KEYS) {
+                Object id = element.get(key);
+                if (id != null) {
+                    Map<String, String> locators = elementLocators.computeIfAbsent(sessionId, s -> new ConcurrentHashMap<>());
+                    if (locators.size() >= MAX_TRACKED_ELEMENTS) {
+                        locators.clear();
+                    }
+                    locators.put(id.toString(), locator);
+                    return;
+                }
+            }
+        }
+    }
+}
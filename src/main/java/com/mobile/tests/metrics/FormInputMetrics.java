@@ -0,0 +1,104 @@
+package com.mobile.tests.metrics;
+
+import com.mobile.tests.core.CommandListener;
+import com.mobile.tests.core.ObservableCommandExecutor;
+import org.openqa.selenium.remote.Command;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Round trips and wall time of every form BasePage.fill() submits, per page and per input path
+// ("batched" = elements located first, one mobile: replaceElementValue per field; "typed" = the
+// wait + clear + sendKeys of type() per field). Round trips are the WebDriver commands the calling
+// thread sent while the form was filled, counted by a listener on ObservableCommandExecutor that is
+// registered only while at least one fill() is running, so the rest of the run keeps the
+// executor's listener-free path. Run once with -DbatchedInput=false to get the typed numbers.
+
+public final class FormInputMetrics {
+
+    private static final ThreadLocal<long[]> commandsSent = ThreadLocal.withInitial(() -> new long[1]);
+    private static final Map<FormPath, Totals> totals = new ConcurrentHashMap<>();
+
+    private static final CommandListener counter = new CommandListener() {
+        @Override
+        public void beforeCommand(Command command) {
+            commandsSent.get()[0]++;
+        }
+    };
+
+    // Forms being filled right now, on any thread; guarded by FormInputMetrics.class
+    private static int activeForms;
+
+    private FormInputMetrics() {
+        // Prevent instantiation
+    }
+
+
+    // Start counting this thread's commands and take the count and the clock before the form is
+    // filled; every start() must be paired with a stop(), also when filling fails
+
+    public static Sample start() {
+        synchronized (FormInputMetrics.class) {
+            if (activeForms++ == 0) {
+                ObservableCommandExecutor.addListener(counter);
+            }
+        }
+        return new Sample(commandsSent.get()[0], System.nanoTime());
+    }
+
+    public static void stop() {
+        synchronized (FormInputMetrics.class) {
+            if (--activeForms == 0) {
+                ObservableCommandExecutor.removeListener(counter);
+            }
+        }
+    }
+
+    public static void record(String form, String path, Sample start) {
+        Totals formTotals = totals.computeIfAbsent(new FormPath(form, path), key -> new Totals());
+        formTotals.forms.increment();
+        formTotals.roundTrips.add(commandsSent.get()[0] - start.commands());
+        formTotals.nanos.add(System.nanoTime() - start.nanos());
+    }
+
+    public static void reset() {
+        totals.clear();
+    }
+
+
+    // One line per form and path: forms filled, average round trips and average ms
+
+    public static String summary() {
+        StringBuilder summary = new StringBuilder("Form input (form | path | count | avg round trips | avg ms)");
+        if (totals.isEmpty()) {
+            return summary.append(System.lineSeparator()).append("none").toString();
+        }
+        totals.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<FormPath, Totals> e) -> e.getKey().form())
+                        .thenComparing(e -> e.getKey().path()))
+                .forEach(e -> {
+                    long forms = e.getValue().forms.sum();
+                    summary.append(System.lineSeparator()).append(e.getKey().form())
+                            .append(" | ").append(e.getKey().path())
+                            .append(" | ").append(forms)
+                            .append(" | ").append(String.format("%.1f", (double) e.getValue().roundTrips.sum() / forms))
+                            .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(e.getValue().nanos.sum() / forms));
+                });
+        return summary.toString();
+    }
+
+    public record Sample(long commands, long nanos) {
+    }
+
+    private record FormPath(String form, String path) {
+    }
+
+    private static final class Totals {
+        private final LongAdder forms = new LongAdder();
+        private final LongAdder roundTrips = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -0,0 +1,9 @@
+package com.mobile.tests.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// Customer details entered on the Checkout Information page
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CheckoutInfo(String firstName, String lastName, String postalCode) {
+}
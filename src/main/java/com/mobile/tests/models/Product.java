@@ -0,0 +1,9 @@
+package com.mobile.tests.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// Product name and display price as shown in the catalog
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Product(String name, String price) {
+}
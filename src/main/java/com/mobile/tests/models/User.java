@@ -0,0 +1,9 @@
+package com.mobile.tests.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// Login credentials from test data (extra fields such as expectedError are ignored)
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record User(String username, String password) {
+}
@@ -1,6 +1,9 @@
 package com.mobile.tests.pages;
 
 import com.mobile.tests.base.BasePage;
+import com.mobile.tests.base.ScrollingList;
+import com.mobile.tests.locators.LocatorCompiler;
+import com.mobile.tests.models.Product;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.AppiumBy;
 import org.openqa.selenium.By;
@@ -11,14 +14,15 @@ import java.util.List;
 public class CartPage extends BasePage {
 
     // Locators
-    private final By cartTitle     = AppiumBy.xpath("//android.widget.TextView[@text=\"YOUR CART\"]");
-    private final By cartItems     = AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-Item']");
-    private final By itemNames     = AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Item title']");
-    private final By itemPrices    = AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Price']");
-    private final By removeButtons = AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-REMOVE']");
-    private final By continueBtn   = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CONTINUE SHOPPING\"]");
-    private final By checkoutBtn   = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CHECKOUT\"]");
-    private final By emptyCartMessage = AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-Cart']/android.view.ViewGroup/android.widget.ImageView");
+    private final By cartTitle     = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"YOUR CART\"]"));
+    private final By cartItems     = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-Item']"));
+    private final By itemNames     = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Item title']"));
+    private final By itemPrices    = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Price']"));
+    private final By removeButtons = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-REMOVE']"));
+    private final By continueBtn   = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CONTINUE SHOPPING\"]"));
+    private final By checkoutBtn   = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CHECKOUT\"]"));
+    private final By cartList      = AppiumBy.accessibilityId("test-Cart Content");
+    private final By emptyCartMessage = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-Cart']/android.view.ViewGroup/android.widget.ImageView"));
 
     // Proper constructor with driver injection
     public CartPage(AppiumDriver driver) {
@@ -28,50 +32,83 @@ public class CartPage extends BasePage {
      // Verify that Cart page is displayed
 
     public boolean isCartPageDisplayed() {
-        return isDisplayed(cartTitle);
+        return traced("isCartPageDisplayed", () -> isDisplayed(cartTitle));
     }
 
-     // Get the list of items in the cart
+     // Rows of the cart on the current screen only; items() covers the whole cart
 
+    @Deprecated
     public List<WebElement> getCartItems() {
-        return driver.findElements(cartItems);
+        return traced("getCartItems", () -> findAll(cartItems));
     }
 
     // Get item names from cart
 
     public List<WebElement> getItemNames() {
-        return driver.findElements(itemNames);
+        return traced("getItemNames", () -> findAll(itemNames));
     }
 
     // Get item prices from cart
 
     public List<WebElement> getItemPrices() {
-        return driver.findElements(itemPrices);
+        return traced("getItemPrices", () -> findAll(itemPrices));
+    }
+
+    // Number of items in the cart
+
+    public int getCartItemCount() {
+        return traced("getCartItemCount", () -> count(cartItems));
+    }
+
+    // Every item in the cart (name + price per row), scrolling the cart as far as the caller iterates
+
+    public ScrollingList<Product> items() {
+        return scrollingList(cartList, cartItems, row -> {
+            String name = row.text(itemNames).trim();
+            String price = row.text(itemPrices).trim();
+            return name.isEmpty() || price.isEmpty() ? null : new Product(name, price);
+        }, Product::name);
+    }
+
+    // Item names in the cart, as text
+
+    public List<String> getItemNameTexts() {
+        return traced("getItemNameTexts", () -> getTexts(itemNames));
+    }
+
+    // Item prices in the cart, as text
+
+    public List<String> getItemPriceTexts() {
+        return traced("getItemPriceTexts", () -> getTexts(itemPrices));
     }
 
     // Remove the first item in cart
 
     public void removeFirstItem() {
-        List<WebElement> buttons = driver.findElements(removeButtons);
-        if (!buttons.isEmpty()) {
-            buttons.get(0).click();
-        }
+        traced("removeFirstItem", () -> {
+            List<WebElement> buttons = findAll(removeButtons);
+            if (!buttons.isEmpty()) {
+                buttons.get(0).click();
+            }
+        });
     }
 
     // Continue shopping
 
     public void continueShopping() {
-        click(continueBtn);
+        traced("continueShopping", () -> click(continueBtn));
     }
 
     // Proceed to checkout
 
     public boolean proceedToCheckout() {
-        click(checkoutBtn);
-        return false;
+        return traced("proceedToCheckout", () -> {
+            click(checkoutBtn);
+            return false;
+        });
     }
 
     public boolean isEmptyCartMessageDisplayed() {
-        return isDisplayed(emptyCartMessage);
+        return traced("isEmptyCartMessageDisplayed", () -> isDisplayed(emptyCartMessage));
     }
 }
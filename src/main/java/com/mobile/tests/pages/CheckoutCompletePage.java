@@ -1,6 +1,7 @@
 package com.mobile.tests.pages;
 
 import com.mobile.tests.base.BasePage;
+import com.mobile.tests.locators.LocatorCompiler;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
@@ -8,9 +9,9 @@ import org.openqa.selenium.By;
 public class CheckoutCompletePage extends BasePage {
 
     // Locators
-    private final By completeTitle = AppiumBy.xpath("//android.widget.TextView[@text=\"CHECKOUT: COMPLETE!\"]");
-    private final By thankYouMsg   = AppiumBy.xpath("//android.widget.TextView[@text=\"THANK YOU FOR YOU ORDER\"]");
-    private final By backHomeBtn   = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-BACK HOME\"]");
+    private final By completeTitle = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"CHECKOUT: COMPLETE!\"]"));
+    private final By thankYouMsg   = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"THANK YOU FOR YOU ORDER\"]"));
+    private final By backHomeBtn   = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-BACK HOME\"]"));
 
     public CheckoutCompletePage(AppiumDriver driver) {
         super(driver);
@@ -19,19 +20,21 @@ public class CheckoutCompletePage extends BasePage {
     // Verify that Checkout Complete page is displayed.
 
     public boolean isPageDisplayed() {
-        return isDisplayed(completeTitle);
+        return traced("isPageDisplayed", () -> isDisplayed(completeTitle));
     }
 
     // Get confirmation (thank you) message.
 
     public String getConfirmationMessage() {
-        return getText(thankYouMsg);
+        return traced("getConfirmationMessage", () -> getText(thankYouMsg));
     }
 
     // Tap on Back Home button and return to Products page.
 
     public ProductsPage tapBackHome() {
-        click(backHomeBtn);
-        return new ProductsPage(driver);
+        return traced("tapBackHome", () -> {
+            click(backHomeBtn);
+            return new ProductsPage(driver);
+        });
     }
 }
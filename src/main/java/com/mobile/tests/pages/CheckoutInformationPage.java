@@ -1,20 +1,24 @@
 package com.mobile.tests.pages;
 
 import com.mobile.tests.base.BasePage;
+import com.mobile.tests.locators.LocatorCompiler;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class CheckoutInformationPage extends BasePage {
 
     // Locators
-    private final By checkoutTitle   = AppiumBy.xpath("//android.widget.TextView[@text=\"CHECKOUT: INFORMATION\"]");
-    private final By firstNameField  = AppiumBy.xpath("//android.widget.EditText[@content-desc=\"test-First Name\"]");
-    private final By lastNameField   = AppiumBy.xpath("//android.widget.EditText[@content-desc=\"test-Last Name\"]");
-    private final By postalCodeField = AppiumBy.xpath("//android.widget.EditText[@content-desc=\"test-Zip/Postal Code\"]");
-    private final By continueBtn     = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CONTINUE\"]");
-    private final By cancelBtn       = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CANCEL\"]");
-    private final By errorMessage    = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-Error message\"]");
+    private final By checkoutTitle   = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"CHECKOUT: INFORMATION\"]"));
+    private final By firstNameField  = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.EditText[@content-desc=\"test-First Name\"]"));
+    private final By lastNameField   = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.EditText[@content-desc=\"test-Last Name\"]"));
+    private final By postalCodeField = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.EditText[@content-desc=\"test-Zip/Postal Code\"]"));
+    private final By continueBtn     = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CONTINUE\"]"));
+    private final By cancelBtn       = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CANCEL\"]"));
+    private final By errorMessage    = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-Error message\"]/android.widget.TextView"));
 
     public CheckoutInformationPage(AppiumDriver driver) {
         super(driver);
@@ -23,53 +27,61 @@ public class CheckoutInformationPage extends BasePage {
      // Verify that Checkout Information page is displayed.
 
     public boolean isPageDisplayed() {
-        return isDisplayed(checkoutTitle);
+        return traced("isPageDisplayed", () -> isDisplayed(checkoutTitle));
     }
 
      // Enter first name.
 
     public void enterFirstName(String firstName) {
-        type(firstNameField, firstName);
+        traced("enterFirstName", () -> type(firstNameField, firstName));
     }
 
     // Enter last name.
 
     public void enterLastName(String lastName) {
-        type(lastNameField, lastName);
+        traced("enterLastName", () -> type(lastNameField, lastName));
     }
 
      // Enter the postal code.
 
     public void enterPostalCode(String postalCode) {
-        type(postalCodeField, postalCode);
+        traced("enterPostalCode", () -> type(postalCodeField, postalCode));
     }
 
     // Fill in the checkout form.
 
     public void fillCheckoutInformation(String firstName, String lastName, String postalCode) {
-        enterFirstName(firstName);
-        enterLastName(lastName);
-        enterPostalCode(postalCode);
+        traced("fillCheckoutInformation", () -> {
+            Map<By, String> fields = new LinkedHashMap<>();
+            fields.put(firstNameField, firstName);
+            fields.put(lastNameField, lastName);
+            fields.put(postalCodeField, postalCode);
+            fill(fields, null);
+        });
     }
 
     // Tap the 'continue' button and navigate to the Overview Page.
 
     public void continueToOverview() {
-        click(continueBtn);
-        new CheckoutOverviewPage(driver);
+        traced("continueToOverview", () -> {
+            click(continueBtn);
+            new CheckoutOverviewPage(driver);
+        });
     }
 
     // Tap Cancel button (navigates back to cart).
 
     public CartPage tapCancel() {
-        click(cancelBtn);
-        return new CartPage(driver);
+        return traced("tapCancel", () -> {
+            click(cancelBtn);
+            return new CartPage(driver);
+        });
     }
 
     // Get the error message if validation fails.
 
     public String getErrorMessage() {
-        return getText(errorMessage);
+        return traced("getErrorMessage", () -> getText(errorMessage));
     }
 
 }
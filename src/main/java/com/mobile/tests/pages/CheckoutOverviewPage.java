@@ -1,6 +1,7 @@
 package com.mobile.tests.pages;
 
 import com.mobile.tests.base.BasePage;
+import com.mobile.tests.locators.LocatorCompiler;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
@@ -10,15 +11,18 @@ import java.util.List;
 
 public class CheckoutOverviewPage extends BasePage {
 
+    private static final int MAX_SCROLLS = 5;
+
     // Locators
-    private final By overviewTitle = AppiumBy.xpath("//android.widget.TextView[@text=\"CHECKOUT: OVERVIEW\"]");
-    private final By itemNames     = AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Item title']");
-    private final By itemPrices    = AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Price']");
-    private final By subtotalLabel = AppiumBy.xpath("//android.widget.TextView[contains(@text,'Item total:')]");
-    private final By taxLabel      = AppiumBy.xpath("//android.widget.TextView[contains(@text,'Tax:')]");
-    private final By totalLabel    = AppiumBy.xpath("//android.widget.TextView[contains(@text,'Total:')]");
-    private final By finishBtn     = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-FINISH\"]");
-    private final By cancelBtn     = AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CANCEL\"]");
+    private final By overviewTitle = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"CHECKOUT: OVERVIEW\"]"));
+    private final By itemNames     = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Item title']"));
+    private final By itemPrices    = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Price']"));
+    private final By subtotalLabel = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[contains(@text,'Item total:')]"));
+    private final By taxLabel      = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[contains(@text,'Tax:')]"));
+    private final By totalLabel    = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[contains(@text,'Total:')]"));
+    private final By finishBtn     = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-FINISH\"]"));
+    private final By cancelBtn     = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc=\"test-CANCEL\"]"));
+    private final By scrollView    = AppiumBy.androidUIAutomator("new UiSelector().scrollable(true)");
 
     public CheckoutOverviewPage(AppiumDriver driver) {
         super(driver);
@@ -28,63 +32,65 @@ public class CheckoutOverviewPage extends BasePage {
     // Verify that Checkout Overview page is displayed.
 
     public boolean isPageDisplayed() {
-        return isDisplayed(overviewTitle);
+        return traced("isPageDisplayed", () -> isDisplayed(overviewTitle));
     }
 
 
     // Get all item names listed in overview.
 
     public List<WebElement> getOverviewItems() {
-        return driver.findElements(itemNames);
+        return traced("getOverviewItems", () -> findAll(itemNames));
     }
 
 
     // Get all item prices listed in overview.
 
     public List<WebElement> getItemPrices() {
-        return driver.findElements(itemPrices);
+        return traced("getItemPrices", () -> findAll(itemPrices));
     }
 
 
      // Get subtotal text.
 
     public String getSubtotal() {
-        return getText(subtotalLabel);
+        return traced("getSubtotal", () -> getText(subtotalLabel));
     }
 
 
     // Get tax text.
 
     public String getTax() {
-        return getText(taxLabel);
+        return traced("getTax", () -> getText(taxLabel));
     }
 
 
     // Get total text.
 
     public String getTotal() {
-        return getText(totalLabel);
+        return traced("getTotal", () -> getText(totalLabel));
     }
 
 
     // Finish checkout and navigate to Checkout Complete page.
 
     public void finishCheckout() {
-        driver.findElement(AppiumBy.androidUIAutomator(
-                "new UiScrollable(new UiSelector().scrollable(true))" +
-                        ".scrollIntoView(new UiSelector().description(\"test-FINISH\"));"
-        ));
+        traced("finishCheckout", () -> {
+            // FINISH sits below the order summary on smaller screens
+            scrollTo(finishBtn, scrollView, MAX_SCROLLS);
 
-        click(finishBtn);
-        new CheckoutCompletePage(driver);
+            click(finishBtn);
+            new CheckoutCompletePage(driver);
+        });
     }
 
 
     // Cancel checkout and navigate back to Cart page.
 
     public CartPage cancelCheckout() {
-        click(cancelBtn);
-        return new CartPage(driver);
+        return traced("cancelCheckout", () -> {
+            click(cancelBtn);
+            return new CartPage(driver);
+        });
     }
 
 }
@@ -0,0 +1,97 @@
+package com.mobile.tests.pages;
+
+import com.mobile.tests.utils.ConfigReader;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Settings and timings of LoginPage.loginToProducts(). Tests that only need a logged-in user open the
+// app's deep link straight to the Products screen instead of filling in the login form
+// (three lookups, two clear + type and a tap, each behind an explicit wait).
+//
+// The link does not authenticate a particular user, so only fastLoginUsers may take it. The UI login
+// average below comes from the loginToProducts() calls that used the form (other users, fallbacks);
+// LoginTest's own login() calls are not counted, its negative cases never get past the form.
+// report() compares both at suite end.
+
+public final class LoginFastPath {
+
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("fastLogin", "true"));
+    private static final String deepLink = ConfigReader.getProperty("fastLoginDeepLink", "swaglabs://swag-overview/");
+    private static final Set<String> users = Arrays.stream(ConfigReader.getProperty("fastLoginUsers", "standard_user").split(","))
+            .map(String::trim)
+            .filter(user -> !user.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    private static final Duration timeout =
+            Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("fastLoginTimeout", "5")));
+
+    private static final LongAdder fastLogins = new LongAdder();
+    private static final LongAdder fastNanos = new LongAdder();
+    private static final LongAdder uiLogins = new LongAdder();
+    private static final LongAdder uiNanos = new LongAdder();
+    private static final LongAdder fallbacks = new LongAdder();
+
+    private LoginFastPath() {
+        // Prevent instantiation
+    }
+
+    public static boolean appliesTo(String username) {
+        return enabled && users.contains(username);
+    }
+
+    static String deepLink() {
+        return deepLink;
+    }
+
+    static Duration timeout() {
+        return timeout;
+    }
+
+    static void recordFast(long nanos) {
+        fastLogins.increment();
+        fastNanos.add(nanos);
+    }
+
+    static void recordUi(long nanos) {
+        uiLogins.increment();
+        uiNanos.add(nanos);
+    }
+
+    static void recordFallback() {
+        fallbacks.increment();
+    }
+
+
+    // Mean UI login time of this run in ms, or -1 before the first one
+
+    static long averageUiMillis() {
+        long count = uiLogins.sum();
+        return count == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(uiNanos.sum() / count);
+    }
+
+
+    // One line for the suite log: how many tests skipped the form and the time that saved.
+    // The fast path is timed up to the Products title being visible, the UI login only until the
+    // tap on LOGIN, so the saving is if anything understated.
+
+    public static String report() {
+        long fast = fastLogins.sum();
+        if (fast == 0) {
+            return "Fast login: not used (" + uiLogins.sum() + " UI logins, " + fallbacks.sum() + " fallbacks)";
+        }
+        long fastAverage = TimeUnit.NANOSECONDS.toMillis(fastNanos.sum() / fast);
+        long uiAverage = averageUiMillis();
+        if (uiAverage < 0) {
+            return String.format("Fast login: %d tests via deep link, avg %d ms (no UI login this run to compare with, %d fallbacks)",
+                    fast, fastAverage, fallbacks.sum());
+        }
+        long savedPerTest = uiAverage - fastAverage;
+        return String.format("Fast login: %d tests via deep link, avg %d ms vs %d ms UI login (%d samples), "
+                        + "saved %d ms per test, %.1f s in total (%d fallbacks)",
+                fast, fastAverage, uiAverage, uiLogins.sum(), savedPerTest, savedPerTest * fast / 1000.0, fallbacks.sum());
+    }
+}
@@ -1,36 +1,42 @@
 package com.mobile.tests.pages;
 
 import com.mobile.tests.base.BasePage;
+import com.mobile.tests.locators.LocatorCompiler;
+import com.mobile.tests.utils.CapabilitiesReader;
+import com.mobile.tests.utils.WaitEngine;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.AppiumBy;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.By;
 import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+@Slf4j
 public class LoginPage extends BasePage {
 
     // Locators (using AccessibilityId for stability & speed)
     private final By usernameField = AppiumBy.accessibilityId("test-Username");
     private final By passwordField = AppiumBy.accessibilityId("test-Password");
     private final By loginButton   = AppiumBy.accessibilityId("test-LOGIN");
-    private final By loginTitle = AppiumBy.xpath("//android.widget.ScrollView[@content-desc=\"test-Login\"]/android.view.ViewGroup/android.widget.ImageView[1]");
+    private final By loginTitle = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.ScrollView[@content-desc=\"test-Login\"]/android.view.ViewGroup/android.widget.ImageView[1]"));
 
 
-    private final By emptyusername = AppiumBy.xpath("//android.widget.TextView[@text=\"Username is required\"]");
-    private final By emptypassword = AppiumBy.xpath("//android.widget.TextView[@text=\"Password is required\"]");
+    private final By emptyusername = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"Username is required\"]"));
+    private final By emptypassword = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"Password is required\"]"));
 
-    private final By menuButton = AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-Menu']/android.view.ViewGroup/android.widget.ImageView");
-    private final By logoutButton = AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-LOGOUT']");
+    private final By menuButton = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-Menu']/android.view.ViewGroup/android.widget.ImageView"));
+    private final By logoutButton = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-LOGOUT']"));
 
 
     // Multiple possible error locators (to handle app version differences)
     private final By[] errorLocators = {
-            AppiumBy.xpath("//android.widget.TextView[@text=\"Username and password do not match any user in this service.\"]"),
+            LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"Username and password do not match any user in this service.\"]")),
             AppiumBy.accessibilityId("test-Error"),
             AppiumBy.androidUIAutomator("new UiSelector().text(\"Sorry, this user has been locked out.\")"),
             AppiumBy.id("com.swaglabsmobileapp:id/errorMessage") // native Android fallback
@@ -45,80 +51,127 @@ public class LoginPage extends BasePage {
       // Enter username
 
     public void enterUsername(String username) {
-        type(usernameField, username);
+        traced("enterUsername", () -> type(usernameField, username));
     }
 
 
     // Enter password
 
     public void enterPassword(String password) {
-        type(passwordField, password);
+        traced("enterPassword", () -> type(passwordField, password));
     }
 
 
     // Tap on the login button
 
     public void tapLogin() {
-        click(loginButton);
+        traced("tapLogin", () -> click(loginButton));
     }
 
     public boolean isPageDisplayed() {
-        return isDisplayed(loginTitle);
+        return traced("isPageDisplayed", () -> isDisplayed(loginTitle));
     }
 
 
     // Perform login action
 
     public void login(String username, String password) {
-        enterUsername(username);
-        enterPassword(password);
-        tapLogin();
+        traced("login", () -> {
+            Map<By, String> fields = new LinkedHashMap<>();
+            fields.put(usernameField, username);
+            fields.put(passwordField, password);
+            fill(fields, loginButton);
+        });
+    }
+
+
+    // Start on the Products screen as the given user. Users the app's deep link can stand in for skip
+    // the login form (see LoginFastPath); everyone else, and an app that ignores the link, logs in
+    // through the UI. Tests of the login itself keep calling login().
+
+    public ProductsPage loginToProducts(String username, String password) {
+        return traced("loginToProducts", () -> {
+            ProductsPage productsPage = new ProductsPage(driver);
+            if (LoginFastPath.appliesTo(username)) {
+                long start = System.nanoTime();
+                if (openDeepLink() && productsPage.isPageDisplayed(LoginFastPath.timeout())) {
+                    long nanos = System.nanoTime() - start;
+                    LoginFastPath.recordFast(nanos);
+                    log.info("Logged in via deep link in {} ms (UI login averages {} ms this run)",
+                            nanos / 1_000_000, LoginFastPath.averageUiMillis());
+                    return productsPage;
+                }
+                LoginFastPath.recordFallback();
+                log.warn("Deep link {} did not open Products, logging in through the UI", LoginFastPath.deepLink());
+            }
+            long start = System.nanoTime();
+            login(username, password);
+            LoginFastPath.recordUi(System.nanoTime() - start);
+            return productsPage;
+        });
+    }
+
+    private boolean openDeepLink() {
+        try {
+            driver.executeScript("mobile: deepLink", Map.of(
+                    "url", LoginFastPath.deepLink(),
+                    "package", String.valueOf(CapabilitiesReader.getSnapshot().get("appium:appPackage"))));
+            return true;
+        } catch (WebDriverException e) {
+            log.warn("Deep link {} failed: {}", LoginFastPath.deepLink(), e.getMessage());
+            return false;
+        }
     }
 
 
     // Get error message text (tries multiple locators for robustness)
 
     public String getErrorMessage() {
-        for (By locator : errorLocators) {
-            if (isDisplayed(locator)) {
-                return getText(locator);
+        return getErrorMessage(WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+
+    // Same, but gives up after the given time; all error locators are polled together
+
+    public String getErrorMessage(Duration timeout) {
+        return traced("getErrorMessage", () -> {
+            WaitEngine.Match match = waitForAny(timeout, errorLocators);
+            if (match == null) {
+                log.warn("No error message found on LoginPage.");
+                return "";
             }
-        }
-        System.err.println(" No error message found on LoginPage.");
-        return "";
+            String text = match.element().getText();
+            return text != null ? text.trim() : "";
+        });
     }
 
 
      // Check if the login page is displayed
 
     public boolean isLoginPageDisplayed() {
-        return isDisplayed(usernameField);
+        return traced("isLoginPageDisplayed", () -> isDisplayed(usernameField));
     }
 
     public String getEmptyUsernameError() {
         try {
             // Wait up to 5 seconds for the error message to be visible
-            return new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(driver -> {
-                        WebElement el = driver.findElement(emptyusername);
-                        return el.isDisplayed() ? el.getText().trim() : null;
-                    });
+            return traced("getEmptyUsernameError", () -> waitUntil("text of " + emptyusername, Duration.ofSeconds(5), d -> {
+                WebElement el = d.findElement(emptyusername);
+                return el.isDisplayed() ? el.getText().trim() : null;
+            }));
         } catch (TimeoutException e) {
             return "";
             // Return empty string if the error message never appears
         }
-
-
     }
 
     public String getEmptyPasswordError() {
         try {
             // Wait up to 5 seconds for the error message to be visible
-            return new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(driver -> {
-                        WebElement el = driver.findElement(emptypassword);
-                        return el.isDisplayed() ? el.getText().trim() : null;
-                    });
+            return traced("getEmptyPasswordError", () -> waitUntil("text of " + emptypassword, Duration.ofSeconds(5), d -> {
+                WebElement el = d.findElement(emptypassword);
+                return el.isDisplayed() ? el.getText().trim() : null;
+            }));
         } catch (TimeoutException e) {
             return "";
             // Return empty string if the error message never appears
@@ -128,26 +181,22 @@ public class LoginPage extends BasePage {
     // Clicks the menu and logs out
 
     public void logout() {
-        // Click menu button
-        driver.findElement(menuButton).click();
+        traced("logout", () -> {
+            // Click menu button
+            click(menuButton);
 
-        // Wait until the logout button is visible, then click it
-        WebElement logoutBtn = new WebDriverWait(driver, Duration.ofSeconds(5))
-                .until(ExpectedConditions.visibilityOfElementLocated(logoutButton));
-
-        logoutBtn.click();
+            // Wait until the logout button is clickable, then click it
+            click(logoutButton);
+        });
     }
 
 
     // Optionally, verify logout success by checking login page element
     public boolean isLoggedOut() {
-        try {
+        return traced("isLoggedOut", () -> {
             // Assuming the login button is a reliable login page indicator
-            return new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(driver -> driver.findElement(AppiumBy.accessibilityId("test-LOGIN")).isDisplayed());
-        } catch (TimeoutException e) {
-            return false;
-        }
+            return isDisplayed(loginButton, Duration.ofSeconds(5));
+        });
     }
 }
 
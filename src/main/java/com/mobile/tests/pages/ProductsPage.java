@@ -1,32 +1,37 @@
 package com.mobile.tests.pages;
 
 import com.mobile.tests.base.BasePage;
+import com.mobile.tests.base.ScrollingList;
+import com.mobile.tests.locators.LocatorCompiler;
+import com.mobile.tests.models.Product;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.AppiumBy;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+@Slf4j
 public class ProductsPage extends BasePage {
 
     // Locators
-    private final By productsTitle = AppiumBy.xpath("//android.widget.TextView[@text=\"PRODUCTS\"]");
+    private final By productsTitle = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@text=\"PRODUCTS\"]"));
     private final By sortButton = AppiumBy.accessibilityId("test-Modal Selector Button");
-    private final By productNames = AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Item title']");
-    private final By productPrices = AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Price']");
-    private final By addToCartBtn = AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-ADD TO CART']");
+    private final By productNames = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Item title']"));
+    private final By productPrices = LocatorCompiler.compile(AppiumBy.xpath("//android.widget.TextView[@content-desc='test-Price']"));
+    private final By addToCartBtn = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-ADD TO CART']"));
     private final By cartIcon = AppiumBy.accessibilityId("test-Cart");
+    private final By productList = AppiumBy.accessibilityId("test-PRODUCTS");
+    private final By productRows = LocatorCompiler.compile(AppiumBy.xpath("//android.view.ViewGroup[@content-desc='test-Item']"));
 
     // Menu and logout locators
-    private final By menuButton = AppiumBy.xpath(
-            "//android.view.ViewGroup[@content-desc='test-Menu']/android.view.ViewGroup/android.widget.ImageView");
-    private final By logoutButton = AppiumBy.xpath(
-            "//android.view.ViewGroup[@content-desc='test-LOGOUT']");
+    private final By menuButton = LocatorCompiler.compile(AppiumBy.xpath(
+            "//android.view.ViewGroup[@content-desc='test-Menu']/android.view.ViewGroup/android.widget.ImageView"));
+    private final By logoutButton = LocatorCompiler.compile(AppiumBy.xpath(
+            "//android.view.ViewGroup[@content-desc='test-LOGOUT']"));
 
     // Constructor
     public ProductsPage(AppiumDriver driver) {
@@ -37,75 +42,121 @@ public class ProductsPage extends BasePage {
     // Verify that Products page is displayed
 
     public boolean isPageDisplayed() {
-        return isDisplayed(productsTitle);
+        return traced("isPageDisplayed", () -> isDisplayed(productsTitle));
+    }
+
+    public boolean isPageDisplayed(Duration timeout) {
+        return traced("isPageDisplayed", () -> isDisplayed(productsTitle, timeout));
     }
 
 
-    // Get the list of all product names (as text)
+    // Names of all products, in catalog order (scrolls to the end of the list)
 
     public List<String> getAllProductNames() {
-        List<WebElement> elements = driver.findElements(productNames);
-        List<String> names = new ArrayList<>();
-        for (WebElement e : elements) {
-            names.add(e.getText().trim());
-        }
-        System.out.println(" Retrieved product names: " + names);
-        return names;
+        return traced("getAllProductNames", () -> {
+            List<String> names = new ArrayList<>();
+            products().forEach(product -> names.add(product.name()));
+            log.debug("Retrieved product names: {}", names);
+            return names;
+        });
     }
 
 
-    // Get the list of all product prices (as text)
+    // Prices of all products, in catalog order (scrolls to the end of the list)
 
     public List<String> getAllProductPrices() {
-        List<WebElement> elements = driver.findElements(productPrices);
-        List<String> prices = new ArrayList<>();
-        for (WebElement e : elements) {
-            prices.add(e.getText().trim());
-        }
-        System.out.println(" Retrieved product prices: " + prices);
-        return prices;
+        return traced("getAllProductPrices", () -> {
+            List<String> prices = new ArrayList<>();
+            products().forEach(product -> prices.add(product.price()));
+            log.debug("Retrieved product prices: {}", prices);
+            return prices;
+        });
+    }
+
+
+    // Every product in the catalog, scrolling the list as far as the caller iterates.
+    // Name and price are read from the same row in one pass.
+
+    public ScrollingList<Product> products() {
+        return scrollingList(productList, productRows, row -> {
+            String name = row.text(productNames).trim();
+            String price = row.text(productPrices).trim();
+            return name.isEmpty() || price.isEmpty() ? null : new Product(name, price);
+        }, Product::name);
+    }
+
+
+    // All products (scrolls to the end of the list)
+
+    public List<Product> getAllProducts() {
+        return traced("getAllProducts", () -> {
+            List<Product> products = new ArrayList<>();
+            products().forEach(products::add);
+            log.debug("Retrieved {} products", products.size());
+            return products;
+        });
+    }
+
+
+    // Scroll until the named product is found; stops as soon as it is seen (null if not in the catalog)
+
+    public Product findProduct(String name) {
+        return traced("findProduct", () -> {
+            for (Product product : products()) {
+                if (product.name().equals(name)) {
+                    return product;
+                }
+            }
+            return null;
+        });
     }
 
 
     // Sort products (tap sort button)
 
     public void tapSortButton() {
-        click(sortButton);
-        System.out.println(" Tapped sort button.");
+        traced("tapSortButton", () -> {
+            click(sortButton);
+            log.debug("Tapped sort button.");
+        });
     }
 
 
     // Add first visible product to cart
 
     public void addFirstProductToCart() {
-        List<WebElement> addButtons = driver.findElements(addToCartBtn);
-        if (!addButtons.isEmpty()) {
-            addButtons.get(0).click();
-            System.out.println(" Added first product to cart.");
-        } else {
-            throw new IllegalStateException(" No 'Add to Cart' button found on Products page.");
-        }
+        traced("addFirstProductToCart", () -> {
+            List<WebElement> addButtons = findAll(addToCartBtn);
+            if (!addButtons.isEmpty()) {
+                addButtons.get(0).click();
+                log.info("Added first product to cart.");
+            } else {
+                throw new IllegalStateException(" No 'Add to Cart' button found on Products page.");
+            }
+        });
     }
 
 
     // Open shopping cart
 
     public void goToCart() {
-        click(cartIcon);
-        System.out.println(" Navigated to cart.");
+        traced("goToCart", () -> {
+            click(cartIcon);
+            log.info("Navigated to cart.");
+        });
     }
 
 
     // Clicks the menu and logs out
 
     public void logout() {
-        // Click the menu button
-        driver.findElement(menuButton).click();
-
-        // Wait for the logout button to appear and click it
-        WebElement logoutBtn = new WebDriverWait(driver, Duration.ofSeconds(5))
-                .until(ExpectedConditions.visibilityOfElementLocated(logoutButton));
-        logoutBtn.click();
-        System.out.println(" Logged out successfully.");
+        traced("logout", () -> {
+            // Click the menu button
+            click(menuButton);
+
+            // Wait for the logout button to appear and click it
+            click(logoutButton);
+            log.info("Logged out successfully.");
+        });
     }
 }
@@ -0,0 +1,77 @@
+package com.mobile.tests.replay;
+
+import com.mobile.tests.transport.HttpTransport;
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// driverRecording=record | replay | off, read once per run:
+//   record  every driver DriverManager creates talks to the server through one SessionRecorder
+//   replay  drivers talk to a SessionReplayer over driverRecordingFile; no server or device is used
+// Both write or read driverRecordingFile (gzip when it ends in .gz). Recording sits in front of the
+// configured HttpTransport; replay needs no transport at all.
+
+@Slf4j
+public final class DriverRecording {
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    private static final Mode mode = Mode.valueOf(ConfigReader.getProperty("driverRecording", "off").toUpperCase());
+    private static final Path file = Paths.get(ConfigReader.getProperty("driverRecordingFile", "target/recordings/session.jsonl.gz"));
+
+    private static SessionRecorder recorder;
+    private static SessionReplayer replayer;
+
+    private DriverRecording() {
+        // Prevent instantiation
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static boolean isReplay() {
+        return mode == Mode.REPLAY;
+    }
+
+
+    // HTTP client factory for new drivers
+
+    public static synchronized HttpClient.Factory httpClientFactory() {
+        switch (mode) {
+            case RECORD -> {
+                if (recorder == null) {
+                    recorder = new SessionRecorder(HttpTransport.factory(), file);
+                }
+                return recorder;
+            }
+            case REPLAY -> {
+                if (replayer == null) {
+                    replayer = new SessionReplayer(file, SessionReplayer.Match.valueOf(
+                            ConfigReader.getProperty("driverReplayMatch", "sequential").toUpperCase()));
+                }
+                return replayer;
+            }
+            default -> {
+                return HttpTransport.factory();
+            }
+        }
+    }
+
+
+    // Close the recording file / report replay totals (call once at suite end)
+
+    public static synchronized void close() {
+        if (recorder != null) {
+            recorder.close();
+            recorder = null;
+        }
+        if (replayer != null) {
+            log.info("Replay served {} exchanges; {} recorded sessions unused", replayer.getServedCount(), replayer.getUnusedSessionCount());
+            replayer = null;
+        }
+    }
+}
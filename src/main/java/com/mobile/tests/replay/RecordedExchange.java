@@ -0,0 +1,79 @@
+package com.mobile.tests.replay;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+
+// One HTTP round trip between the client and the Appium server, as one line of a recording.
+// Bodies are kept as JSON trees (so a replay can compare them structurally); a body that is not
+// JSON goes to requestText / responseText instead. session is the WebDriver session the exchange
+// belongs to ("" for server-level calls such as GET /status).
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RecordedExchange(long seq, String session, String method, String uri,
+                               JsonNode request, String requestText,
+                               int status, JsonNode response, String responseText,
+                               long millis) {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static RecordedExchange of(long seq, String method, String uri,
+                               byte[] requestBody, int status, byte[] responseBody, long millis) {
+        JsonNode request = json(requestBody);
+        JsonNode response = json(responseBody);
+        return new RecordedExchange(seq, sessionOf(uri, response), method, uri,
+                request, request == null ? text(requestBody) : null,
+                status, response, response == null ? text(responseBody) : null,
+                millis);
+    }
+
+
+    // Request line as shown in mismatch reports, e.g. POST /session/1a2b/element {"using":"xpath",...}
+
+    String describeRequest() {
+        String body = request != null ? request.toString() : requestText;
+        return method + " " + uri + (body != null && !body.isEmpty() ? " " + body : "");
+    }
+
+
+    // Session id of a command: taken from the path, or from the answer to POST /session
+
+    static String sessionOf(String uri, JsonNode response) {
+        int start = uri.indexOf("/session/");
+        if (start >= 0) {
+            int from = start + "/session/".length();
+            int end = uri.indexOf('/', from);
+            return uri.substring(from, end < 0 ? uri.length() : end);
+        }
+        if (uri.endsWith("/session") && response != null) {
+            JsonNode value = response.path("value");
+            JsonNode id = value.has("sessionId") ? value.path("sessionId") : response.path("sessionId");
+            return id.asText("");
+        }
+        return "";
+    }
+
+    byte[] responseBytes() {
+        if (response != null) {
+            return response.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return responseText != null ? responseText.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    private static JsonNode json(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(body);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String text(byte[] body) {
+        return body == null || body.length == 0 ? null : new String(body, StandardCharsets.UTF_8);
+    }
+}
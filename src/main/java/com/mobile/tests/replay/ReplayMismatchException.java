@@ -0,0 +1,17 @@
+package com.mobile.tests.replay;
+
+import org.openqa.selenium.WebDriverException;
+
+// A replayed session sent a command the recording does not have at that point. A
+// WebDriverException so the driver rethrows it as is (anything else reaches the test as
+// "UnreachableBrowserException"); once thrown, the session keeps failing every later
+// command with the same diff, so a wait that swallows it cannot hide the divergence.
+
+public class ReplayMismatchException extends WebDriverException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReplayMismatchException(String message) {
+        super(message);
+    }
+}
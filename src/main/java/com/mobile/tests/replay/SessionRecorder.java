@@ -0,0 +1,136 @@
+package com.mobile.tests.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// HttpClient.Factory that records every request/response its clients exchange with the Appium
+// server, one RecordedExchange per line (JSON Lines), gzip-compressed when the file name ends
+// in .gz. All sessions of a run share one append-only file; lines are flushed as they are
+// written, so a recording survives a killed run up to the last complete command.
+
+@Slf4j
+public final class SessionRecorder implements HttpClient.Factory, Closeable {
+
+    private final HttpClient.Factory delegate;
+    private final Path file;
+    private final Writer writer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SessionRecorder(HttpClient.Factory delegate, Path file) {
+        this.delegate = delegate;
+        this.file = file;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            OutputStream out = Files.newOutputStream(file);
+            if (file.getFileName().toString().endsWith(".gz")) {
+                // syncFlush: every flushed line is readable even if the run dies before close()
+                out = new GZIPOutputStream(out, 8192, true);
+            }
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to open driver recording: " + file, e);
+        }
+        log.info("Recording driver traffic to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new RecordingClient(delegate.createClient(config));
+    }
+
+    @Override
+    public void cleanupIdleClients() {
+        delegate.cleanupIdleClients();
+    }
+
+    public long getExchangeCount() {
+        return sequence.get();
+    }
+
+    @Override
+    public void close() {
+        synchronized (writer) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Failed to close driver recording {}: {}", file, e.getMessage());
+            }
+        }
+        log.info("Recorded {} driver exchanges to {}", sequence.get(), file.toAbsolutePath());
+    }
+
+    private void write(RecordedExchange exchange) {
+        try {
+            String line = RecordedExchange.MAPPER.writeValueAsString(exchange);
+            synchronized (writer) {
+                writer.write(line);
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to record {} {}: {}", exchange.method(), exchange.uri(), e.getMessage());
+        }
+    }
+
+
+    // Passes every request through to the real client and writes the exchange down
+
+    private final class RecordingClient implements HttpClient {
+
+        private final HttpClient client;
+
+        private RecordingClient(HttpClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            byte[] requestBody = request.getMethod() == HttpMethod.GET ? new byte[0] : Contents.bytes(request.getContent());
+            if (requestBody.length > 0) {
+                request.setContent(Contents.bytes(requestBody));
+            }
+            long start = System.nanoTime();
+            HttpResponse response = client.execute(request);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            byte[] responseBody = Contents.bytes(response.getContent());
+            response.setContent(Contents.bytes(responseBody));
+
+            write(RecordedExchange.of(sequence.incrementAndGet(), request.getMethod().name(), request.getUri(),
+                    requestBody, response.getStatus(), responseBody, millis));
+            return response;
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return client.openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.mobile.tests.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+// HttpClient.Factory that answers from a SessionRecorder file instead of a server, so a test
+// class re-runs offline at CPU speed. New sessions take the recorded sessions in the order they
+// were created; since the answers carry the recorded session and element ids, every later
+// request names the recorded session it belongs to.
+//
+//   SEQUENTIAL  each session must send exactly the recorded requests in the recorded order
+//   REQUEST     requests are matched by method + path + body in any order; identical requests
+//               (polling) get the recorded answers in turn, then the last one again
+//
+// A request the recording cannot answer throws ReplayMismatchException with the expected and actual
+// request and a field-by-field diff of the bodies.
+
+@Slf4j
+public final class SessionReplayer implements HttpClient.Factory {
+
+    private static final int MAX_DIFF_LINES = 20;
+
+    public enum Match { SEQUENTIAL, REQUEST }
+
+    private final Path file;
+    private final Match match;
+    private final List<RecordedSession> recorded;
+    private final List<RecordedExchange> serverLevel;
+    private final AtomicInteger nextSession = new AtomicInteger();
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+    private final AtomicLong served = new AtomicLong();
+
+    public SessionReplayer(Path file, Match match) {
+        this.file = file;
+        this.match = match;
+        Map<String, RecordedSession> sessions = new LinkedHashMap<>();
+        List<RecordedExchange> global = new ArrayList<>();
+        for (RecordedExchange exchange : read(file)) {
+            if (isNewSession(exchange.method(), exchange.uri())) {
+                sessions.put(exchange.session(), new RecordedSession(exchange, new ArrayList<>()));
+            } else if (sessions.containsKey(exchange.session())) {
+                sessions.get(exchange.session()).commands().add(exchange);
+            } else {
+                global.add(exchange);
+            }
+        }
+        this.recorded = List.copyOf(sessions.values());
+        this.serverLevel = global;
+        log.info("Replaying {} recorded sessions from {} ({} matching)", recorded.size(), file, match);
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new ReplayClient();
+    }
+
+    public long getServedCount() {
+        return served.get();
+    }
+
+
+    // Recorded sessions not (yet) replayed, e.g. to notice a run that stopped early
+
+    public int getUnusedSessionCount() {
+        return Math.max(0, recorded.size() - nextSession.get());
+    }
+
+
+    private HttpResponse answer(HttpRequest request) {
+        String method = request.getMethod().name();
+        String uri = request.getUri();
+        byte[] body = request.getMethod() == HttpMethod.GET ? new byte[0] : Contents.bytes(request.getContent());
+        RecordedExchange actual = RecordedExchange.of(0, method, uri, body, 0, null, 0);
+
+        RecordedExchange answer;
+        if (isNewSession(method, uri)) {
+            answer = startSession(actual);
+        } else {
+            Cursor cursor = cursors.get(actual.session());
+            answer = cursor != null ? cursor.next(actual) : serverLevel(actual);
+        }
+        served.incrementAndGet();
+        HttpResponse response = new HttpResponse();
+        response.setStatus(answer.status());
+        response.setHeader("Content-Type", "application/json; charset=utf-8");
+        response.setContent(Contents.bytes(answer.responseBytes()));
+        return response;
+    }
+
+    private RecordedExchange startSession(RecordedExchange actual) {
+        int index = nextSession.getAndIncrement();
+        if (index >= recorded.size()) {
+            throw new ReplayMismatchException(" Replay of " + file + ": session #" + (index + 1)
+                    + " requested, but the recording only has " + recorded.size() + " sessions");
+        }
+        RecordedSession session = recorded.get(index);
+        if (match == Match.SEQUENTIAL && !sameRequest(session.creation(), actual)) {
+            throw mismatch(session.creation().session(), "new session #" + (index + 1), session.creation(), actual, null);
+        }
+        cursors.put(session.creation().session(), new Cursor(session));
+        return session.creation();
+    }
+
+    private RecordedExchange serverLevel(RecordedExchange actual) {
+        for (RecordedExchange exchange : serverLevel) {
+            if (exchange.method().equals(actual.method()) && exchange.uri().equals(actual.uri())) {
+                return exchange;
+            }
+        }
+        throw new ReplayMismatchException(" Replay of " + file + ": nothing recorded for " + actual.describeRequest()
+                + (actual.session().isEmpty() ? "" : " (session " + actual.session() + " was never started in this replay)"));
+    }
+
+
+    // Where one replayed session is in its recording
+
+    private final class Cursor {
+
+        private final RecordedSession session;
+        private int position;
+        private final Map<String, Deque<RecordedExchange>> pending = new HashMap<>();
+        private final Map<String, RecordedExchange> lastServed = new HashMap<>();
+        private String derailed;
+
+        private Cursor(RecordedSession session) {
+            this.session = session;
+            if (match == Match.REQUEST) {
+                for (RecordedExchange exchange : session.commands()) {
+                    pending.computeIfAbsent(key(exchange), k -> new ArrayDeque<>()).add(exchange);
+                }
+            }
+        }
+
+        private synchronized RecordedExchange next(RecordedExchange actual) {
+            if (derailed != null) {
+                // Let teardown quit the session quietly after the mismatch has been reported
+                if ("DELETE".equals(actual.method()) && actual.uri().endsWith("/session/" + actual.session())) {
+                    return new RecordedExchange(0, actual.session(), "DELETE", actual.uri(), null, null,
+                            200, RecordedExchange.MAPPER.createObjectNode().putNull("value"), null, 0);
+                }
+                throw new ReplayMismatchException(" Replay of session " + actual.session()
+                        + " already diverged from the recording:" + System.lineSeparator() + derailed);
+            }
+            RecordedExchange answer = match == Match.SEQUENTIAL ? nextInOrder(actual) : nextMatching(actual);
+            position++;
+            return answer;
+        }
+
+        private RecordedExchange nextInOrder(RecordedExchange actual) {
+            List<RecordedExchange> commands = session.commands();
+            RecordedExchange expected = position < commands.size() ? commands.get(position) : null;
+            if (expected == null || !sameRequest(expected, actual)) {
+                RecordedExchange previous = position > 0 ? commands.get(position - 1) : session.creation();
+                throw derail(mismatch(actual.session(), "command #" + (position + 1) + " of " + commands.size(),
+                        expected, actual, previous));
+            }
+            return expected;
+        }
+
+        private RecordedExchange nextMatching(RecordedExchange actual) {
+            String key = key(actual);
+            Deque<RecordedExchange> queue = pending.get(key);
+            RecordedExchange answer = queue != null ? queue.poll() : null;
+            if (answer == null) {
+                answer = lastServed.get(key);
+            }
+            if (answer == null) {
+                throw derail(mismatch(actual.session(), "command #" + (position + 1), closest(actual), actual, null));
+            }
+            lastServed.put(key, answer);
+            return answer;
+        }
+
+
+        // Recorded request with the same method and path, else the same method, to diff against
+
+        private RecordedExchange closest(RecordedExchange actual) {
+            RecordedExchange sameMethod = null;
+            for (RecordedExchange exchange : session.commands()) {
+                if (exchange.method().equals(actual.method())) {
+                    if (exchange.uri().equals(actual.uri())) {
+                        return exchange;
+                    }
+                    if (sameMethod == null) {
+                        sameMethod = exchange;
+                    }
+                }
+            }
+            return sameMethod;
+        }
+
+        private ReplayMismatchException derail(ReplayMismatchException error) {
+            derailed = error.getMessage();
+            return error;
+        }
+    }
+
+
+    private ReplayMismatchException mismatch(String session, String where, RecordedExchange expected,
+                                         RecordedExchange actual, RecordedExchange previous) {
+        String nl = System.lineSeparator();
+        StringBuilder message = new StringBuilder(" Replay mismatch in session ").append(session)
+                .append(" at ").append(where).append(" (").append(match.name().toLowerCase()).append(" matching, ")
+                .append(file).append(")").append(nl);
+        message.append("  expected: ").append(expected != null ? expected.describeRequest() : "<end of recording>").append(nl);
+        message.append("  actual:   ").append(actual.describeRequest());
+        if (expected != null) {
+            List<String> differences = new ArrayList<>();
+            if (!expected.method().equals(actual.method())) {
+                differences.add("method: " + expected.method() + " -> " + actual.method());
+            }
+            if (!expected.uri().equals(actual.uri())) {
+                differences.add("path: " + expected.uri() + " -> " + actual.uri());
+            }
+            diff("", expected.request(), actual.request(), differences);
+            if (!differences.isEmpty()) {
+                message.append(nl).append("  differences:");
+                for (String difference : differences) {
+                    message.append(nl).append("    ").append(difference);
+                }
+            }
+        }
+        if (previous != null) {
+            message.append(nl).append("  after:    ").append(previous.describeRequest());
+        }
+        return new ReplayMismatchException(message.toString());
+    }
+
+    private static void diff(String path, JsonNode expected, JsonNode actual, List<String> out) {
+        if (out.size() >= MAX_DIFF_LINES || Objects.equals(expected, actual)) {
+            return;
+        }
+        if (expected != null && actual != null && expected.isObject() && actual.isObject()) {
+            Iterator<String> names = expected.fieldNames();
+            while (names.hasNext()) {
+                String name = names.next();
+                diff(path + "/" + name, expected.get(name), actual.get(name), out);
+            }
+            Iterator<String> added = actual.fieldNames();
+            while (added.hasNext()) {
+                String name = added.next();
+                if (!expected.has(name)) {
+                    diff(path + "/" + name, null, actual.get(name), out);
+                }
+            }
+        } else if (expected != null && actual != null && expected.isArray() && actual.isArray()) {
+            for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+                diff(path + "/" + i, expected.get(i), actual.get(i), out);
+            }
+        } else if (out.size() < MAX_DIFF_LINES) {
+            out.add((path.isEmpty() ? "body" : path) + ": "
+                    + (expected != null ? expected : "<missing>") + " -> " + (actual != null ? actual : "<missing>"));
+        }
+    }
+
+    private static boolean sameRequest(RecordedExchange expected, RecordedExchange actual) {
+        return expected.method().equals(actual.method())
+                && expected.uri().equals(actual.uri())
+                && Objects.equals(expected.request(), actual.request())
+                && Objects.equals(expected.requestText(), actual.requestText());
+    }
+
+    private static String key(RecordedExchange exchange) {
+        return exchange.describeRequest();
+    }
+
+    private static boolean isNewSession(String method, String uri) {
+        return "POST".equals(method) && uri.endsWith("/session");
+    }
+
+    private static List<RecordedExchange> read(Path file) {
+        List<RecordedExchange> exchanges = new ArrayList<>();
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(raw) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    exchanges.add(RecordedExchange.MAPPER.readValue(line, RecordedExchange.class));
+                }
+            }
+        } catch (EOFException e) {
+            // Recording of a run that was killed: everything up to the last flushed line is usable
+            log.warn("Driver recording {} ends abruptly, replaying the {} complete exchanges", file, exchanges.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to read driver recording: " + file, e);
+        }
+        return exchanges;
+    }
+
+    private record RecordedSession(RecordedExchange creation, List<RecordedExchange> commands) {
+    }
+
+
+    // Serves answers from the recording; never opens a connection
+
+    private final class ReplayClient implements HttpClient {
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return answer(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            throw new UnsupportedOperationException(" WebSockets are not part of driver recordings");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.mobile.tests.reporting;
+
+import com.mobile.tests.utils.ConfigReader;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Writes failure artifacts off the test thread. submit() reserves the Allure attachments on
+// the calling thread (Allure tracks the running test per thread) and queues the rest: base64
+// decoding, optional downscaling, files under artifactDir/<Class>/ and the attachment bodies.
+// The queue is bounded; when it is full the submitting thread does the work itself, so a slow
+// disk slows tests down instead of piling up screenshots in memory. Call flush() at suite end.
+
+@Slf4j
+public final class ArtifactPipeline {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private static final int threads = Integer.parseInt(ConfigReader.getProperty("artifactThreads", "2"));
+    private static final int queueSize = Integer.parseInt(ConfigReader.getProperty("artifactQueueSize", "16"));
+    private static final int maxWidth = Integer.parseInt(ConfigReader.getProperty("artifactScreenshotMaxWidth", "0"));
+    private static final String outputDir = ConfigReader.getProperty("artifactDir", "screenshots");
+
+    private static final LongAdder written = new LongAdder();
+    private static final LongAdder failed = new LongAdder();
+    private static final LongAdder ranOnCaller = new LongAdder();
+    private static ThreadPoolExecutor executor;
+
+    private ArtifactPipeline() {
+        // Prevent instantiation
+    }
+
+
+    // Queue the artifacts of one failed test; returns as soon as the work is queued
+
+    public static void submit(FailureArtifacts artifacts) {
+        Attachments attachments = reserveAttachments(artifacts);
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+        Runnable task = () -> {
+            // Log lines from the writer carry the failed test's name and device
+            if (logContext != null) {
+                MDC.setContextMap(logContext);
+            }
+            try {
+                write(artifacts, attachments);
+            } finally {
+                MDC.clear();
+            }
+        };
+        executor().execute(task);
+    }
+
+
+    // Wait for queued artifacts to be written, then release the worker threads
+
+    public static void flush(Duration timeout) {
+        ThreadPoolExecutor running;
+        synchronized (ArtifactPipeline.class) {
+            running = executor;
+            executor = null;
+        }
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Artifact pipeline did not drain within {}s; {} artifacts dropped",
+                        timeout.toSeconds(), running.getQueue().size());
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.shutdownNow();
+        }
+        log.info("{}", stats());
+    }
+
+    public static String stats() {
+        return "failure artifacts | written: " + written.sum() + " | failed: " + failed.sum()
+                + " | written on test thread (queue full): " + ranOnCaller.sum();
+    }
+
+
+    private static synchronized ThreadPoolExecutor executor() {
+        if (executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "artifact-writer-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, pool) -> {
+                        // Raced with flush(): too late to write. Runs on the test thread, so the
+                        // warning carries the test's name
+                        if (pool.isShutdown()) {
+                            failed.increment();
+                            log.warn("Failure artifacts submitted after the pipeline was flushed; dropped");
+                            return;
+                        }
+                        // Back-pressure: the test thread writes this one itself
+                        ranOnCaller.increment();
+                        task.run();
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private static Attachments reserveAttachments(FailureArtifacts artifacts) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String screenshot = artifacts.screenshotBase64() != null
+                ? lifecycle.prepareAttachment("Screenshot", "image/png", "png") : null;
+        String pageSource = artifacts.pageSource() != null
+                ? lifecycle.prepareAttachment("Page source", "text/xml", "xml") : null;
+        String activity = artifacts.currentActivity() != null
+                ? lifecycle.prepareAttachment("Current activity", "text/plain", "txt") : null;
+        return new Attachments(screenshot, pageSource, activity);
+    }
+
+    private static void write(FailureArtifacts artifacts, Attachments attachments) {
+        try {
+            Path dir = Paths.get(System.getProperty("user.dir")).resolve(outputDir).resolve(artifacts.className());
+            Files.createDirectories(dir);
+            String baseName = artifacts.testName() + "_" + TIMESTAMP.format(artifacts.capturedAt());
+            AllureLifecycle lifecycle = Allure.getLifecycle();
+
+            if (artifacts.screenshotBase64() != null) {
+                byte[] png = downscale(Base64.getMimeDecoder().decode(artifacts.screenshotBase64()));
+                Path file = dir.resolve(baseName + ".png");
+                Files.write(file, png);
+                lifecycle.writeAttachment(attachments.screenshot(), new ByteArrayInputStream(png));
+                log.info("📸 Screenshot saved at: {}", file);
+            }
+            if (artifacts.pageSource() != null) {
+                byte[] xml = artifacts.pageSource().getBytes(StandardCharsets.UTF_8);
+                Files.write(dir.resolve(baseName + ".xml"), xml);
+                lifecycle.writeAttachment(attachments.pageSource(), new ByteArrayInputStream(xml));
+            }
+            if (artifacts.currentActivity() != null) {
+                lifecycle.writeAttachment(attachments.activity(),
+                        new ByteArrayInputStream(artifacts.currentActivity().getBytes(StandardCharsets.UTF_8)));
+            }
+            written.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.error("Failed to write failure artifacts for {}: {}", artifacts.testName(), e.getMessage());
+        }
+    }
+
+
+    // Shrink screenshots wider than artifactScreenshotMaxWidth (0 keeps the device resolution)
+
+    private static byte[] downscale(byte[] png) throws IOException {
+        if (maxWidth <= 0) {
+            return png;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null || image.getWidth() <= maxWidth) {
+            return png;
+        }
+        int height = Math.max(1, image.getHeight() * maxWidth / image.getWidth());
+        BufferedImage scaled = new BufferedImage(maxWidth, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, maxWidth, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(scaled, "png", out);
+        return out.toByteArray();
+    }
+
+
+    // Allure attachment sources reserved on the test thread (null when that artifact is missing)
+
+    private record Attachments(String screenshot, String pageSource, String activity) {
+    }
+}
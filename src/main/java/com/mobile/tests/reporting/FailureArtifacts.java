@@ -0,0 +1,44 @@
+package com.mobile.tests.reporting;
+
+import io.appium.java_client.AppiumDriver;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.OutputType;
+
+import java.time.LocalDateTime;
+
+// What is grabbed from the device when a test fails. Capture keeps the raw payloads as the
+// driver returned them (the screenshot stays base64); decoding and everything else happens in
+// ArtifactPipeline. Any part that cannot be captured is left null.
+
+@Slf4j
+public record FailureArtifacts(String className, String testName, LocalDateTime capturedAt,
+                               String screenshotBase64, String pageSource, String currentActivity) {
+
+    public static FailureArtifacts capture(AppiumDriver driver, String className, String testName, boolean includePageSource) {
+        LocalDateTime capturedAt = LocalDateTime.now();
+        String screenshot = null;
+        String pageSource = null;
+        String activity = null;
+
+        try {
+            screenshot = driver.getScreenshotAs(OutputType.BASE64);
+        } catch (RuntimeException e) {
+            log.warn("Could not capture screenshot: {}", e.getMessage());
+        }
+        if (includePageSource) {
+            try {
+                pageSource = driver.getPageSource();
+            } catch (RuntimeException e) {
+                log.warn("Could not capture page source: {}", e.getMessage());
+            }
+        }
+        try {
+            Object value = driver.executeScript("mobile: getCurrentActivity");
+            activity = value != null ? value.toString() : null;
+        } catch (RuntimeException e) {
+            // Not an Android session or the app is gone; the screenshot is what matters
+        }
+
+        return new FailureArtifacts(className, testName, capturedAt, screenshot, pageSource, activity);
+    }
+}
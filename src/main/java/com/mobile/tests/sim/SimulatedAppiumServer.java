@@ -0,0 +1,567 @@
+package com.mobile.tests.sim;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobile.tests.snapshot.PageSnapshot;
+import com.mobile.tests.utils.ConfigReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.appium.java_client.AppiumBy;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.By;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// In-process stand-in for an Appium server + UiAutomator2 device, playing a SimulatorModel:
+// each session sits on one recorded screen, finds elements in that screen's page source
+// (accessibility id, id, class name, the XPath subset and flat UiSelectors of SnapshotQuery),
+// and moves to the next screen when a tap, scroll gesture or back key matches a transition.
+// Text typed into fields is kept per session and feeds the transition conditions.
+//
+// Element ids carry the screen generation they were found on, so an element from a previous
+// screen answers "stale element reference" like a real device would. Lookups never wait:
+// implicit waits are accepted and ignored. simulatorLatencyMs (+ simulatorLatencyJitterMs)
+// is added to every command to stand in for the device round trip.
+//
+// executionMode=simulated makes DriverManager open its sessions here (see shared()).
+
+@Slf4j
+public final class SimulatedAppiumServer implements AutoCloseable {
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final Pattern BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+    private static final String SCREENSHOT = screenshot();
+
+    private static volatile SimulatedAppiumServer shared;
+
+    static {
+        // Headers and body go out as separate writes; without TCP_NODELAY, Nagle + delayed ACK adds ~40 ms
+        // per command. The JDK reads this once, when the JVM's first HttpServer starts; an explicit -D wins.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final SimulatorModel model;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionIds = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    // Client address + port of every request; one entry per TCP connection the clients opened
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    public SimulatedAppiumServer(SimulatorModel model, long latencyMillis, long jitterMillis) {
+        this.model = model;
+        this.latencyNanos = latencyMillis * 1_000_000;
+        this.jitterNanos = jitterMillis * 1_000_000;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to start simulated Appium server", e);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "simulated-appium-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Simulated Appium server listening on {} (latency {} ms +/- {} ms)", url(), latencyMillis, jitterMillis);
+    }
+
+
+    // Server used by executionMode=simulated, started on first use from simulatorModel / simulatorLatencyMs
+
+    public static SimulatedAppiumServer shared() {
+        SimulatedAppiumServer server = shared;
+        if (server == null) {
+            synchronized (SimulatedAppiumServer.class) {
+                server = shared;
+                if (server == null) {
+                    server = new SimulatedAppiumServer(
+                            SimulatorModel.load(ConfigReader.getProperty("simulatorModel", "simulator/swaglabs.json")),
+                            Long.parseLong(ConfigReader.getProperty("simulatorLatencyMs", "0")),
+                            Long.parseLong(ConfigReader.getProperty("simulatorLatencyJitterMs", "0")));
+                    shared = server;
+                }
+            }
+        }
+        return server;
+    }
+
+    public static void stopShared() {
+        synchronized (SimulatedAppiumServer.class) {
+            if (shared != null) {
+                shared.close();
+                shared = null;
+            }
+        }
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+
+    // Screen a session is on, for checks from outside the protocol (null when the session is unknown)
+
+    public String getScreen(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session != null ? session.screen : null;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        long served = requests.get();
+        log.info("Simulated Appium server stopped after {} requests over {} connections ({}% reused)",
+                served, connections.size(), served == 0 ? 0 : Math.round(100.0 * (served - connections.size()) / served));
+    }
+
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        connections.add(exchange.getRemoteAddress());
+        simulateLatency();
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            Object result;
+            try {
+                Map<?, ?> request = body.length > 0 ? mapper.readValue(body, Map.class) : Map.of();
+                result = route(exchange.getRequestMethod(), path, request);
+            } catch (RuntimeException e) {
+                log.warn("Simulated command {} failed: {}", exchange.getRequestURI(), e.toString());
+                result = new Failure(500, "unknown error", String.valueOf(e.getMessage()));
+            }
+            if (result instanceof Failure failure) {
+                respond(exchange, failure.status(), Map.of("value", Map.of(
+                        "error", failure.error(), "message", failure.message(), "stacktrace", "")));
+            } else {
+                Map<String, Object> wrapped = new HashMap<>();
+                wrapped.put("value", result);
+                respond(exchange, 200, wrapped);
+            }
+        }
+    }
+
+    private Object route(String method, String[] path, Map<?, ?> request) {
+        if (path.length == 1 && "status".equals(path[0])) {
+            return Map.of("ready", true, "message", "simulated", "build", Map.of("version", "simulated"));
+        }
+        if (!"session".equals(path[0])) {
+            return unknownCommand(method, path);
+        }
+        if (path.length == 1) {
+            return newSession(request);
+        }
+
+        Session session = sessions.get(path[1]);
+        if (session == null) {
+            return new Failure(404, "invalid session id", "No active session with id " + path[1]);
+        }
+        if (path.length == 2) {
+            if ("DELETE".equals(method)) {
+                sessions.remove(path[1]);
+            }
+            return null;
+        }
+
+        synchronized (session) {
+            switch (path[2]) {
+                case "element", "elements" -> {
+                    if (path.length == 3) {
+                        return find(session, null, "elements".equals(path[2]), request);
+                    }
+                    return elementCommand(session, method, path, request);
+                }
+                case "source" -> {
+                    return model.screen(session.screen).source();
+                }
+                case "screenshot" -> {
+                    return SCREENSHOT;
+                }
+                case "execute" -> {
+                    return executeScript(session, request);
+                }
+                case "back" -> {
+                    fire(session, session.next(transition -> transition.back()));
+                    return null;
+                }
+                case "timeouts", "actions", "orientation", "context" -> {
+                    return null;
+                }
+                case "appium" -> {
+                    return appiumCommand(session, method, path);
+                }
+                default -> {
+                    return unknownCommand(method, path);
+                }
+            }
+        }
+    }
+
+    private Object newSession(Map<?, ?> request) {
+        String id = "simulated-" + sessionIds.incrementAndGet();
+        Session session = new Session();
+        session.reset();
+        sessions.put(id, session);
+
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        if (request.get("capabilities") instanceof Map<?, ?> requested
+                && requested.get("alwaysMatch") instanceof Map<?, ?> alwaysMatch) {
+            alwaysMatch.forEach((key, value) -> capabilities.put(String.valueOf(key), value));
+        }
+        capabilities.put("platformName", "Android");
+        capabilities.putIfAbsent("appium:automationName", "UiAutomator2");
+        return Map.of("sessionId", id, "capabilities", capabilities);
+    }
+
+
+    // Finding elements, on the whole screen or inside a parent element
+
+    private Object find(Session session, PageSnapshot.Node parent, boolean many, Map<?, ?> request) {
+        By locator = locatorOf(String.valueOf(request.get("using")), String.valueOf(request.get("value")));
+        if (locator == null || !PageSnapshot.supports(locator)) {
+            return new Failure(400, "invalid selector", "Locator not supported by the simulator: "
+                    + request.get("using") + "=" + request.get("value"));
+        }
+        List<PageSnapshot.Node> nodes = parent != null ? parent.findAll(locator) : session.snapshot().findAll(locator);
+        if (many) {
+            List<Map<String, String>> elements = new ArrayList<>(nodes.size());
+            for (PageSnapshot.Node node : nodes) {
+                elements.add(Map.of(ELEMENT_KEY, session.elementId(node)));
+            }
+            return elements;
+        }
+        if (nodes.isEmpty()) {
+            return new Failure(404, "no such element", "An element could not be located on the page using the given search parameters.");
+        }
+        return Map.of(ELEMENT_KEY, session.elementId(nodes.get(0)));
+    }
+
+    private static By locatorOf(String using, String value) {
+        return switch (using) {
+            case "accessibility id" -> AppiumBy.accessibilityId(value);
+            case "xpath" -> By.xpath(value);
+            case "-android uiautomator" -> AppiumBy.androidUIAutomator(value);
+            case "id" -> AppiumBy.id(value);
+            case "class name" -> AppiumBy.className(value);
+            default -> null;
+        };
+    }
+
+    private Object elementCommand(Session session, String method, String[] path, Map<?, ?> request) {
+        // /session/{id}/element/{elementId}/{action}[/{name}]
+        PageSnapshot.Node node = session.resolve(path[3]);
+        if (node == null) {
+            return new Failure(404, "stale element reference", "The element '" + path[3] + "' does not exist in DOM anymore");
+        }
+        String action = path.length > 4 ? path[4] : "";
+        switch (action) {
+            case "element", "elements" -> {
+                return find(session, node, "elements".equals(action), request);
+            }
+            case "text" -> {
+                return session.text(node);
+            }
+            case "displayed" -> {
+                return node.isDisplayed();
+            }
+            case "enabled" -> {
+                return !"false".equals(node.getAttribute("enabled"));
+            }
+            case "selected" -> {
+                return "true".equals(node.getAttribute("selected"));
+            }
+            case "name" -> {
+                return node.getTag();
+            }
+            case "attribute" -> {
+                return attribute(session, node, path.length > 5 ? path[5] : "");
+            }
+            case "rect" -> {
+                return rect(node);
+            }
+            case "click" -> {
+                if (!node.isDisplayed()) {
+                    return new Failure(400, "element not interactable", "Element is not displayed on screen");
+                }
+                tap(session, node);
+                return null;
+            }
+            case "clear" -> {
+                session.fields.put(fieldKey(node), "");
+                return null;
+            }
+            case "value" -> {
+                String key = fieldKey(node);
+                Object text = request.get("text");
+                session.fields.merge(key, text != null ? text.toString() : "", String::concat);
+                return null;
+            }
+            default -> {
+                return unknownCommand(method, path);
+            }
+        }
+    }
+
+    private Object attribute(Session session, PageSnapshot.Node node, String name) {
+        return switch (name) {
+            case "text" -> session.text(node);
+            case "content-desc", "contentDescription" -> node.getAttribute("content-desc");
+            case "resource-id", "resourceId" -> node.getAttribute("resource-id");
+            case "class", "className" -> node.getTag();
+            case "displayed" -> String.valueOf(node.isDisplayed());
+            default -> node.getAttribute(name);
+        };
+    }
+
+    private static Map<String, Integer> rect(PageSnapshot.Node node) {
+        String bounds = node.getAttribute("bounds");
+        Matcher matcher = BOUNDS.matcher(bounds != null ? bounds : "");
+        if (!matcher.matches()) {
+            return Map.of("x", 0, "y", 0, "width", 0, "height", 0);
+        }
+        int left = Integer.parseInt(matcher.group(1));
+        int top = Integer.parseInt(matcher.group(2));
+        return Map.of("x", left, "y", top,
+                "width", Integer.parseInt(matcher.group(3)) - left,
+                "height", Integer.parseInt(matcher.group(4)) - top);
+    }
+
+
+    // Taps resolve to the nearest labelled node: the tapped one first, then its ancestors
+
+    private void tap(Session session, PageSnapshot.Node node) {
+        for (PageSnapshot.Node current = node; current != null; current = current.getParent()) {
+            for (String label : new String[]{current.getAttribute("content-desc"), current.getAttribute("text")}) {
+                if (label != null && !label.isEmpty()) {
+                    SimulatorModel.Transition transition = session.next(t -> t.isTap(label));
+                    if (transition != null) {
+                        fire(session, transition);
+                        return;
+                    }
+                }
+            }
+        }
+        log.debug("Tap on {} leaves screen '{}' unchanged", node, session.screen);
+    }
+
+    private void fire(Session session, SimulatorModel.Transition transition) {
+        if (transition == null) {
+            return;
+        }
+        session.vars.putAll(transition.updates());
+        session.moveTo(transition.to());
+    }
+
+    private Object executeScript(Session session, Map<?, ?> request) {
+        String script = String.valueOf(request.get("script"));
+        Map<?, ?> args = request.get("args") instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof Map<?, ?> map
+                ? map : Map.of();
+        switch (script) {
+            case "mobile: scrollGesture" -> {
+                String direction = String.valueOf(args.get("direction"));
+                SimulatorModel.Transition transition = session.next(t -> t.isScroll(direction));
+                fire(session, transition);
+                // Like UiAutomator2: true while the container can still scroll further that way
+                return transition != null && session.next(t -> t.isScroll(direction)) != null;
+            }
+            case "mobile: terminateApp" -> {
+                boolean wasRunning = session.running;
+                session.running = false;
+                return wasRunning;
+            }
+            case "mobile: activateApp" -> {
+                if (!session.running) {
+                    session.reset();
+                }
+                return null;
+            }
+            case "mobile: clearApp" -> {
+                session.reset();
+                session.running = false;
+                return true;
+            }
+            case "mobile: replaceElementValue" -> {
+                String elementId = String.valueOf(args.get("elementId"));
+                PageSnapshot.Node node = session.resolve(elementId);
+                if (node == null) {
+                    return new Failure(404, "stale element reference", "The element '" + elementId + "' does not exist in DOM anymore");
+                }
+                Object text = args.get("text");
+                session.fields.put(fieldKey(node), text != null ? text.toString() : "");
+                return null;
+            }
+            case "mobile: deepLink" -> {
+                // Opening a link brings the app up; a link the model does not know leaves the screen as it is
+                if (!session.running) {
+                    session.reset();
+                }
+                String url = String.valueOf(args.get("url"));
+                fire(session, session.next(t -> t.isLink(url)));
+                return null;
+            }
+            case "mobile: queryAppState" -> {
+                // 4 = running in foreground, 1 = not running
+                return session.running ? 4 : 1;
+            }
+            case "mobile: getCurrentActivity" -> {
+                return model.getAppActivity();
+            }
+            case "mobile: getCurrentPackage" -> {
+                return model.getAppPackage();
+            }
+            default -> {
+                return new Failure(500, "unsupported operation", "Script not supported by the simulator: " + script);
+            }
+        }
+    }
+
+    private Object appiumCommand(Session session, String method, String[] path) {
+        // /session/{id}/appium/device/{command}
+        String command = path[path.length - 1];
+        return switch (command) {
+            case "current_activity" -> model.getAppActivity();
+            case "current_package" -> model.getAppPackage();
+            default -> "GET".equals(method) ? unknownCommand(method, path) : null;
+        };
+    }
+
+    private static Failure unknownCommand(String method, String[] path) {
+        return new Failure(404, "unknown command", "Command not supported by the simulator: " + method + " /" + String.join("/", path));
+    }
+
+    private static String fieldKey(PageSnapshot.Node node) {
+        String desc = node.getAttribute("content-desc");
+        return desc != null && !desc.isEmpty() ? desc : "#" + node.getIndex();
+    }
+
+    private void simulateLatency() {
+        long nanos = latencyNanos;
+        if (jitterNanos > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(-jitterNanos, jitterNanos + 1);
+        }
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object payload) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(payload);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static String screenshot() {
+        BufferedImage image = new BufferedImage(108, 240, BufferedImage.TYPE_INT_RGB);
+        try (ByteArrayOutputStream png = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", png);
+            return Base64.getEncoder().encodeToString(png.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    // One app session: current screen, typed field text and model variables
+
+    private final class Session {
+
+        private String screen;
+        private int generation;
+        private boolean running;
+        private final Map<String, String> fields = new HashMap<>();
+        private final Map<String, String> vars = new HashMap<>();
+
+        private void reset() {
+            vars.clear();
+            vars.putAll(model.getInitialState());
+            fields.clear();
+            running = true;
+            moveTo(model.getInitialScreen());
+        }
+
+        private PageSnapshot snapshot() {
+            return model.screen(screen).snapshot();
+        }
+
+        private void moveTo(String next) {
+            screen = next;
+            generation++;
+            // Text typed into a field survives while the next screen still has that field (e.g. validation errors)
+            PageSnapshot snapshot = snapshot();
+            fields.keySet().removeIf(key -> key.startsWith("#")
+                    || snapshot.count(AppiumBy.accessibilityId(key)) == 0);
+        }
+
+        private SimulatorModel.Transition next(Predicate<SimulatorModel.Transition> trigger) {
+            return model.next(screen, trigger, key -> fields.containsKey(key) ? fields.get(key) : vars.get(key));
+        }
+
+        private String elementId(PageSnapshot.Node node) {
+            return generation + "-" + node.getIndex();
+        }
+
+        private PageSnapshot.Node resolve(String elementId) {
+            int dash = elementId.indexOf('-');
+            if (dash < 0 || !elementId.substring(0, dash).equals(String.valueOf(generation))) {
+                return null;
+            }
+            try {
+                return snapshot().node(Integer.parseInt(elementId.substring(dash + 1)));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private String text(PageSnapshot.Node node) {
+            String typed = fields.get(fieldKey(node));
+            return typed != null && !typed.isEmpty() ? typed : node.getText();
+        }
+    }
+
+    private record Failure(int status, String error, String message) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.mobile.tests.sim;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobile.tests.snapshot.PageSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// What SimulatedAppiumServer plays back: a set of screens, each a recorded getPageSource() XML,
+// and the transitions between them, loaded from a JSON file on the classpath
+// (see src/main/resources/simulator/swaglabs.json).
+//
+// A transition fires on a tap (content-desc or text of the tapped node or one of its ancestors),
+// a scroll gesture direction, the back key or a deep link (mobile: deepLink url). Its "when" conditions are checked against text
+// typed into fields (keyed by the field's content-desc) and then against state variables;
+// a condition value of "" means empty and "*" means anything non-empty. The first transition
+// in file order whose screen, trigger and conditions all match wins.
+
+public final class SimulatorModel {
+
+    private static final String WILDCARD = "*";
+
+    private final Definition definition;
+    private final Map<String, Screen> screens;
+
+    private SimulatorModel(Definition definition, Map<String, Screen> screens) {
+        this.definition = definition;
+        this.screens = screens;
+    }
+
+
+    // Load a model and every screen it references from the classpath
+
+    public static SimulatorModel load(String resource) {
+        ObjectMapper mapper = new ObjectMapper()
+                .enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        Definition definition;
+        try (InputStream input = open(resource)) {
+            definition = mapper.readValue(input, Definition.class);
+        } catch (IOException e) {
+            throw new RuntimeException(" Failed to load simulator model: " + resource, e);
+        }
+
+        Map<String, Screen> screens = new LinkedHashMap<>();
+        definition.screens().forEach((name, path) -> {
+            try (InputStream input = open(path)) {
+                String source = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+                screens.put(name, new Screen(name, source, PageSnapshot.parse(source)));
+            } catch (IOException e) {
+                throw new RuntimeException(" Failed to load simulator screen '" + name + "' from: " + path, e);
+            }
+        });
+
+        SimulatorModel model = new SimulatorModel(definition, Map.copyOf(screens));
+        model.screen(definition.initialScreen());
+        for (Transition transition : definition.transitions()) {
+            model.screen(transition.to());
+        }
+        return model;
+    }
+
+    public String getAppPackage() {
+        return definition.appPackage();
+    }
+
+    public String getAppActivity() {
+        return definition.appActivity();
+    }
+
+    public String getInitialScreen() {
+        return definition.initialScreen();
+    }
+
+    public Map<String, String> getInitialState() {
+        return definition.initialState() != null ? definition.initialState() : Map.of();
+    }
+
+    public Screen screen(String name) {
+        Screen screen = screens.get(name);
+        if (screen == null) {
+            throw new IllegalArgumentException(" Unknown simulator screen: " + name);
+        }
+        return screen;
+    }
+
+
+    // First transition out of the screen whose trigger and conditions match, or null.
+    // state resolves a condition key (typed field text first, then variables) to its value or null.
+
+    public Transition next(String screen, Predicate<Transition> trigger, Function<String, String> state) {
+        for (Transition transition : definition.transitions()) {
+            if (transition.leaves(screen) && trigger.test(transition) && transition.applies(state)) {
+                return transition;
+            }
+        }
+        return null;
+    }
+
+
+    // One recorded screen: the raw page source and its parsed form
+
+    public record Screen(String name, String source, PageSnapshot snapshot) {
+    }
+
+    public record Transition(List<String> from, List<String> tap, String scroll, boolean back, String link,
+                             Map<String, List<String>> when, Map<String, String> set, String to) {
+
+        public boolean isTap(String label) {
+            return tap != null && tap.contains(label);
+        }
+
+        public boolean isLink(String url) {
+            return link != null && link.equals(url);
+        }
+
+        public boolean isScroll(String direction) {
+            return direction.equalsIgnoreCase(scroll);
+        }
+
+        public Map<String, String> updates() {
+            return set != null ? set : Map.of();
+        }
+
+        private boolean leaves(String screen) {
+            return from == null || from.contains(WILDCARD) || from.contains(screen);
+        }
+
+        private boolean applies(Function<String, String> state) {
+            if (when == null) {
+                return true;
+            }
+            for (Map.Entry<String, List<String>> condition : when.entrySet()) {
+                String value = state.apply(condition.getKey());
+                value = value != null ? value : "";
+                boolean matched = false;
+                for (String expected : condition.getValue()) {
+                    if (WILDCARD.equals(expected) ? !value.isEmpty() : expected.equals(value)) {
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Definition(String appPackage, String appActivity, String initialScreen,
+                              Map<String, String> initialState, Map<String, String> screens,
+                              List<Transition> transitions) {
+    }
+
+    private static InputStream open(String resource) throws IOException {
+        InputStream input = SimulatorModel.class.getClassLoader().getResourceAsStream(resource);
+        if (input == null) {
+            throw new IOException(" Resource not found on classpath: " + resource);
+        }
+        return input;
+    }
+}
@@ -0,0 +1,314 @@
+package com.mobile.tests.snapshot;
+
+import org.openqa.selenium.By;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Immutable, parsed copy of one getPageSource() result. Nodes are stored flat in document
+// order: node i's descendants are exactly the nodes i+1 .. subtreeEnd[i], so "//" queries
+// are a range scan. Node 0 is the document itself; the page's root element is node 1.
+//
+// Only read-only questions (texts, counts, attributes, visibility) are answered here;
+// anything that needs a live element still goes to the driver.
+
+public final class PageSnapshot {
+
+    private static final String DOCUMENT = "#document";
+    private static final SAXParserFactory parserFactory = newParserFactory();
+
+    private final String[] tags;
+    private final String[][] attributes;
+    private final int[] parents;
+    private final int[] subtreeEnds;
+    private final long createdNanos = System.nanoTime();
+
+    private PageSnapshot(String[] tags, String[][] attributes, int[] parents, int[] subtreeEnds) {
+        this.tags = tags;
+        this.attributes = attributes;
+        this.parents = parents;
+        this.subtreeEnds = subtreeEnds;
+    }
+
+
+    // Parse an Appium page source (UiAutomator2 hierarchy XML)
+
+    public static PageSnapshot parse(String pageSource) {
+        TreeBuilder builder = new TreeBuilder();
+        try {
+            parserFactory.newSAXParser().parse(new InputSource(new StringReader(pageSource)), builder);
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new RuntimeException(" Failed to parse page source", e);
+        }
+        return builder.build();
+    }
+
+
+    // Whether the locator can be answered from a snapshot (see SnapshotQuery for the supported subset)
+
+    public static boolean supports(By locator) {
+        return SnapshotQuery.compile(locator) != null;
+    }
+
+
+    // All nodes matching the locator, in document order
+
+    public List<Node> findAll(By locator) {
+        int[] matches = query(locator).evaluate(this);
+        return new AbstractList<>() {
+            @Override
+            public Node get(int index) {
+                return new Node(matches[index]);
+            }
+
+            @Override
+            public int size() {
+                return matches.length;
+            }
+        };
+    }
+
+    public int count(By locator) {
+        return query(locator).evaluate(this).length;
+    }
+
+
+    // "text" attribute of every match (what getText() returns for UiAutomator2 elements)
+
+    public List<String> texts(By locator) {
+        return attributes(locator, "text");
+    }
+
+    public List<String> attributes(By locator, String name) {
+        int[] matches = query(locator).evaluate(this);
+        List<String> values = new ArrayList<>(matches.length);
+        for (int node : matches) {
+            String value = attribute(node, name);
+            values.add(value != null ? value : "");
+        }
+        return values;
+    }
+
+
+    // True when at least one match is displayed
+
+    public boolean isDisplayed(By locator) {
+        for (int node : query(locator).evaluate(this)) {
+            if (displayed(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return tags.length - 1;
+    }
+
+
+    // Node by its document-order index (as returned by Node.getIndex())
+
+    public Node node(int index) {
+        if (index < 1 || index >= tags.length) {
+            throw new IndexOutOfBoundsException(" No node " + index + " in a snapshot of " + size() + " nodes");
+        }
+        return new Node(index);
+    }
+
+    public long getAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos);
+    }
+
+
+    // Read-only view of one node
+
+    public final class Node {
+
+        private final int index;
+
+        private Node(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getTag() {
+            return tags[index];
+        }
+
+
+        // Enclosing element, or null for the page's root element
+
+        public Node getParent() {
+            int parent = parents[index];
+            return parent > 0 ? new Node(parent) : null;
+        }
+
+        public String getAttribute(String name) {
+            return attribute(index, name);
+        }
+
+        public String getText() {
+            String text = attribute(index, "text");
+            return text != null ? text : "";
+        }
+
+        public boolean isDisplayed() {
+            return displayed(index);
+        }
+
+
+        // Matches of the locator inside this node's subtree only, e.g. the title of one list row
+
+        public List<Node> findAll(By locator) {
+            int[] matches = query(locator).evaluate(PageSnapshot.this, index);
+            List<Node> nodes = new ArrayList<>(matches.length);
+            for (int match : matches) {
+                nodes.add(new Node(match));
+            }
+            return nodes;
+        }
+
+
+        // Text of the first match inside this node's subtree, or "" when there is none
+
+        public String text(By locator) {
+            int[] matches = query(locator).evaluate(PageSnapshot.this, index);
+            if (matches.length == 0) {
+                return "";
+            }
+            String text = attribute(matches[0], "text");
+            return text != null ? text : "";
+        }
+
+        @Override
+        public String toString() {
+            return tags[index] + Arrays.toString(attributes[index]);
+        }
+    }
+
+
+    // Package-private accessors for SnapshotQuery
+
+    int nodeCount() {
+        return tags.length;
+    }
+
+    String tag(int node) {
+        return tags[node];
+    }
+
+    int parent(int node) {
+        return parents[node];
+    }
+
+    int subtreeEnd(int node) {
+        return subtreeEnds[node];
+    }
+
+    String attribute(int node, String name) {
+        String[] pairs = attributes[node];
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (pairs[i].equals(name)) {
+                return pairs[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private boolean displayed(int node) {
+        // UiAutomator2 reports displayed="false" for off-screen nodes; older sources omit the attribute
+        return !"false".equals(attribute(node, "displayed"));
+    }
+
+    private static SnapshotQuery query(By locator) {
+        SnapshotQuery query = SnapshotQuery.compile(locator);
+        if (query == null) {
+            throw new UnsupportedOperationException(" Locator not supported by page snapshots: " + locator);
+        }
+        return query;
+    }
+
+    private static SAXParserFactory newParserFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException(" XML parser does not support secure processing", e);
+        }
+        return factory;
+    }
+
+
+    // SAX handler that appends nodes in document order and closes subtrees on end tags
+
+    private static final class TreeBuilder extends DefaultHandler {
+
+        private final List<String> tags = new ArrayList<>();
+        private final List<String[]> attributes = new ArrayList<>();
+        private int[] parents = new int[256];
+        private int[] subtreeEnds = new int[256];
+        private final Deque<Integer> open = new ArrayDeque<>();
+        private final Map<String, String> names = new HashMap<>();
+
+        private TreeBuilder() {
+            add(DOCUMENT, new String[0], -1);
+            open.push(0);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            String[] pairs = new String[attrs.getLength() * 2];
+            for (int i = 0; i < attrs.getLength(); i++) {
+                pairs[2 * i] = names.computeIfAbsent(attrs.getQName(i), name -> name);
+                pairs[2 * i + 1] = attrs.getValue(i);
+            }
+            int node = add(names.computeIfAbsent(qName, name -> name), pairs, open.peek());
+            open.push(node);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            subtreeEnds[open.pop()] = tags.size() - 1;
+        }
+
+        private int add(String tag, String[] pairs, int parent) {
+            int node = tags.size();
+            if (node == parents.length) {
+                parents = Arrays.copyOf(parents, node * 2);
+                subtreeEnds = Arrays.copyOf(subtreeEnds, node * 2);
+            }
+            tags.add(tag);
+            attributes.add(pairs);
+            parents[node] = parent;
+            subtreeEnds[node] = node;
+            return node;
+        }
+
+        private PageSnapshot build() {
+            int size = tags.size();
+            subtreeEnds[0] = size - 1;
+            return new PageSnapshot(tags.toArray(new String[0]), attributes.toArray(new String[0][]),
+                    Arrays.copyOf(parents, size), Arrays.copyOf(subtreeEnds, size));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.mobile.tests.snapshot;
+
+import com.mobile.tests.core.CommandListener;
+import com.mobile.tests.core.ObservableCommandExecutor;
+import com.mobile.tests.core.ScreenCommands;
+import com.mobile.tests.utils.ConfigReader;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// One PageSnapshot per Appium session, reused until something could have changed the screen.
+// Any command that is not a ScreenCommands read (click, sendKeys, actions, executeScript, back...)
+// drops the session's snapshot; pageSnapshotMaxAgeMs also bounds how long one is trusted,
+// since the app can re-render on its own. Caching needs a driver built on
+// ObservableCommandExecutor (DriverManager does this); other drivers get a fresh snapshot per call,
+// and so does every driver with pageSnapshots=false, which also leaves the invalidating listener out.
+
+public final class PageSnapshots {
+
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("pageSnapshots", "true"));
+    private static final long maxAgeMillis = Long.parseLong(ConfigReader.getProperty("pageSnapshotMaxAgeMs", "5000"));
+
+    private static final Map<SessionId, SessionSnapshots> sessions = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder fetches = new LongAdder();
+    private static final LongAdder invalidations = new LongAdder();
+    private static final LongAdder parseNanos = new LongAdder();
+
+    static {
+        if (enabled) {
+            ObservableCommandExecutor.addListener(new Invalidator());
+        }
+    }
+
+    private PageSnapshots() {
+        // Prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+
+    // Snapshot of the driver's current screen: the cached one if still valid, otherwise one getPageSource()
+
+    public static PageSnapshot current(AppiumDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        if (!enabled || sessionId == null || !(driver.getCommandExecutor() instanceof ObservableCommandExecutor)) {
+            return fetch(driver);
+        }
+
+        SessionSnapshots state = sessions.computeIfAbsent(sessionId, id -> new SessionSnapshots());
+        PageSnapshot cached = state.snapshot;
+        if (cached != null && (maxAgeMillis <= 0 || cached.getAgeMillis() <= maxAgeMillis)) {
+            hits.increment();
+            return cached;
+        }
+
+        long generation = state.generation.get();
+        PageSnapshot fresh = fetch(driver);
+        // Only keep it if no mutating command ran while the source was being fetched
+        if (state.generation.get() == generation) {
+            state.snapshot = fresh;
+        }
+        return fresh;
+    }
+
+
+    // Drop the cached snapshot (e.g. after a live lookup found what the snapshot did not)
+
+    public static void invalidate(AppiumDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId != null) {
+            SessionSnapshots state = sessions.get(sessionId);
+            if (state != null) {
+                state.invalidate();
+            }
+        }
+    }
+
+    public static String stats() {
+        return "page snapshots | fetched: " + fetches.sum() + " | reused: " + hits.sum()
+                + " | invalidated: " + invalidations.sum()
+                + " | parse ms: " + TimeUnit.NANOSECONDS.toMillis(parseNanos.sum());
+    }
+
+
+    private static PageSnapshot fetch(AppiumDriver driver) {
+        String source = driver.getPageSource();
+        long start = System.nanoTime();
+        PageSnapshot snapshot = PageSnapshot.parse(source);
+        parseNanos.add(System.nanoTime() - start);
+        fetches.increment();
+        return snapshot;
+    }
+
+
+    private static final class SessionSnapshots {
+
+        private final AtomicLong generation = new AtomicLong();
+        private volatile PageSnapshot snapshot;
+
+        private void invalidate() {
+            generation.incrementAndGet();
+            if (snapshot != null) {
+                snapshot = null;
+                invalidations.increment();
+            }
+        }
+    }
+
+
+    private static final class Invalidator implements CommandListener {
+
+        @Override
+        public void beforeCommand(Command command) {
+            if (ScreenCommands.isRead(command) || command.getSessionId() == null) {
+                return;
+            }
+            if (DriverCommand.QUIT.equals(command.getName())) {
+                sessions.remove(command.getSessionId());
+                return;
+            }
+            SessionSnapshots state = sessions.get(command.getSessionId());
+            if (state != null) {
+                state.invalidate();
+            }
+        }
+    }
+}
@@ -0,0 +1,518 @@
+package com.mobile.tests.snapshot;
+
+import com.mobile.tests.locators.CompiledLocator;
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Locator compiled once into steps that run against a PageSnapshot.
+//
+// Supported: accessibility id, id (resource-id, with or without the "package:id/" prefix),
+// class name, flat UiSelector chains (className, text*, description*, resourceId, index,
+// instance and the boolean state methods), CompiledLocator (via its original), and this XPath subset:
+//   //tag, /tag, *, chained steps          //android.view.ViewGroup[@content-desc='test-Item']/android.widget.TextView
+//   [@attr='v'], [@attr!='v'], [@attr]     [text()='v']
+//   contains(@attr,'v'), starts-with(...)  and / or / not(...) / ( ... )
+//   [n], [last()]
+// Anything else (axes, functions beyond the above, child/scrollable UiSelectors...) compiles to null
+// and callers fall back to the driver.
+
+public final class SnapshotQuery {
+
+    private static final SnapshotQuery UNSUPPORTED = new SnapshotQuery(new Step[0]);
+    private static final Map<By, SnapshotQuery> compiled = new ConcurrentHashMap<>();
+    private static final Pattern UI_SELECTOR_CALL =
+            Pattern.compile("\\.\\s*(\\w+)\\(\\s*(\"((?:[^\"\\\\]|\\\\.)*)\"|-?\\d+|true|false)\\s*\\)");
+    private static final Set<String> UI_SELECTOR_FLAGS = Set.of(
+            "checkable", "checked", "clickable", "enabled", "focusable", "focused", "scrollable", "selected");
+
+    private final Step[] steps;
+    private final int instance;
+
+    private SnapshotQuery(Step[] steps) {
+        this(steps, -1);
+    }
+
+    private SnapshotQuery(Step[] steps, int instance) {
+        this.steps = steps;
+        this.instance = instance;
+    }
+
+
+    // Compiled query for the locator (cached), or null when it is outside the supported subset
+
+    public static SnapshotQuery compile(By locator) {
+        SnapshotQuery query = compiled.get(locator);
+        if (query == null) {
+            query = compiled.computeIfAbsent(locator, SnapshotQuery::doCompile);
+        }
+        return query == UNSUPPORTED ? null : query;
+    }
+
+
+    // Matching node indexes in document order
+
+    public int[] evaluate(PageSnapshot snapshot) {
+        return evaluate(snapshot, 0);
+    }
+
+
+    // Matching nodes inside the subtree of the given node (which itself is never matched)
+
+    int[] evaluate(PageSnapshot snapshot, int root) {
+        int[] context = {root};
+        for (Step step : steps) {
+            IntList result = new IntList();
+            for (int node : context) {
+                if (step.descendant) {
+                    int end = snapshot.subtreeEnd(node);
+                    for (int candidate = node; candidate <= end; candidate++) {
+                        step.selectChildren(snapshot, candidate, result);
+                    }
+                } else {
+                    step.selectChildren(snapshot, node, result);
+                }
+            }
+            context = result.sortedDistinct();
+            if (context.length == 0) {
+                break;
+            }
+        }
+        if (instance >= 0) {
+            return instance < context.length ? new int[]{context[instance]} : new int[0];
+        }
+        return context;
+    }
+
+
+    private static SnapshotQuery doCompile(By locator) {
+        if (locator instanceof CompiledLocator compiledLocator) {
+            return doCompile(compiledLocator.getOriginal());
+        }
+        if (!(locator instanceof By.Remotable remotable)) {
+            return UNSUPPORTED;
+        }
+        String using = remotable.getRemoteParameters().using();
+        Object value = remotable.getRemoteParameters().value();
+        if (!(value instanceof String selector)) {
+            return UNSUPPORTED;
+        }
+        try {
+            switch (using) {
+                case "accessibility id":
+                    return single(attributeEquals("content-desc", selector));
+                case "id":
+                    return single(resourceId(selector));
+                case "class name":
+                    return new SnapshotQuery(new Step[]{new Step(true, selector, List.of())});
+                case "xpath":
+                    return new SnapshotQuery(new XPathParser(selector).parse());
+                case "-android uiautomator":
+                    return uiSelector(selector);
+                default:
+                    return UNSUPPORTED;
+            }
+        } catch (IllegalArgumentException e) {
+            return UNSUPPORTED;
+        }
+    }
+
+    private static SnapshotQuery single(Predicate predicate) {
+        return new SnapshotQuery(new Step[]{new Step(true, null, List.of(predicate))});
+    }
+
+
+    // new UiSelector().className("x").text("y")...: every call narrows the same node set
+
+    private static SnapshotQuery uiSelector(String selector) {
+        String chain = selector.trim();
+        if (chain.endsWith(";")) {
+            chain = chain.substring(0, chain.length() - 1).trim();
+        }
+        if (!chain.startsWith("new UiSelector()")) {
+            return UNSUPPORTED;
+        }
+        String calls = chain.substring("new UiSelector()".length());
+        Matcher matcher = UI_SELECTOR_CALL.matcher(calls);
+        String tag = null;
+        int instance = -1;
+        List<Predicate> predicates = new ArrayList<>();
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            end = matcher.end();
+            String method = matcher.group(1);
+            String text = matcher.group(3) != null ? matcher.group(3).replaceAll("\\\\(.)", "$1") : null;
+            String raw = matcher.group(2);
+            switch (method) {
+                case "className" -> tag = requireText(text);
+                case "text" -> predicates.add(attributeEquals("text", requireText(text)));
+                case "textContains" -> predicates.add(attributeContains("text", requireText(text)));
+                case "textStartsWith" -> predicates.add(attributeStartsWith("text", requireText(text)));
+                case "description" -> predicates.add(attributeEquals("content-desc", requireText(text)));
+                case "descriptionContains" -> predicates.add(attributeContains("content-desc", requireText(text)));
+                case "descriptionStartsWith" -> predicates.add(attributeStartsWith("content-desc", requireText(text)));
+                case "resourceId" -> predicates.add(attributeEquals("resource-id", requireText(text)));
+                case "index" -> predicates.add(attributeEquals("index", raw));
+                case "instance" -> instance = Integer.parseInt(raw);
+                default -> {
+                    if (!UI_SELECTOR_FLAGS.contains(method) || text != null) {
+                        return UNSUPPORTED;
+                    }
+                    predicates.add(attributeEquals(method, raw));
+                }
+            }
+        }
+        if (end != calls.length()) {
+            return UNSUPPORTED;
+        }
+        return new SnapshotQuery(new Step[]{new Step(true, tag, List.copyOf(predicates))}, instance);
+    }
+
+    private static String requireText(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Expected a string argument");
+        }
+        return text;
+    }
+
+    private static Predicate attributeContains(String name, String part) {
+        return (snapshot, node) -> {
+            String value = snapshot.attribute(node, name);
+            return value != null && value.contains(part);
+        };
+    }
+
+    private static Predicate attributeStartsWith(String name, String prefix) {
+        return (snapshot, node) -> {
+            String value = snapshot.attribute(node, name);
+            return value != null && value.startsWith(prefix);
+        };
+    }
+
+    private static Predicate attributeEquals(String name, String expected) {
+        return (snapshot, node) -> expected.equals(snapshot.attribute(node, name));
+    }
+
+    private static Predicate resourceId(String selector) {
+        if (selector.contains(":id/")) {
+            return attributeEquals("resource-id", selector);
+        }
+        String suffix = ":id/" + selector;
+        return (snapshot, node) -> {
+            String id = snapshot.attribute(node, "resource-id");
+            return id != null && (id.equals(selector) || id.endsWith(suffix));
+        };
+    }
+
+
+    // Node filter inside [...]
+
+    @FunctionalInterface
+    interface Predicate {
+        boolean test(PageSnapshot snapshot, int node);
+    }
+
+
+    // Positional filter inside [...]; LAST stands for last()
+
+    private record Position(int value) implements Predicate {
+
+        private static final int LAST = -1;
+
+        @Override
+        public boolean test(PageSnapshot snapshot, int node) {
+            throw new IllegalStateException("Positions are applied per node set");
+        }
+    }
+
+
+    // One location step: child (/) or descendant-or-self (//) axis, tag test, predicates in order
+
+    private static final class Step {
+
+        private final boolean descendant;
+        private final String tag;
+        private final List<Predicate> predicates;
+
+        private Step(boolean descendant, String tag, List<Predicate> predicates) {
+            this.descendant = descendant;
+            this.tag = tag;
+            this.predicates = predicates;
+        }
+
+        private void selectChildren(PageSnapshot snapshot, int parent, IntList out) {
+            int end = snapshot.subtreeEnd(parent);
+            IntList matches = new IntList();
+            for (int child = parent + 1; child <= end; child = snapshot.subtreeEnd(child) + 1) {
+                if (tag == null || tag.equals(snapshot.tag(child))) {
+                    matches.add(child);
+                }
+            }
+            for (Predicate predicate : predicates) {
+                if (matches.size == 0) {
+                    return;
+                }
+                if (predicate instanceof Position position) {
+                    int index = position.value() == Position.LAST ? matches.size : position.value();
+                    int keep = index >= 1 && index <= matches.size ? matches.values[index - 1] : -1;
+                    matches.size = 0;
+                    if (keep >= 0) {
+                        matches.add(keep);
+                    }
+                } else {
+                    matches.retain(snapshot, predicate);
+                }
+            }
+            out.addAll(matches);
+        }
+    }
+
+
+    // Recursive-descent parser for the supported XPath subset
+
+    private static final class XPathParser {
+
+        private final String xpath;
+        private int pos;
+
+        private XPathParser(String xpath) {
+            this.xpath = xpath.trim();
+        }
+
+        private Step[] parse() {
+            List<Step> steps = new ArrayList<>();
+            while (pos < xpath.length()) {
+                boolean descendant;
+                if (consume("//")) {
+                    descendant = true;
+                } else if (consume("/")) {
+                    descendant = false;
+                } else {
+                    throw unsupported();
+                }
+                String name = name();
+                String tag = name.equals("*") ? null : name;
+                List<Predicate> predicates = new ArrayList<>();
+                skipSpaces();
+                while (consume("[")) {
+                    predicates.add(predicate());
+                    expect("]");
+                    skipSpaces();
+                }
+                steps.add(new Step(descendant, tag, List.copyOf(predicates)));
+            }
+            if (steps.isEmpty()) {
+                throw unsupported();
+            }
+            return steps.toArray(new Step[0]);
+        }
+
+        private Predicate predicate() {
+            skipSpaces();
+            if (pos < xpath.length() && Character.isDigit(xpath.charAt(pos))) {
+                int start = pos;
+                while (pos < xpath.length() && Character.isDigit(xpath.charAt(pos))) {
+                    pos++;
+                }
+                skipSpaces();
+                return new Position(Integer.parseInt(xpath.substring(start, pos).trim()));
+            }
+            if (consume("last()")) {
+                skipSpaces();
+                return new Position(Position.LAST);
+            }
+            return or();
+        }
+
+        private Predicate or() {
+            Predicate left = and();
+            while (consumeWord("or")) {
+                Predicate a = left;
+                Predicate b = and();
+                left = (snapshot, node) -> a.test(snapshot, node) || b.test(snapshot, node);
+            }
+            return left;
+        }
+
+        private Predicate and() {
+            Predicate left = unary();
+            while (consumeWord("and")) {
+                Predicate a = left;
+                Predicate b = unary();
+                left = (snapshot, node) -> a.test(snapshot, node) && b.test(snapshot, node);
+            }
+            return left;
+        }
+
+        private Predicate unary() {
+            skipSpaces();
+            if (consume("not(")) {
+                Predicate inner = or();
+                expect(")");
+                return (snapshot, node) -> !inner.test(snapshot, node);
+            }
+            if (consume("(")) {
+                Predicate inner = or();
+                expect(")");
+                return inner;
+            }
+            boolean contains = consume("contains(");
+            if (contains || consume("starts-with(")) {
+                String attribute = operand();
+                expect(",");
+                String literal = literal();
+                expect(")");
+                return contains ? attributeContains(attribute, literal) : attributeStartsWith(attribute, literal);
+            }
+            String attribute = operand();
+            skipSpaces();
+            if (consume("!=")) {
+                String literal = literal();
+                return (snapshot, node) -> !literal.equals(snapshot.attribute(node, attribute));
+            }
+            if (consume("=")) {
+                return attributeEquals(attribute, literal());
+            }
+            return (snapshot, node) -> snapshot.attribute(node, attribute) != null;
+        }
+
+
+        // @name or text() (which reads the "text" attribute)
+
+        private String operand() {
+            skipSpaces();
+            if (consume("text()")) {
+                return "text";
+            }
+            if (consume("@")) {
+                return name();
+            }
+            throw unsupported();
+        }
+
+        private String literal() {
+            skipSpaces();
+            if (pos >= xpath.length()) {
+                throw unsupported();
+            }
+            char quote = xpath.charAt(pos);
+            if (quote != '\'' && quote != '"') {
+                throw unsupported();
+            }
+            int end = xpath.indexOf(quote, pos + 1);
+            if (end < 0) {
+                throw unsupported();
+            }
+            String literal = xpath.substring(pos + 1, end);
+            pos = end + 1;
+            skipSpaces();
+            return literal;
+        }
+
+        private String name() {
+            skipSpaces();
+            if (consume("*")) {
+                return "*";
+            }
+            int start = pos;
+            while (pos < xpath.length()) {
+                char c = xpath.charAt(pos);
+                if (!(Character.isLetterOrDigit(c) || c == '.' || c == '_' || c == '-')) {
+                    break;
+                }
+                pos++;
+            }
+            if (start == pos) {
+                throw unsupported();
+            }
+            return xpath.substring(start, pos);
+        }
+
+        private boolean consume(String token) {
+            if (xpath.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean consumeWord(String word) {
+            skipSpaces();
+            int end = pos + word.length();
+            if (xpath.startsWith(word, pos) && end < xpath.length() && Character.isWhitespace(xpath.charAt(end))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            skipSpaces();
+            if (!consume(token)) {
+                throw unsupported();
+            }
+            skipSpaces();
+        }
+
+        private void skipSpaces() {
+            while (pos < xpath.length() && Character.isWhitespace(xpath.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException unsupported() {
+            return new IllegalArgumentException("Unsupported XPath at " + pos + ": " + xpath);
+        }
+    }
+
+
+    // Minimal growable int array
+
+    private static final class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        private void retain(PageSnapshot snapshot, Predicate predicate) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (predicate.test(snapshot, values[i])) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+
+        private int[] sortedDistinct() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mobile.tests.tracing;
+
+// One timed step of a test: the test itself, a page-object method, a wait or a driver command.
+// Opened by Tracer.start() (or BasePage.traced()) and closed in a finally block. While it is
+// open, closed child spans add their time to it per category, which is how Tracer.summary() splits
+// a page method into waiting, driver commands and the rest.
+//
+// NOOP is what every start() returns while tracing is off: closing it does nothing.
+
+public class Span implements AutoCloseable {
+
+    public static final Span NOOP = new Span(null, null, null, 0) {
+        @Override
+        public void close() {
+        }
+    };
+
+    final String name;
+    final String category;
+    final Object detail;
+    final long startNanos;
+    long waitNanos;
+    long commandNanos;
+
+    Span(String name, String category, Object detail, long startNanos) {
+        this.name = name;
+        this.category = category;
+        this.detail = detail;
+        this.startNanos = startNanos;
+    }
+
+    @Override
+    public void close() {
+        Tracer.end(this);
+    }
+}
@@ -0,0 +1,276 @@
+package com.mobile.tests.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mobile.tests.core.CommandListener;
+import com.mobile.tests.core.ObservableCommandExecutor;
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hierarchical timing of a run (tracing=true): a span per test, per public page-object method, per
+// wait and per driver command, nested on a per-thread stack. Closed spans are kept in memory and
+// written at suite end as a Chrome trace (traceFile, default target/trace.json), which chrome://tracing,
+// Perfetto and speedscope open as a flame chart per worker thread.
+//
+// With tracing=false start() hands back Span.NOOP and no command listener is registered, so the
+// hooks left in BasePage, the page objects and WaitEngine cost one branch each.
+
+@Slf4j
+public final class Tracer {
+
+    public static final String TEST = "test";
+    public static final String PAGE = "page";
+    public static final String WAIT = "wait";
+    public static final String COMMAND = "command";
+
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("tracing", "false"));
+    private static final String traceFile = ConfigReader.getProperty("traceFile", "target/trace.json");
+    private static final int maxEvents = Integer.parseInt(ConfigReader.getProperty("traceMaxEvents", "200000"));
+
+    private static final long epochNanos = System.nanoTime();
+    private static final ThreadLocal<ArrayDeque<Span>> stacks = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger eventCount = new AtomicInteger();
+    private static final LongAdder dropped = new LongAdder();
+    private static final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+    private static final Map<String, Totals> pageTotals = new ConcurrentHashMap<>();
+    private static final CommandSpans commandSpans = new CommandSpans();
+
+    private Tracer() {
+        // Prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+
+    // Put a span around every command of drivers built on ObservableCommandExecutor (no-op when disabled)
+
+    public static void install() {
+        if (enabled) {
+            ObservableCommandExecutor.addListener(commandSpans);
+        }
+    }
+
+    public static Span start(String name, String category) {
+        return start(name, category, null);
+    }
+
+
+    // detail (a locator, a script name) is only turned into text when the trace is written
+
+    public static Span start(String name, String category, Object detail) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        Span span = new Span(name, category, detail, System.nanoTime());
+        stacks.get().push(span);
+        return span;
+    }
+
+
+    // Close the span, and any child left open above it (a test that failed half-way through a step)
+
+    static void end(Span span) {
+        long endNanos = System.nanoTime();
+        ArrayDeque<Span> stack = stacks.get();
+        if (!stack.contains(span)) {
+            return;
+        }
+        Span closed;
+        do {
+            closed = stack.pop();
+            record(closed, endNanos, stack.peek());
+        } while (closed != span);
+    }
+
+
+    // Close everything still open on this thread, e.g. the test span from BaseTest's tearDown
+
+    public static void endAll() {
+        if (!enabled) {
+            return;
+        }
+        long endNanos = System.nanoTime();
+        ArrayDeque<Span> stack = stacks.get();
+        while (!stack.isEmpty()) {
+            Span closed = stack.pop();
+            record(closed, endNanos, stack.peek());
+        }
+    }
+
+    private static void record(Span span, long endNanos, Span parent) {
+        long nanos = endNanos - span.startNanos;
+        if (parent != null) {
+            if (WAIT.equals(span.category)) {
+                parent.waitNanos += nanos;
+            } else if (COMMAND.equals(span.category)) {
+                parent.commandNanos += nanos;
+            } else {
+                parent.waitNanos += span.waitNanos;
+                parent.commandNanos += span.commandNanos;
+            }
+        }
+        if (PAGE.equals(span.category)) {
+            pageTotals.computeIfAbsent(span.name, key -> new Totals()).add(nanos, span.waitNanos, span.commandNanos);
+        }
+        if (eventCount.incrementAndGet() > maxEvents) {
+            dropped.increment();
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        threadNames.computeIfAbsent(thread.getId(), id -> thread.getName());
+        events.add(new Event(span.name, span.category, span.detail, thread.getId(), span.startNanos - epochNanos, nanos));
+    }
+
+
+    // Write the Chrome trace and return the summary for the suite log
+
+    public static String write() {
+        if (!enabled) {
+            return "Tracing: off (tracing=true to write " + traceFile + ")";
+        }
+        Path file = Paths.get(traceFile);
+        long pid = ProcessHandle.current().pid();
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(file);
+                 JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                json.writeStartObject();
+                json.writeStringField("displayTimeUnit", "ms");
+                json.writeArrayFieldStart("traceEvents");
+                for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                    json.writeStartObject();
+                    json.writeStringField("name", "thread_name");
+                    json.writeStringField("ph", "M");
+                    json.writeNumberField("pid", pid);
+                    json.writeNumberField("tid", thread.getKey());
+                    json.writeObjectFieldStart("args");
+                    json.writeStringField("name", thread.getValue());
+                    json.writeEndObject();
+                    json.writeEndObject();
+                }
+                for (Event event : events) {
+                    json.writeStartObject();
+                    json.writeStringField("name", event.name());
+                    json.writeStringField("cat", event.category());
+                    json.writeStringField("ph", "X");
+                    json.writeNumberField("ts", event.startNanos() / 1000.0);
+                    json.writeNumberField("dur", event.nanos() / 1000.0);
+                    json.writeNumberField("pid", pid);
+                    json.writeNumberField("tid", event.threadId());
+                    if (event.detail() != null) {
+                        json.writeObjectFieldStart("args");
+                        json.writeStringField("detail", String.valueOf(event.detail()));
+                        json.writeEndObject();
+                    }
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write trace {}: {}", file, e.getMessage());
+        }
+        log.info("Trace with {} spans written to {}{}", events.size(), file.toAbsolutePath(),
+                dropped.sum() > 0 ? " (" + dropped.sum() + " dropped past traceMaxEvents)" : "");
+        return summary();
+    }
+
+
+    // One line per page-object method, slowest total first: calls, average ms and how much of it
+    // went to waits and to driver commands outside waits
+
+    public static String summary() {
+        StringBuilder summary = new StringBuilder("Page methods (method | calls | avg ms | wait ms | command ms | own ms)");
+        if (pageTotals.isEmpty()) {
+            return summary.append(System.lineSeparator()).append("none").toString();
+        }
+        pageTotals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Totals> e) -> e.getValue().nanos.sum()).reversed())
+                .forEach(e -> {
+                    Totals totals = e.getValue();
+                    long calls = totals.calls.sum();
+                    long avg = totals.nanos.sum() / calls;
+                    long waits = totals.waitNanos.sum() / calls;
+                    long commands = totals.commandNanos.sum() / calls;
+                    summary.append(System.lineSeparator()).append(e.getKey())
+                            .append(" | ").append(calls)
+                            .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(avg))
+                            .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(waits))
+                            .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(commands))
+                            .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(Math.max(0, avg - waits - commands)));
+                });
+        return summary.toString();
+    }
+
+    public static void reset() {
+        events.clear();
+        eventCount.set(0);
+        dropped.reset();
+        pageTotals.clear();
+    }
+
+    private record Event(String name, String category, Object detail, long threadId, long startNanos, long nanos) {
+    }
+
+    private static final class Totals {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder commandNanos = new LongAdder();
+
+        private void add(long spanNanos, long spanWaitNanos, long spanCommandNanos) {
+            calls.increment();
+            nanos.add(spanNanos);
+            waitNanos.add(spanWaitNanos);
+            commandNanos.add(spanCommandNanos);
+        }
+    }
+
+
+    // A span per driver command, named after the command; find commands carry the locator value and
+    // execute commands the script (e.g. "mobile: replaceElementValue") as detail
+
+    private static final class CommandSpans implements CommandListener {
+
+        @Override
+        public void beforeCommand(Command command) {
+            Object detail = command.getParameters().get("value");
+            if (detail == null) {
+                Object script = command.getParameters().get("script");
+                detail = script instanceof String text && text.startsWith("mobile:") ? text : null;
+            }
+            start(command.getName(), COMMAND, detail instanceof String ? detail : null);
+        }
+
+        @Override
+        public void afterCommand(Command command, Response response, Throwable failure, long durationNanos) {
+            Span top = stacks.get().peek();
+            if (top != null && COMMAND.equals(top.category)) {
+                end(top);
+            }
+        }
+    }
+}
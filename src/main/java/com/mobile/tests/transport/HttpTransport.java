@@ -0,0 +1,74 @@
+package com.mobile.tests.transport;
+
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.time.Duration;
+
+// httpTransport=default | jdk, read once per run:
+//   default  Selenium's own client, one per driver
+//   jdk      (opt-in) every driver talks HTTP through one shared JdkHttpTransport (keep-alive pool, per-server
+//            connection cap, timeouts per request type: transportReadTimeout.<type> / transportConnectTimeout.<type>)
+// DriverRecording puts its recorder in front of whichever is chosen.
+
+@Slf4j
+public final class HttpTransport {
+
+    public enum Kind { DEFAULT, JDK }
+
+    private static final Kind kind = Kind.valueOf(ConfigReader.getProperty("httpTransport", "default").toUpperCase());
+
+    private static JdkHttpTransport jdk;
+
+    private HttpTransport() {
+        // Prevent instantiation
+    }
+
+    public static Kind getKind() {
+        return kind;
+    }
+
+
+    // Client factory for new drivers
+
+    public static synchronized HttpClient.Factory factory() {
+        if (kind == Kind.DEFAULT) {
+            return HttpClient.Factory.createDefault();
+        }
+        if (jdk == null) {
+            // Read once by the JDK's connection pool; a -D on the command line wins
+            if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+                System.setProperty("jdk.httpclient.keepalive.timeout", ConfigReader.getProperty("transportKeepAliveSeconds", "300"));
+            }
+            jdk = new JdkHttpTransport(
+                    Integer.parseInt(ConfigReader.getProperty("transportMaxConnectionsPerServer", "8")),
+                    type -> timeout("transportReadTimeout", type),
+                    type -> timeout("transportConnectTimeout", type),
+                    Boolean.parseBoolean(ConfigReader.getProperty("transportVirtualThreads", "false")));
+            log.info("HTTP transport: shared JDK client on {} threads", jdk.usesVirtualThreads() ? "virtual" : "platform");
+        }
+        return jdk;
+    }
+
+
+    // Log the transport report and release its threads (call once at suite end)
+
+    public static synchronized void close() {
+        if (jdk != null) {
+            if (jdk.getRequestCount() > 0) {
+                log.info("{}", jdk.report());
+            }
+            jdk.close();
+            jdk = null;
+        }
+    }
+
+
+    // <key>.<type> in seconds, else <key>, else null (the driver's ClientConfig value)
+
+    private static Duration timeout(String key, JdkHttpTransport.RequestType type) {
+        String seconds = ConfigReader.getProperty(key + "." + type.key(), ConfigReader.getProperty(key, ""));
+        return seconds.isBlank() ? null : Duration.ofSeconds(Long.parseLong(seconds.trim()));
+    }
+}
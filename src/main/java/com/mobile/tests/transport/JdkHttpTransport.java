@@ -0,0 +1,340 @@
+package com.mobile.tests.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Selenium HttpClient.Factory on top of one shared java.net.http.HttpClient, so every driver of the
+// run shares one keep-alive connection pool instead of each executor building its own client.
+//  - At most maxPerServer requests are in flight per Appium server (host:port). Sends to a server
+//    at that limit wait for a permit. HTTP/1.1 opens one connection per concurrent request, so
+//    this also caps the server's connection count.
+//  - Read and connect timeouts are chosen per request type (new session, find, source, ...).
+//    Types that share a connect timeout share one JDK client and its pool.
+//  - The JDK client's executor runs on virtual threads when the JVM has them (Java 21+,
+//    looked up reflectively), otherwise on a cached pool of daemon threads.
+// Web sockets (BiDi / CDP) are not used by the suite and go to Selenium's default client.
+
+@Slf4j
+public final class JdkHttpTransport implements org.openqa.selenium.remote.http.HttpClient.Factory, Closeable {
+
+    // Headers the JDK client sets itself and refuses to take from the caller
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    // What a request does, judged from its method and path; each type has its own timeouts
+    public enum RequestType {
+        NEW_SESSION, QUIT, FIND, ELEMENT, SOURCE, SCREENSHOT, EXECUTE, ACTIONS, OTHER;
+
+        static RequestType of(HttpMethod method, String path) {
+            // /session, /session/{id}, /session/{id}/{command}[/...]
+            String[] parts = path.replaceAll("^/+|/+$", "").split("/");
+            int session = List.of(parts).indexOf("session");
+            if (session < 0) {
+                return OTHER;
+            }
+            int remaining = parts.length - session;
+            if (remaining == 1) {
+                return method == HttpMethod.POST ? NEW_SESSION : OTHER;
+            }
+            if (remaining == 2) {
+                return method == HttpMethod.DELETE ? QUIT : OTHER;
+            }
+            String command = parts[session + 2];
+            String last = parts[parts.length - 1];
+            return switch (command) {
+                case "element", "elements" -> "element".equals(last) || "elements".equals(last) ? FIND : ELEMENT;
+                case "source" -> SOURCE;
+                case "screenshot" -> SCREENSHOT;
+                case "execute" -> EXECUTE;
+                case "actions" -> ACTIONS;
+                default -> OTHER;
+            };
+        }
+
+        String key() {
+            // NEW_SESSION -> newSession
+            String[] words = name().toLowerCase().split("_");
+            StringBuilder key = new StringBuilder(words[0]);
+            for (int i = 1; i < words.length; i++) {
+                key.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+            }
+            return key.toString();
+        }
+    }
+
+    private final int maxPerServer;
+    private final Map<RequestType, Duration> readTimeouts;
+    private final Map<RequestType, Duration> connectTimeouts;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Map<Duration, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, Server> servers = new ConcurrentHashMap<>();
+    private final Map<RequestType, Totals> totals = new EnumMap<>(RequestType.class);
+    private volatile org.openqa.selenium.remote.http.HttpClient.Factory socketFactory;
+
+    // readTimeout / connectTimeout give the timeout per request type; null keeps the ClientConfig's own
+    public JdkHttpTransport(int maxPerServer, Function<RequestType, Duration> readTimeout,
+                            Function<RequestType, Duration> connectTimeout, boolean useVirtualThreads) {
+        this.maxPerServer = maxPerServer;
+        this.readTimeouts = new EnumMap<>(RequestType.class);
+        this.connectTimeouts = new EnumMap<>(RequestType.class);
+        for (RequestType type : RequestType.values()) {
+            putIfSet(readTimeouts, type, readTimeout.apply(type));
+            putIfSet(connectTimeouts, type, connectTimeout.apply(type));
+            totals.put(type, new Totals());
+        }
+        ExecutorService virtual = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(new DaemonThreads());
+    }
+
+    @Override
+    public org.openqa.selenium.remote.http.HttpClient createClient(ClientConfig config) {
+        return new Client(config);
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getRequestCount() {
+        return totals.values().stream().mapToLong(t -> t.requests.sum()).sum();
+    }
+
+
+    // Requests, mean time on the wire, permit waits and failures per request type, plus the
+    // peak number of requests in flight per server (the most connections the pool needed)
+
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format(
+                "HTTP transport (jdk, %s threads, max %d per server, %d clients)",
+                virtualThreads ? "virtual" : "platform", maxPerServer, clients.size()));
+        report.append(System.lineSeparator()).append("type | requests | avg ms | avg permit wait ms | timeouts | failures");
+        totals.entrySet().stream()
+                .filter(e -> e.getValue().requests.sum() > 0)
+                .sorted(Comparator.comparingLong(e -> -e.getValue().nanos.sum()))
+                .forEach(e -> {
+                    Totals t = e.getValue();
+                    long requests = t.requests.sum();
+                    report.append(System.lineSeparator()).append(e.getKey().key())
+                            .append(" | ").append(requests)
+                            .append(" | ").append(String.format("%.2f", t.nanos.sum() / 1e6 / requests))
+                            .append(" | ").append(String.format("%.2f", t.permitNanos.sum() / 1e6 / requests))
+                            .append(" | ").append(t.timeouts.sum())
+                            .append(" | ").append(t.failures.sum());
+                });
+        servers.forEach((authority, server) -> report.append(System.lineSeparator())
+                .append(authority).append(": peak ").append(server.peak.get()).append(" in flight"));
+        return report.toString();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        clients.clear();
+    }
+
+
+    private HttpResponse send(ClientConfig config, HttpRequest request) {
+        RequestType type = RequestType.of(request.getMethod(), request.getUri());
+        Duration readTimeout = readTimeouts.getOrDefault(type, config.readTimeout());
+        Duration connectTimeout = connectTimeouts.getOrDefault(type, config.connectionTimeout());
+        URI uri = resolve(config.baseUri(), request);
+        Server server = servers.computeIfAbsent(uri.getAuthority(), authority -> new Server(maxPerServer));
+        Totals typeTotals = totals.get(type);
+
+        long start = System.nanoTime();
+        try {
+            if (!server.permits.tryAcquire(readTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                typeTotals.timeouts.increment();
+                throw new TimeoutException("No connection to " + uri.getAuthority() + " free within " + readTimeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for a connection to " + uri.getAuthority(), e);
+        }
+        long acquired = System.nanoTime();
+        server.peak.accumulateAndGet(maxPerServer - server.permits.availablePermits(), Math::max);
+        try {
+            java.net.http.HttpResponse<byte[]> response = client(connectTimeout)
+                    .send(toJdk(uri, request, readTimeout), java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+            return fromJdk(response, uri);
+        } catch (HttpTimeoutException e) {
+            typeTotals.timeouts.increment();
+            throw new TimeoutException(e.getMessage() + ": " + request.getMethod() + " " + uri, e);
+        } catch (IOException e) {
+            typeTotals.failures.increment();
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            typeTotals.failures.increment();
+            throw new UncheckedIOException(new IOException("Interrupted: " + request.getMethod() + " " + uri, e));
+        } finally {
+            server.permits.release();
+            long end = System.nanoTime();
+            typeTotals.requests.increment();
+            typeTotals.permitNanos.add(acquired - start);
+            typeTotals.nanos.add(end - acquired);
+        }
+    }
+
+    private HttpClient client(Duration connectTimeout) {
+        return clients.computeIfAbsent(connectTimeout, timeout -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build());
+    }
+
+    private static URI resolve(URI base, HttpRequest request) {
+        String prefix = base.toString().replaceAll("/+$", "");
+        StringBuilder uri = new StringBuilder(prefix).append(request.getUri());
+        char separator = request.getUri().contains("?") ? '&' : '?';
+        for (String name : request.getQueryParameterNames()) {
+            for (String value : request.getQueryParameters(name)) {
+                uri.append(separator).append(URLEncoder.encode(name, StandardCharsets.UTF_8))
+                        .append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return URI.create(uri.toString());
+    }
+
+    private static java.net.http.HttpRequest toJdk(URI uri, HttpRequest request, Duration readTimeout) {
+        java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(uri).timeout(readTimeout);
+        for (String name : request.getHeaderNames()) {
+            if (RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                continue;
+            }
+            for (String value : request.getHeaders(name)) {
+                builder.header(name, value);
+            }
+        }
+        HttpMethod method = request.getMethod();
+        java.net.http.HttpRequest.BodyPublisher body = method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH
+                ? java.net.http.HttpRequest.BodyPublishers.ofByteArray(Contents.bytes(request.getContent()))
+                : java.net.http.HttpRequest.BodyPublishers.noBody();
+        return builder.method(method.name(), body).build();
+    }
+
+    private static HttpResponse fromJdk(java.net.http.HttpResponse<byte[]> jdkResponse, URI uri) {
+        HttpResponse response = new HttpResponse();
+        response.setStatus(jdkResponse.statusCode());
+        HttpHeaders headers = jdkResponse.headers();
+        headers.map().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContent(Contents.bytes(jdkResponse.body()));
+        response.setTargetHost(uri.getScheme() + "://" + uri.getAuthority());
+        return response;
+    }
+
+    private static void putIfSet(Map<RequestType, Duration> timeouts, RequestType type, Duration timeout) {
+        if (timeout != null) {
+            timeouts.put(type, timeout);
+        }
+    }
+
+
+    // Executors.newVirtualThreadPerTaskExecutor() on Java 21+, null before that
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("transportVirtualThreads=true needs Java 21+, running on Java {}: using platform threads",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+
+
+    // One driver's client: the config's filters (user agent etc.) in front of the shared transport
+
+    private final class Client implements org.openqa.selenium.remote.http.HttpClient {
+
+        private final ClientConfig config;
+        private final org.openqa.selenium.remote.http.HttpHandler handler;
+
+        private Client(ClientConfig config) {
+            this.config = config;
+            this.handler = config.filter().andFinally(request -> send(config, request));
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return handler.execute(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            org.openqa.selenium.remote.http.HttpClient.Factory factory = socketFactory;
+            if (factory == null) {
+                factory = org.openqa.selenium.remote.http.HttpClient.Factory.createDefault();
+                socketFactory = factory;
+            }
+            return factory.createClient(config).openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            // The transport outlives its clients; connections stay pooled for the next session
+        }
+    }
+
+    private static final class Server {
+        private final Semaphore permits;
+        private final AtomicInteger peak = new AtomicInteger();
+
+        private Server(int maxInFlight) {
+            this.permits = new Semaphore(maxInFlight, true);
+        }
+    }
+
+    private static final class Totals {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder permitNanos = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    private static final class DaemonThreads implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "http-transport-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
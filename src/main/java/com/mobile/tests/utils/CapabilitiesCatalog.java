@@ -0,0 +1,101 @@
+package com.mobile.tests.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// capabilities.json plus the named profiles and per-device overrides from
+// capability-profiles.json, parsed once. Snapshots for each (profile, device)
+// pair are built on first use and cached, so later lookups never touch the disk.
+
+public final class CapabilitiesCatalog {
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    private final CapabilitiesSnapshot base;
+    private final Map<String, Map<String, Object>> profiles;
+    private final Map<String, Map<String, Object>> deviceOverrides;
+    private final Map<String, CapabilitiesSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private CapabilitiesCatalog(Map<String, Object> baseCapabilities,
+                                Map<String, Map<String, Object>> profiles,
+                                Map<String, Map<String, Object>> deviceOverrides) {
+        this.base = new CapabilitiesSnapshot(DEFAULT_PROFILE, baseCapabilities);
+        this.profiles = profiles;
+        this.deviceOverrides = deviceOverrides;
+    }
+
+
+    // Parse capabilities.json and (if present) the profiles file
+
+    public static CapabilitiesCatalog load(File capabilitiesFile, File profilesFile) {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Object> baseCapabilities;
+        try {
+            baseCapabilities = mapper.readValue(capabilitiesFile, new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            throw new RuntimeException(" Failed to load capabilities.json from path: " + capabilitiesFile, e);
+        }
+
+        Map<String, Map<String, Object>> profiles = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> devices = new LinkedHashMap<>();
+        if (profilesFile != null && profilesFile.exists()) {
+            try {
+                ProfilesFile parsed = mapper.readValue(profilesFile, ProfilesFile.class);
+                if (parsed.profiles != null) {
+                    profiles.putAll(parsed.profiles);
+                }
+                if (parsed.devices != null) {
+                    devices.putAll(parsed.devices);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(" Failed to load capability profiles from path: " + profilesFile, e);
+            }
+        }
+        return new CapabilitiesCatalog(baseCapabilities,
+                Collections.unmodifiableMap(profiles), Collections.unmodifiableMap(devices));
+    }
+
+
+    // Snapshot for a profile, with the overrides for the given device udid (may be null) applied
+
+    public CapabilitiesSnapshot snapshot(String profile, String udid) {
+        String key = udid == null ? profile : profile + "@" + udid;
+        CapabilitiesSnapshot cached = snapshots.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return snapshots.computeIfAbsent(key, k -> build(profile, udid, k));
+    }
+
+    public Set<String> getProfileNames() {
+        return profiles.keySet();
+    }
+
+    private CapabilitiesSnapshot build(String profile, String udid, String name) {
+        if (!DEFAULT_PROFILE.equals(profile) && !profiles.containsKey(profile)) {
+            throw new IllegalArgumentException(" Unknown capabilities profile '" + profile
+                    + "'. Available: " + profiles.keySet());
+        }
+        CapabilitiesSnapshot snapshot = base.withOverrides(name, profiles.get(profile));
+        if (udid != null) {
+            snapshot = snapshot.withOverrides(name, deviceOverrides.get(udid));
+        }
+        return snapshot;
+    }
+
+
+    // Shape of capability-profiles.json
+
+    private static final class ProfilesFile {
+        public Map<String, Map<String, Object>> profiles;
+        public Map<String, Map<String, Object>> devices;
+    }
+}
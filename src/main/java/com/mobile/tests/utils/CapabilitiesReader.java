@@ -1,48 +1,81 @@
 package com.mobile.tests.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
-import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 
+// Entry point for capabilities. capabilities.json and capability-profiles.json are parsed
+// once per JVM; each thread may pick its own profile without going back to the filesystem.
+
+@Slf4j
 public class CapabilitiesReader {
 
     private static final String CAPABILITIES_PATH = "config/capabilities.json";
+    private static final String PROFILES_PATH = "config/capability-profiles.json";
+
+    private static final ThreadLocal<String> threadProfile = new ThreadLocal<>();
+    private static volatile CapabilitiesCatalog catalog;
 
     private CapabilitiesReader() {
         // Prevent instantiation
     }
 
-    @SuppressWarnings("unchecked")
+
+    // Capabilities for the current thread's profile (read-only)
+
     public static Map<String, Object> getCapabilities() {
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            Map<String, Object> capabilitiesMap = mapper.readValue(new File(CAPABILITIES_PATH), Map.class);
+        return getSnapshot().asMap();
+    }
 
-            // Resolve the relative app path into an absolute path
-            if (capabilitiesMap.containsKey("appium:app")) {
-                String appPath = (String) capabilitiesMap.get("appium:app");
-                File appFile = new File(appPath);
 
-                if (!appFile.isAbsolute()) {
-                    appFile = new File(System.getProperty("user.dir"), appPath);
-                }
+    // Snapshot for the current thread's profile
 
-                if (!appFile.exists()) {
-                    throw new RuntimeException(" App file not found at: " + appFile.getAbsolutePath());
-                }
+    public static CapabilitiesSnapshot getSnapshot() {
+        return getSnapshot(null);
+    }
 
-                capabilitiesMap.put("appium:app", appFile.getAbsolutePath());
-            }
 
-            System.out.println(" Loaded capabilities: " + capabilitiesMap);
+    // Snapshot for the current thread's profile with the given device's overrides applied
+
+    public static CapabilitiesSnapshot getSnapshot(String udid) {
+        return getCatalog().snapshot(getProfile(), udid);
+    }
 
-            return new HashMap<>(capabilitiesMap);
 
-        } catch (IOException e) {
-            throw new RuntimeException(" Failed to load capabilities.json from path: " + CAPABILITIES_PATH, e);
+    // Select the profile (e.g. "smoke-fast", "full-reset") used by the current thread
+
+    public static void useProfile(String profile) {
+        if (profile == null) {
+            threadProfile.remove();
+        } else {
+            threadProfile.set(profile);
+        }
+    }
+
+
+    // Profile in effect for the current thread (capabilitiesProfile in config.properties by default)
+
+    public static String getProfile() {
+        String profile = threadProfile.get();
+        return profile != null
+                ? profile
+                : ConfigReader.getProperty("capabilitiesProfile", CapabilitiesCatalog.DEFAULT_PROFILE);
+    }
+
+    public static CapabilitiesCatalog getCatalog() {
+        CapabilitiesCatalog loaded = catalog;
+        if (loaded == null) {
+            synchronized (CapabilitiesReader.class) {
+                loaded = catalog;
+                if (loaded == null) {
+                    loaded = CapabilitiesCatalog.load(new File(CAPABILITIES_PATH), new File(PROFILES_PATH));
+                    log.info("Loaded capabilities | profiles: {}", loaded.getProfileNames());
+                    log.debug("Default capabilities: {}", loaded.snapshot(CapabilitiesCatalog.DEFAULT_PROFILE, null));
+                    catalog = loaded;
+                }
+            }
         }
+        return loaded;
     }
 }
@@ -0,0 +1,99 @@
+package com.mobile.tests.utils;
+
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable, fully resolved set of capabilities for one profile (and optionally one device).
+// Built once by CapabilitiesCatalog and shared by every thread; callers that need to modify
+// capabilities get their own DesiredCapabilities copy.
+
+public final class CapabilitiesSnapshot {
+
+    private static final String APP_CAPABILITY = "appium:app";
+
+    private final String name;
+    private final Map<String, Object> capabilities;
+    private final DesiredCapabilities desiredCapabilities;
+    private final File appFile;
+
+    CapabilitiesSnapshot(String name, Map<String, Object> capabilities) {
+        Map<String, Object> resolved = new LinkedHashMap<>(capabilities);
+
+        // Resolve the relative app path into an absolute path
+        File resolvedApp = null;
+        if (resolved.get(APP_CAPABILITY) != null) {
+            resolvedApp = new File(String.valueOf(resolved.get(APP_CAPABILITY)));
+            if (!resolvedApp.isAbsolute()) {
+                resolvedApp = new File(System.getProperty("user.dir"), resolvedApp.getPath());
+            }
+            resolved.put(APP_CAPABILITY, resolvedApp.getAbsolutePath());
+        }
+
+        this.name = name;
+        this.capabilities = Collections.unmodifiableMap(resolved);
+        this.appFile = resolvedApp;
+        this.desiredCapabilities = new DesiredCapabilities();
+        resolved.forEach(this.desiredCapabilities::setCapability);
+    }
+
+
+    // Profile (and device) this snapshot was built for, e.g. "smoke-fast@emulator-5556"
+
+    public String getName() {
+        return name;
+    }
+
+
+    // Read-only view of the resolved capabilities
+
+    public Map<String, Object> asMap() {
+        return capabilities;
+    }
+
+    public Object get(String key) {
+        return capabilities.get(key);
+    }
+
+
+    // Fresh copy of the prebuilt DesiredCapabilities (safe to modify)
+
+    public DesiredCapabilities toDesiredCapabilities() {
+        return new DesiredCapabilities(desiredCapabilities);
+    }
+
+
+    // Fail fast when the APK the session would install is missing
+
+    public void requireApp() {
+        if (appFile != null && !appFile.exists()) {
+            throw new RuntimeException(" App file not found at: " + appFile.getAbsolutePath());
+        }
+    }
+
+
+    // New snapshot with the given capabilities layered on top (null values remove a capability)
+
+    CapabilitiesSnapshot withOverrides(String overrideName, Map<String, Object> overrides) {
+        if (overrides == null || overrides.isEmpty()) {
+            return this;
+        }
+        Map<String, Object> merged = new LinkedHashMap<>(capabilities);
+        overrides.forEach((key, value) -> {
+            if (value == null) {
+                merged.remove(key);
+            } else {
+                merged.put(key, value);
+            }
+        });
+        return new CapabilitiesSnapshot(overrideName, merged);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + capabilities;
+    }
+}
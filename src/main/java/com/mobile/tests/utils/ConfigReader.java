@@ -4,6 +4,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
+import java.util.Set;
 
 public class ConfigReader {
 
@@ -26,10 +27,10 @@ public class ConfigReader {
     }
 
 
-     // Get property value by key.
+     // Get property value by key (a -Dkey=value system property overrides the file).
 
     public static String getProperty(String key) {
-        String value = properties.getProperty(key);
+        String value = System.getProperty(key, properties.getProperty(key));
         if (value == null || value.isEmpty()) {
             throw new RuntimeException(" Property '" + key + "' not found in config.properties");
         }
@@ -40,7 +41,14 @@ public class ConfigReader {
     // Get property with a default value.
 
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue).trim();
+        return System.getProperty(key, properties.getProperty(key, defaultValue)).trim();
+    }
+
+
+    // Every key defined in config.properties (not the -D overrides)
+
+    public static Set<String> keys() {
+        return Set.copyOf(properties.stringPropertyNames());
     }
 
 
@@ -0,0 +1,382 @@
+package com.mobile.tests.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Row-by-row reader for large data-driven runs. Reads a JSON array, JSON Lines (.jsonl/.ndjson)
+// or CSV file from the classpath lazily, so memory stays flat however many rows the file has, as
+// long as rows are consumed one at a time: a sequential @DataProvider does, a parallel=true one
+// does not (TestNG reads its iterator to the end before running the first row).
+// Rows can be filtered, sampled deterministically (same seed -> same rows) and partitioned
+// round-robin across workers. Each row is a Map<String, String>, like TestDataUtils.getListOfMaps.
+//
+//   Iterator<Object[]> rows = StreamingTestData.from("testdata/loginVariants.jsonl")
+//           .sample(0.05, 42)
+//           .rows(row -> new Object[]{row});
+
+public final class StreamingTestData {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String filePath;
+    private String arrayField;
+    private Predicate<Map<String, String>> filter = row -> true;
+    private double sampleRate = 1.0;
+    private long sampleSeed;
+    private int partitionIndex;
+    private int partitionCount = 1;
+    private long limit = Long.MAX_VALUE;
+
+    private StreamingTestData(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public static StreamingTestData from(String filePath) {
+        return new StreamingTestData(filePath);
+    }
+
+
+    // For .json files whose root is an object: stream the array under this top-level field
+
+    public StreamingTestData arrayField(String field) {
+        this.arrayField = field;
+        return this;
+    }
+
+    public StreamingTestData filter(Predicate<Map<String, String>> predicate) {
+        this.filter = this.filter.and(predicate);
+        return this;
+    }
+
+
+    // Keep roughly rate * rows, chosen by hashing (seed, row number) so the pick is stable across runs
+
+    public StreamingTestData sample(double rate, long seed) {
+        if (rate <= 0 || rate > 1) {
+            throw new IllegalArgumentException(" Sample rate must be in (0, 1], was: " + rate);
+        }
+        this.sampleRate = rate;
+        this.sampleSeed = seed;
+        return this;
+    }
+
+
+    // Only emit every count-th selected row, starting at index (spreads rows evenly over workers)
+
+    public StreamingTestData partition(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(" Invalid partition " + index + "/" + count);
+        }
+        this.partitionIndex = index;
+        this.partitionCount = count;
+        return this;
+    }
+
+    public StreamingTestData limit(long maxRows) {
+        this.limit = maxRows;
+        return this;
+    }
+
+
+    // Lazy iterator of raw rows; the file is closed once the last row has been read
+
+    public Iterator<Map<String, String>> iterator() {
+        return new SelectingIterator(openSource());
+    }
+
+
+    // Lazy iterator shaped for a TestNG @DataProvider
+
+    public Iterator<Object[]> rows(Function<Map<String, String>, Object[]> toParameters) {
+        Iterator<Map<String, String>> source = iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return toParameters.apply(source.next());
+            }
+        };
+    }
+
+
+    private RowSource openSource() {
+        InputStream inputStream = StreamingTestData.class.getClassLoader().getResourceAsStream(filePath);
+        if (inputStream == null) {
+            throw new RuntimeException(" Test data file not found: " + filePath);
+        }
+        try {
+            String lower = filePath.toLowerCase();
+            if (lower.endsWith(".csv")) {
+                return new CsvSource(inputStream);
+            }
+            if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson")) {
+                return new JsonLinesSource(inputStream);
+            }
+            return new JsonArraySource(inputStream, arrayField, filePath);
+        } catch (IOException e) {
+            closeQuietly(inputStream);
+            throw new RuntimeException(" Failed to open test data file: " + filePath, e);
+        }
+    }
+
+
+    // Applies filter -> sample -> partition -> limit on top of a row source
+
+    private final class SelectingIterator implements Iterator<Map<String, String>> {
+
+        private final RowSource source;
+        private Map<String, String> next;
+        private long rowNumber;
+        private long selected;
+        private long emitted;
+        private boolean closed;
+
+        private SelectingIterator(RowSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                while (!closed && emitted < limit) {
+                    Map<String, String> row = source.read();
+                    if (row == null) {
+                        break;
+                    }
+                    long number = rowNumber++;
+                    if (!filter.test(row) || !sampled(number)) {
+                        continue;
+                    }
+                    if (selected++ % partitionCount != partitionIndex) {
+                        continue;
+                    }
+                    emitted++;
+                    next = row;
+                    return true;
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(" Failed to read test data file: " + filePath, e);
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, String> row = next;
+            next = null;
+            return row;
+        }
+
+        private boolean sampled(long number) {
+            if (sampleRate >= 1.0) {
+                return true;
+            }
+            long hash = mix(sampleSeed ^ mix(number + 0x9E3779B97F4A7C15L));
+            return (hash >>> 11) * 0x1.0p-53 < sampleRate;
+        }
+
+        private void close() {
+            if (!closed) {
+                closed = true;
+                closeQuietly(source);
+            }
+        }
+    }
+
+    // SplitMix64 finaliser: turns consecutive row numbers into well-spread 64-bit values
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do
+        }
+    }
+
+
+    private interface RowSource extends Closeable {
+        // Next row, or null at end of input
+        Map<String, String> read() throws IOException;
+    }
+
+    private static Map<String, String> toRow(JsonNode node) {
+        Map<String, String> row = new LinkedHashMap<>();
+        node.fields().forEachRemaining(field ->
+                row.put(field.getKey(), field.getValue().isValueNode() ? field.getValue().asText() : field.getValue().toString()));
+        return row;
+    }
+
+
+    private static final class JsonArraySource implements RowSource {
+
+        private final JsonParser parser;
+
+        private JsonArraySource(InputStream inputStream, String arrayField, String filePath) throws IOException {
+            this.parser = new JsonFactory(mapper).createParser(inputStream);
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                if (arrayField == null) {
+                    throw new IOException("Root of " + filePath + " is an object; set arrayField(...)");
+                }
+                // Skip top-level fields until the requested array
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    token = parser.nextToken();
+                    if (name.equals(arrayField)) {
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array in " + filePath
+                        + (arrayField != null ? " under '" + arrayField + "'" : ""));
+            }
+        }
+
+        @Override
+        public Map<String, String> read() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return toRow(parser.readValueAsTree());
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+
+    private static final class JsonLinesSource implements RowSource {
+
+        private final BufferedReader reader;
+
+        private JsonLinesSource(InputStream inputStream) {
+            this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Map<String, String> read() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    return toRow(mapper.readTree(line));
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+
+    // Header row + comma separated values; quoted fields may contain commas and "" escapes
+    // (but not line breaks)
+
+    private static final class CsvSource implements RowSource {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+
+        private CsvSource(InputStream inputStream) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("CSV file has no header row");
+            }
+            this.header = parseLine(headerLine.replace("\uFEFF", ""));
+        }
+
+        @Override
+        public Map<String, String> read() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> values = parseLine(line);
+                Map<String, String> row = new LinkedHashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    row.put(header.get(i), i < values.size() ? values.get(i) : "");
+                }
+                return row;
+            }
+            return null;
+        }
+
+        private static List<String> parseLine(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            values.add(current.toString());
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
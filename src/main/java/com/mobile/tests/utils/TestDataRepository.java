@@ -0,0 +1,215 @@
+package com.mobile.tests.utils;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Parse-once cache for classpath test data (src/test/resources). Each file is parsed into a
+// JsonNode tree the first time it is used; JSON-pointer lookups and typed bindings
+// (e.g. "/customerInfo" -> CheckoutInfo) are cached per file, so repeated lookups from
+// parallel tests are plain map reads. Set testDataCacheMaxBytes to bound the cache;
+// the least recently used files are evicted first.
+
+public final class TestDataRepository {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<String, CachedFile> files = new ConcurrentHashMap<>();
+    private static final Map<String, JsonPointer> pointers = new ConcurrentHashMap<>();
+    private static final AtomicLong accessClock = new AtomicLong();
+    private static final AtomicLong cachedBytes = new AtomicLong();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder loads = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+    private static final long maxBytes = Long.parseLong(ConfigReader.getProperty("testDataCacheMaxBytes", "0"));
+
+    private TestDataRepository() {
+        // Prevent instantiation
+    }
+
+
+    // Whole file as a (shared, do not modify) JSON tree
+
+    public static JsonNode tree(String filePath) {
+        return file(filePath).root;
+    }
+
+
+    // Node at a JSON pointer, e.g. at("testdata/loginData.json", "/validLogin/username")
+
+    public static JsonNode at(String filePath, String pointer) {
+        JsonNode node = tree(filePath).at(compile(pointer));
+        if (node.isMissingNode()) {
+            throw new RuntimeException(" Path '" + pointer + "' not found in " + filePath);
+        }
+        return node;
+    }
+
+
+    // Text value at a JSON pointer
+
+    public static String text(String filePath, String pointer) {
+        JsonNode node = at(filePath, pointer);
+        return node.isValueNode() ? node.asText() : node.toString();
+    }
+
+
+    // Node at a JSON pointer bound to a type (record, POJO...); bound values are cached and shared
+
+    public static <T> T get(String filePath, String pointer, Class<T> type) {
+        return type.cast(bind(filePath, pointer, type));
+    }
+
+
+    // Same as get(..., Class) for generic types; pass a static TypeReference so the cache key is stable.
+    // Maps and lists come back unmodifiable because every caller shares them.
+
+    @SuppressWarnings("unchecked")
+    public static <T> T get(String filePath, String pointer, TypeReference<T> type) {
+        return (T) bind(filePath, pointer, type);
+    }
+
+
+    // JSON pointer for a top-level key, escaping '~' and '/'
+
+    public static String pointerFor(String key) {
+        return "/" + key.replace("~", "~0").replace("/", "~1");
+    }
+
+
+    public static void evictAll() {
+        files.clear();
+        cachedBytes.set(0);
+    }
+
+    public static String stats() {
+        return "test data cache | files: " + files.size() + " | bytes: " + cachedBytes.get()
+                + " | loads: " + loads.sum() + " | hits: " + hits.sum() + " | evictions: " + evictions.sum();
+    }
+
+
+    private static Object bind(String filePath, String pointer, Object type) {
+        CachedFile file = file(filePath);
+        Map<Object, Object> byType = file.bindings.get(pointer);
+        if (byType != null) {
+            Object bound = byType.get(type);
+            if (bound != null) {
+                return bound;
+            }
+        }
+
+        JsonNode node = file.root.at(compile(pointer));
+        if (node.isMissingNode()) {
+            throw new RuntimeException(" Path '" + pointer + "' not found in " + filePath);
+        }
+        Object bound = type instanceof Class<?>
+                ? mapper.convertValue(node, (Class<?>) type)
+                : freeze(mapper.convertValue(node, (TypeReference<?>) type));
+        if (bound == null) {
+            return null;
+        }
+        file.bindings.computeIfAbsent(pointer, p -> new ConcurrentHashMap<>()).putIfAbsent(type, bound);
+        return bound;
+    }
+
+    private static CachedFile file(String filePath) {
+        CachedFile cached = files.get(filePath);
+        if (cached == null) {
+            cached = files.computeIfAbsent(filePath, TestDataRepository::load);
+            if (maxBytes > 0) {
+                evictIfOverBudget(filePath);
+            }
+        } else {
+            hits.increment();
+        }
+        cached.lastAccess = accessClock.incrementAndGet();
+        return cached;
+    }
+
+    private static CachedFile load(String filePath) {
+        try (InputStream inputStream =
+                     TestDataRepository.class.getClassLoader().getResourceAsStream(filePath)) {
+
+            if (inputStream == null) {
+                throw new RuntimeException(" Test data file not found: " + filePath);
+            }
+
+            byte[] content = inputStream.readAllBytes();
+            loads.increment();
+            cachedBytes.addAndGet(content.length);
+            return new CachedFile(mapper.readTree(content), content.length);
+        } catch (IOException e) {
+            throw new RuntimeException(" Failed to read test data file: " + filePath, e);
+        }
+    }
+
+
+    // Drop least recently used files (never the one just loaded) until the cache fits the budget
+
+    private static synchronized void evictIfOverBudget(String keep) {
+        while (cachedBytes.get() > maxBytes) {
+            String oldest = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<String, CachedFile> entry : files.entrySet()) {
+                if (!entry.getKey().equals(keep) && entry.getValue().lastAccess < oldestAccess) {
+                    oldest = entry.getKey();
+                    oldestAccess = entry.getValue().lastAccess;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            CachedFile removed = files.remove(oldest);
+            if (removed != null) {
+                cachedBytes.addAndGet(-removed.sizeBytes);
+                evictions.increment();
+            }
+        }
+    }
+
+    private static JsonPointer compile(String pointer) {
+        JsonPointer compiled = pointers.get(pointer);
+        return compiled != null ? compiled : pointers.computeIfAbsent(pointer, JsonPointer::compile);
+    }
+
+    private static Object freeze(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, freeze(v)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(v -> copy.add(freeze(v)));
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+
+    // Parsed file plus its cached bindings (pointer -> type -> bound value)
+
+    private static final class CachedFile {
+
+        private final JsonNode root;
+        private final long sizeBytes;
+        private final Map<String, Map<Object, Object>> bindings = new ConcurrentHashMap<>();
+        private volatile long lastAccess;
+
+        private CachedFile(JsonNode root, long sizeBytes) {
+            this.root = root;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.mobile.tests.utils;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
+// Map/list style access to JSON test data. Backed by TestDataRepository, so each file is
+// parsed once per JVM and the returned collections are shared (read-only).
+
 public class TestDataUtils {
 
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> OBJECT_MAP = new TypeReference<>() {};
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {};
+    private static final TypeReference<List<Map<String, String>>> LIST_OF_MAPS = new TypeReference<>() {};
+    private static final TypeReference<List<String>> LIST_OF_STRINGS = new TypeReference<>() {};
 
     private TestDataUtils() {
         // Prevent instantiation
@@ -19,70 +23,42 @@ public class TestDataUtils {
     // Reads a JSON file from classpath (src/test/resources) and returns as Map<String, Object>.
 
     public static Map<String, Object> getTestData(String filePath) {
-        try (InputStream inputStream =
-                     TestDataUtils.class.getClassLoader().getResourceAsStream(filePath)) {
-
-            if (inputStream == null) {
-                throw new RuntimeException(" Test data file not found: " + filePath);
-            }
-
-            return mapper.readValue(inputStream, new TypeReference<Map<String, Object>>() {});
-        } catch (IOException e) {
-            throw new RuntimeException(" Failed to read test data file: " + filePath, e);
-        }
+        return TestDataRepository.get(filePath, "", OBJECT_MAP);
     }
 
     // Reads a nested object (Map) from JSON (e.g., validUser).
 
     public static Map<String, String> getNestedMap(String filePath, String key) {
-        Map<String, Object> allData = getTestData(filePath);
-        Object value = allData.get(key);
-
-        if (value == null) {
-            throw new RuntimeException(" Key '" + key + "' not found in " + filePath);
-        }
-
-        return mapper.convertValue(value, new TypeReference<Map<String, String>>() {});
+        return TestDataRepository.get(filePath, pointerFor(filePath, key), STRING_MAP);
     }
 
 
     // Reads a JSON array of objects (e.g., products).
 
     public static List<Map<String, String>> getListOfMaps(String filePath, String key) {
-        Map<String, Object> allData = getTestData(filePath);
-        Object value = allData.get(key);
-
-        if (value == null) {
-            throw new RuntimeException(" Key '" + key + "' not found in " + filePath);
-        }
-
-        return mapper.convertValue(value, new TypeReference<List<Map<String, String>>>() {});
+        return TestDataRepository.get(filePath, pointerFor(filePath, key), LIST_OF_MAPS);
     }
 
 
       // Reads a JSON array of strings (e.g., sort options).
 
     public static List<String> getListOfStrings(String filePath, String key) {
-        Map<String, Object> allData = getTestData(filePath);
-        Object value = allData.get(key);
-
-        if (value == null) {
-            throw new RuntimeException(" Key '" + key + "' not found in " + filePath);
-        }
-
-        return mapper.convertValue(value, new TypeReference<List<String>>() {});
+        return TestDataRepository.get(filePath, pointerFor(filePath, key), LIST_OF_STRINGS);
     }
 
 
       // Reads a single value from a JSON file.
 
     public static String getData(String filePath, String key) {
-        Map<String, Object> data = getTestData(filePath);
-        Object value = data.get(key);
+        return TestDataRepository.text(filePath, pointerFor(filePath, key));
+    }
+
 
-        if (value == null) {
+    private static String pointerFor(String filePath, String key) {
+        JsonNode value = TestDataRepository.tree(filePath).get(key);
+        if (value == null || value.isNull()) {
             throw new RuntimeException(" Key '" + key + "' not found in " + filePath);
         }
-        return value.toString();
+        return TestDataRepository.pointerFor(key);
     }
 }
@@ -0,0 +1,326 @@
+package com.mobile.tests.utils;
+
+import com.mobile.tests.tracing.Span;
+import com.mobile.tests.tracing.Tracer;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Single polling loop behind every explicit wait in the framework.
+//  - Sessions run with an implicit wait of 0 (set once by DriverManager), so one poll is one
+//    findElements round trip instead of a call that blocks until the server's own timeout.
+//  - Polling starts fast (waitInitialPollMs) and backs off by 1.5x up to waitMaxPollMs.
+//  - No WebDriverWait/FluentWait is allocated per call; conditions on a locator are enum constants.
+//  - Polls, timeouts and time waited are counted per locator (see report()).
+//  - With tracing=true each wait is a span in the trace, with its locator(s) as detail.
+
+public final class WaitEngine {
+
+    public static final Duration DEFAULT_TIMEOUT =
+            Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("explicitWait")));
+
+    private static final long INITIAL_POLL_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.parseLong(ConfigReader.getProperty("waitInitialPollMs", "50")));
+    private static final long MAX_POLL_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.parseLong(ConfigReader.getProperty("waitMaxPollMs", "500")));
+    private static final Map<String, WaitStats> stats = new ConcurrentHashMap<>();
+
+    private WaitEngine() {
+        // Prevent instantiation
+    }
+
+
+    // What to wait for on a locator
+
+    public enum Condition {
+        PRESENT {
+            @Override
+            WebElement check(AppiumDriver driver, By locator) {
+                List<WebElement> elements = driver.findElements(locator);
+                return elements.isEmpty() ? null : elements.get(0);
+            }
+        },
+        VISIBLE {
+            @Override
+            WebElement check(AppiumDriver driver, By locator) {
+                for (WebElement element : driver.findElements(locator)) {
+                    if (element.isDisplayed()) {
+                        return element;
+                    }
+                }
+                return null;
+            }
+        },
+        CLICKABLE {
+            @Override
+            WebElement check(AppiumDriver driver, By locator) {
+                for (WebElement element : driver.findElements(locator)) {
+                    if (element.isDisplayed() && element.isEnabled()) {
+                        return element;
+                    }
+                }
+                return null;
+            }
+        };
+
+        abstract WebElement check(AppiumDriver driver, By locator);
+    }
+
+
+    // Wait for an element matching the condition; throws TimeoutException after the deadline
+
+    public static WebElement waitFor(AppiumDriver driver, By locator, Condition condition, Duration timeout) {
+        WaitStats locatorStats = statsFor(locator.toString());
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = INITIAL_POLL_NANOS;
+        int polls = 0;
+        Span span = Tracer.start("waitFor", Tracer.WAIT, locator);
+        try {
+            while (true) {
+                polls++;
+                try {
+                    WebElement element = condition.check(driver, locator);
+                    if (element != null) {
+                        locatorStats.record(polls, System.nanoTime() - start, false);
+                        return element;
+                    }
+                } catch (NoSuchElementException | StaleElementReferenceException ignored) {
+                    // Element went away between lookup and check; poll again
+                }
+                interval = sleepUntilNextPoll(deadline, interval);
+                if (interval < 0) {
+                    locatorStats.record(polls, System.nanoTime() - start, true);
+                    throw new TimeoutException("Timed out after " + timeout.toMillis() + " ms (" + polls
+                            + " polls) waiting for " + condition.name().toLowerCase() + ": " + locator);
+                }
+            }
+        } finally {
+            span.close();
+        }
+    }
+
+
+    // Wait for whichever locator matches first; all locators share one deadline, so the worst
+    // case is one timeout rather than one timeout per locator. Earlier locators win ties.
+
+    public static Match waitForAny(AppiumDriver driver, Condition condition, Duration timeout, By... locators) {
+        if (locators.length == 0) {
+            throw new IllegalArgumentException(" waitForAny needs at least one locator");
+        }
+        WaitStats[] locatorStats = new WaitStats[locators.length];
+        for (int i = 0; i < locators.length; i++) {
+            locatorStats[i] = statsFor(locators[i].toString());
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = INITIAL_POLL_NANOS;
+        int polls = 0;
+        Span span = Tracer.start("waitForAny", Tracer.WAIT, Arrays.asList(locators));
+        try {
+            while (true) {
+                polls++;
+                for (int i = 0; i < locators.length; i++) {
+                    try {
+                        WebElement element = condition.check(driver, locators[i]);
+                        if (element != null) {
+                            locatorStats[i].record(polls, System.nanoTime() - start, false);
+                            return new Match(locators[i], i, element);
+                        }
+                    } catch (NoSuchElementException | StaleElementReferenceException ignored) {
+                        // Try the next locator
+                    }
+                }
+                interval = sleepUntilNextPoll(deadline, interval);
+                if (interval < 0) {
+                    long waited = System.nanoTime() - start;
+                    for (WaitStats stat : locatorStats) {
+                        stat.record(polls, waited, true);
+                    }
+                    throw new TimeoutException("Timed out after " + timeout.toMillis() + " ms (" + polls
+                            + " polls) waiting for " + condition.name().toLowerCase() + ": any of " + Arrays.toString(locators));
+                }
+            }
+        } finally {
+            span.close();
+        }
+    }
+
+
+    // Wait until every locator matches its condition, e.g. all fields and the submit button of a form.
+    // One deadline covers the whole set, and each poll only looks for the
+    // locators still missing. Returns the elements in the map's order.
+
+    public static Map<By, WebElement> waitForAll(AppiumDriver driver, Duration timeout, Map<By, Condition> targets) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = INITIAL_POLL_NANOS;
+        int polls = 0;
+        Map<By, WebElement> found = new LinkedHashMap<>();
+        Span span = Tracer.start("waitForAll", Tracer.WAIT, targets.keySet());
+        try {
+            while (true) {
+                polls++;
+                for (Map.Entry<By, Condition> target : targets.entrySet()) {
+                    if (found.containsKey(target.getKey())) {
+                        continue;
+                    }
+                    try {
+                        WebElement element = target.getValue().check(driver, target.getKey());
+                        if (element != null) {
+                            found.put(target.getKey(), element);
+                            statsFor(target.getKey().toString()).record(polls, System.nanoTime() - start, false);
+                        }
+                    } catch (NoSuchElementException | StaleElementReferenceException ignored) {
+                        // Poll this one again
+                    }
+                }
+                if (found.size() == targets.size()) {
+                    Map<By, WebElement> ordered = new LinkedHashMap<>();
+                    targets.keySet().forEach(locator -> ordered.put(locator, found.get(locator)));
+                    return ordered;
+                }
+                interval = sleepUntilNextPoll(deadline, interval);
+                if (interval < 0) {
+                    long waited = System.nanoTime() - start;
+                    List<By> missing = targets.keySet().stream().filter(locator -> !found.containsKey(locator)).toList();
+                    for (By locator : missing) {
+                        statsFor(locator.toString()).record(polls, waited, true);
+                    }
+                    throw new TimeoutException("Timed out after " + timeout.toMillis() + " ms (" + polls
+                            + " polls) waiting for all of " + missing);
+                }
+            }
+        } finally {
+            span.close();
+        }
+    }
+
+
+    // Wait until no element matching the locator is displayed
+
+    public static boolean waitForAbsence(AppiumDriver driver, By locator, Duration timeout) {
+        return until(driver, "absence of " + locator, timeout, d -> {
+            for (WebElement element : d.findElements(locator)) {
+                if (element.isDisplayed()) {
+                    return null;
+                }
+            }
+            return Boolean.TRUE;
+        });
+    }
+
+
+    // Generic wait: poll until the function returns something other than null/false
+
+    public static <T> T until(AppiumDriver driver, String description, Duration timeout, Function<AppiumDriver, T> condition) {
+        WaitStats keyStats = statsFor(description);
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = INITIAL_POLL_NANOS;
+        int polls = 0;
+        Span span = Tracer.start("waitUntil", Tracer.WAIT, description);
+        try {
+            while (true) {
+                polls++;
+                try {
+                    T value = condition.apply(driver);
+                    if (value != null && !Boolean.FALSE.equals(value)) {
+                        keyStats.record(polls, System.nanoTime() - start, false);
+                        return value;
+                    }
+                } catch (NoSuchElementException | StaleElementReferenceException ignored) {
+                    // Not there yet; poll again
+                }
+                interval = sleepUntilNextPoll(deadline, interval);
+                if (interval < 0) {
+                    keyStats.record(polls, System.nanoTime() - start, true);
+                    throw new TimeoutException("Timed out after " + timeout.toMillis() + " ms (" + polls
+                            + " polls) waiting for " + description);
+                }
+            }
+        } finally {
+            span.close();
+        }
+    }
+
+
+    // Per-locator wait statistics, slowest first
+
+    public static String report() {
+        StringBuilder report = new StringBuilder("Wait statistics (locator | waits | polls | timeouts | total ms)");
+        new TreeMap<>(stats).entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().nanos.sum(), a.getValue().nanos.sum()))
+                .forEach(e -> report.append(System.lineSeparator())
+                        .append(e.getKey()).append(" | ")
+                        .append(e.getValue().waits.sum()).append(" | ")
+                        .append(e.getValue().polls.sum()).append(" | ")
+                        .append(e.getValue().timeouts.sum()).append(" | ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(e.getValue().nanos.sum())));
+        return report.toString();
+    }
+
+    public static void resetStats() {
+        stats.clear();
+    }
+
+
+    // Sleep until the next poll (or the deadline) and return the next interval, or -1 once past the deadline
+
+    private static long sleepUntilNextPoll(long deadline, long interval) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return -1;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.min(interval, remaining));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting", e);
+        }
+        return Math.min(MAX_POLL_NANOS, interval + interval / 2);
+    }
+
+    private static WaitStats statsFor(String key) {
+        WaitStats existing = stats.get(key);
+        return existing != null ? existing : stats.computeIfAbsent(key, k -> new WaitStats());
+    }
+
+
+    // Result of waitForAny: the locator that matched, its position in the argument list and the element
+
+    public record Match(By locator, int index, WebElement element) {
+    }
+
+
+    private static final class WaitStats {
+
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder polls = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private void record(int pollCount, long waitedNanos, boolean timedOut) {
+            waits.increment();
+            polls.add(pollCount);
+            nanos.add(waitedNanos);
+            if (timedOut) {
+                timeouts.increment();
+            }
+        }
+    }
+}
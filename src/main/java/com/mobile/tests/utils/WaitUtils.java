@@ -1,40 +1,36 @@
 package com.mobile.tests.utils;
 
 import io.appium.java_client.AppiumDriver;
+import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.FluentWait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
-import java.util.NoSuchElementException;
 import java.util.function.Function;
 
-public class WaitUtils {
+// Null/false-on-timeout wrappers around WaitEngine. Every method has an overload taking its
+// own deadline; the short forms use explicitWait from config.properties.
 
-    private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigReader.getProperty("explicitWait"));
-    private static final int DEFAULT_POLLING = 500; // milliseconds
+@Slf4j
+public class WaitUtils {
 
     private WaitUtils() {
         // Prevent instantiation
     }
 
 
-     // Helper to create WebDriverWait
-
-    private static WebDriverWait getWait(AppiumDriver driver) {
-        return new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_TIMEOUT));
-    }
-
-
     // Wait until the element is visible
 
     public static WebElement waitForVisibility(AppiumDriver driver, By locator) {
+        return waitForVisibility(driver, locator, WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+    public static WebElement waitForVisibility(AppiumDriver driver, By locator, Duration timeout) {
         try {
-            return getWait(driver).until(ExpectedConditions.visibilityOfElementLocated(locator));
+            return WaitEngine.waitFor(driver, locator, WaitEngine.Condition.VISIBLE, timeout);
         } catch (Exception e) {
-            System.err.println(" Element not visible: " + locator + " | " + e.getMessage());
+            log.debug("Element not visible: {} | {}", locator, e.getMessage());
             return null;
         }
     }
@@ -43,10 +39,14 @@ public class WaitUtils {
     // Wait until the element is clickable
 
     public static WebElement waitForClickable(AppiumDriver driver, By locator) {
+        return waitForClickable(driver, locator, WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+    public static WebElement waitForClickable(AppiumDriver driver, By locator, Duration timeout) {
         try {
-            return getWait(driver).until(ExpectedConditions.elementToBeClickable(locator));
+            return WaitEngine.waitFor(driver, locator, WaitEngine.Condition.CLICKABLE, timeout);
         } catch (Exception e) {
-            System.err.println(" Element not clickable: " + locator + " | " + e.getMessage());
+            log.debug("Element not clickable: {} | {}", locator, e.getMessage());
             return null;
         }
     }
@@ -55,34 +55,45 @@ public class WaitUtils {
      // Wait until the element is present in DOM (not necessarily visible)
 
     public static WebElement waitForPresence(AppiumDriver driver, By locator) {
+        return waitForPresence(driver, locator, WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+    public static WebElement waitForPresence(AppiumDriver driver, By locator, Duration timeout) {
         try {
-            return getWait(driver).until(ExpectedConditions.presenceOfElementLocated(locator));
+            return WaitEngine.waitFor(driver, locator, WaitEngine.Condition.PRESENT, timeout);
         } catch (Exception e) {
-            System.err.println(" Element not present: " + locator + " | " + e.getMessage());
+            log.debug("Element not present: {} | {}", locator, e.getMessage());
             return null;
         }
     }
 
 
-    // Fluent wait for custom conditions
+    // Fluent wait for custom conditions (throws TimeoutException like before)
 
     public static <T> T fluentWait(AppiumDriver driver, Function<AppiumDriver, T> condition, int timeoutSec) {
-        FluentWait<AppiumDriver> wait = new FluentWait<>(driver)
-                .withTimeout(Duration.ofSeconds(timeoutSec))
-                .pollingEvery(Duration.ofMillis(DEFAULT_POLLING))
-                .ignoring(NoSuchElementException.class);
-
-        return wait.until(condition);
+        return WaitEngine.until(driver, "custom condition", Duration.ofSeconds(timeoutSec), condition);
     }
 
 
     // Wait until element contains specific text
 
     public static boolean waitForText(AppiumDriver driver, By locator, String expectedText) {
+        return waitForText(driver, locator, expectedText, WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+    public static boolean waitForText(AppiumDriver driver, By locator, String expectedText, Duration timeout) {
         try {
-            return getWait(driver).until(ExpectedConditions.textToBePresentInElementLocated(locator, expectedText));
-        } catch (Exception e) {
-            System.err.println(" Text not found in element: " + locator + " | Expected: " + expectedText);
+            return WaitEngine.until(driver, "text '" + expectedText + "' in " + locator, timeout, d -> {
+                for (WebElement element : d.findElements(locator)) {
+                    String text = element.getText();
+                    if (text != null && text.contains(expectedText)) {
+                        return Boolean.TRUE;
+                    }
+                }
+                return Boolean.FALSE;
+            });
+        } catch (TimeoutException e) {
+            log.debug("Text not found in element: {} | Expected: {}", locator, expectedText);
             return false;
         }
     }
@@ -91,10 +102,14 @@ public class WaitUtils {
     // Wait until the element disappears
 
     public static boolean waitForInvisibility(AppiumDriver driver, By locator) {
+        return waitForInvisibility(driver, locator, WaitEngine.DEFAULT_TIMEOUT);
+    }
+
+    public static boolean waitForInvisibility(AppiumDriver driver, By locator, Duration timeout) {
         try {
-            return getWait(driver).until(ExpectedConditions.invisibilityOfElementLocated(locator));
+            return WaitEngine.waitForAbsence(driver, locator, timeout);
         } catch (Exception e) {
-            System.err.println(" Element still visible: " + locator + " | " + e.getMessage());
+            log.debug("Element still visible: {} | {}", locator, e.getMessage());
             return false;
         }
     }
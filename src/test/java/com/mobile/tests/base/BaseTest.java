@@ -1,42 +1,64 @@
 package com.mobile.tests.base;
 
 import com.mobile.tests.core.DriverManager;
+import com.mobile.tests.metrics.CommandMetrics;
+import com.mobile.tests.metrics.FormInputMetrics;
+import com.mobile.tests.pages.LoginFastPath;
+import com.mobile.tests.reporting.ArtifactPipeline;
+import com.mobile.tests.reporting.FailureArtifacts;
+import com.mobile.tests.snapshot.PageSnapshots;
+import com.mobile.tests.tracing.Tracer;
 import com.mobile.tests.utils.CapabilitiesReader;
 import com.mobile.tests.utils.ConfigReader;
-import io.appium.java_client.AppiumDriver;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
+import com.mobile.tests.utils.WaitEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Map;
 
+@Slf4j
 public abstract class BaseTest {
 
-    protected AppiumDriver driver;
+    // Logging MDC key holding TestClass.method of the running test
+    public static final String MDC_TEST = "test";
+
+    private static final boolean capturePageSource =
+            Boolean.parseBoolean(ConfigReader.getProperty("artifactPageSource", "true"));
+    private static final Duration artifactFlushTimeout =
+            Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("artifactFlushTimeout", "60")));
+
+    private static volatile boolean suiteHeld;
+
+    @BeforeSuite(alwaysRun = true)
+    public void setUpSuite() {
+        // Start local Appium server(s) once for the whole suite (no-op when startAppiumServer=false)
+        DriverManager.prewarm();
+    }
+
 
     @BeforeMethod(alwaysRun = true)
-    public void setUp() {
-        System.out.println("===== Test Setup Started =====");
+    public void setUp(Method method) {
+        MDC.put(MDC_TEST, method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        // Root span of this test's trace (tracing=true), closed at the end of tearDown
+        Tracer.start(method.getDeclaringClass().getSimpleName() + "." + method.getName(), Tracer.TEST);
+        log.info("===== Test Setup Started =====");
 
         // Print environment details from capabilities.json instead of config.properties
         Map<String, Object> caps = CapabilitiesReader.getCapabilities();
-        System.out.println("Platform: " + caps.get("platformName"));
-        System.out.println("Device: " + caps.get("appium:deviceName"));
-        System.out.println("App Path: " + caps.get("appium:app"));
+        log.info("Platform: {} | Device: {} | App Path: {}",
+                caps.get("platformName"), caps.get("appium:deviceName"), caps.get("appium:app"));
 
-        // Initialize driver
+        // Initialize driver (tests reach it through DriverManager.getDriver(), which is per thread)
         DriverManager.initDriver();
-        driver = DriverManager.getDriver();
 
-        System.out.println("===== Driver Initialized Successfully =====");
+        log.info("===== Driver Initialized Successfully =====");
     }
 
 
@@ -44,35 +66,54 @@ public abstract class BaseTest {
     public void tearDown(ITestResult result) {
         try {
             if (!result.isSuccess()) {
-                takeScreenshot(result.getName(), result.getTestClass().getRealClass().getSimpleName());
+                captureFailureArtifacts(result.getName(), result.getTestClass().getRealClass().getSimpleName());
             }
         } catch (Exception e) {
-            System.err.println("Error while capturing screenshot: " + e.getMessage());
+            log.error("Error while capturing failure artifacts: {}", e.getMessage());
         } finally {
             DriverManager.quitDriver();
-            driver = null; // prevent stale driver usage
-            System.out.println("===== Driver Quit Successfully =====");
+            log.info("===== Driver Quit Successfully =====");
+            MDC.remove(MDC_TEST);
+            Tracer.endAll();
         }
     }
 
 
-      // Capture screenshot and save it under /screenshots/[TestClass] folder
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        if (!suiteHeld) {
+            closeSuite();
+        }
+    }
 
-    private void takeScreenshot(String testName, String className) {
-        if (driver == null) return;
 
-        File srcFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+    // A work-queue worker runs one small suite per test method in the same JVM; holding the suite keeps
+    // sessions, servers and the run's metrics alive across them until the worker calls closeSuite()
 
-        String screenshotDir = System.getProperty("user.dir") + "/screenshots/" + className + "/";
-        String screenshotPath = screenshotDir + testName + "_" + timestamp + ".png";
+    public static void holdSuite() {
+        suiteHeld = true;
+    }
 
-        try {
-            Files.createDirectories(Paths.get(screenshotDir));
-            Files.copy(srcFile.toPath(), Paths.get(screenshotPath));
-            System.out.println("📸 Screenshot saved at: " + screenshotPath);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to save screenshot", e);
-        }
+    public static void closeSuite() {
+        // Pooled sessions and local servers outlive individual tests, so close them once the suite is done
+        DriverManager.shutdown();
+        ArtifactPipeline.flush(artifactFlushTimeout);
+        CommandMetrics.writeReport();
+        log.info("{}", WaitEngine.report());
+        log.info("{}", PageSnapshots.stats());
+        log.info("{}", ElementCache.stats());
+        log.info("{}", LoginFastPath.report());
+        log.info("{}", FormInputMetrics.summary());
+        log.info("{}", Tracer.write());
+    }
+
+
+      // Grab screenshot, page source and activity while the session is still on the failing screen;
+    // writing them under /screenshots/[TestClass] and attaching them to Allure happens in the background
+
+    private void captureFailureArtifacts(String testName, String className) {
+        if (!DriverManager.hasDriver()) return;
+
+        ArtifactPipeline.submit(FailureArtifacts.capture(DriverManager.getDriver(), className, testName, capturePageSource));
     }
 }
@@ -0,0 +1,86 @@
+package com.mobile.tests.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// DeviceRegistry against an in-memory device list: no devices.json, server or session involved.
+
+public class DeviceRegistryTest {
+
+    private static final Duration NO_WAIT = Duration.ZERO;
+
+    private static Device device(int n) {
+        return new Device("emulator-55" + (54 + 2 * n), "Device " + n, null,
+                8200 + n, 9515 + n, 7810 + n, null, 0);
+    }
+
+    private static DeviceRegistry registry(int devices) {
+        return new DeviceRegistry(IntStream.range(0, devices).mapToObj(DeviceRegistryTest::device).toList());
+    }
+
+    @Test(description = "The lowest free device is always leased first")
+    public void testLeasesLowestFreeDevice() {
+        DeviceRegistry registry = registry(3);
+
+        Assert.assertEquals(registry.lease(NO_WAIT), device(0));
+        Assert.assertEquals(registry.lease(NO_WAIT), device(1));
+        registry.release(device(0));
+        Assert.assertEquals(registry.lease(NO_WAIT), device(0),
+                " A returned device should be leased again before a higher one");
+        Assert.assertEquals(registry.lease(NO_WAIT), device(2));
+    }
+
+    @Test(description = "A lease with every device taken blocks until its timeout, then fails")
+    public void testLeaseTimesOutWhenAllDevicesAreLeased() {
+        DeviceRegistry registry = registry(1);
+        registry.lease(NO_WAIT);
+
+        long start = System.nanoTime();
+        Assert.assertThrows(IllegalStateException.class, () -> registry.lease(Duration.ofMillis(200)));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200,
+                " The lease should have waited for its timeout");
+    }
+
+    @Test(description = "A blocked lease gets the device as soon as it is released")
+    public void testBlockedLeaseGetsReleasedDevice() throws Exception {
+        DeviceRegistry registry = registry(1);
+        Device leased = registry.lease(NO_WAIT);
+
+        CompletableFuture<Device> waiting = CompletableFuture.supplyAsync(() -> registry.lease(Duration.ofSeconds(10)));
+        Thread.sleep(100);
+        Assert.assertFalse(waiting.isDone(), " The second lease should block while the device is leased");
+
+        registry.release(leased);
+        Assert.assertEquals(waiting.get(5, TimeUnit.SECONDS), leased);
+    }
+
+    @Test(description = "Devices are released by record value; releasing a free device fails")
+    public void testReleaseByRecord() {
+        DeviceRegistry registry = registry(2);
+        registry.lease(NO_WAIT);
+
+        // An equal record (e.g. re-read from devices.json) releases the same entry
+        registry.release(device(0));
+        Assert.assertEquals(registry.lease(NO_WAIT), device(0));
+
+        Assert.assertThrows(IllegalStateException.class, () -> registry.release(device(1)));
+        Assert.assertThrows(IllegalStateException.class, () -> registry.release(device(7)));
+    }
+
+    @Test(description = "forShard splits the devices round-robin and fails for a shard without devices")
+    public void testForShard() {
+        DeviceRegistry registry = registry(3);
+
+        Assert.assertSame(registry.forShard(new Shard(0, 1)), registry);
+        Assert.assertEquals(registry.forShard(new Shard(0, 2)).getDevices(), List.of(device(0), device(2)));
+        Assert.assertEquals(registry.forShard(new Shard(1, 2)).getDevices(), List.of(device(1)));
+        Assert.assertEquals(registry.forShard(new Shard(2, 3)).getDevices(), List.of(device(2)));
+        Assert.assertThrows(IllegalStateException.class, () -> registry.forShard(new Shard(3, 4)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.mobile.tests.core;
+
+import com.mobile.tests.sim.SimulatedAppiumServer;
+import io.appium.java_client.AppiumDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// DriverManager with useDeviceRegistry=true, leasing from an in-memory device list and opening its
+// sessions on the simulated Appium server (the stub: no device or Appium install needed). The
+// server answers POST /session with the capabilities it was sent, so the test sees the binding.
+
+public class DriverManagerDeviceTest {
+
+    private static final Map<String, String> SETTINGS = Map.of(
+            "executionMode", "simulated",
+            "useDeviceRegistry", "true",
+            "useSessionPool", "false");
+
+    private final Map<String, String> previous = new HashMap<>();
+    private final DeviceRegistry registry = new DeviceRegistry(List.of(
+            new Device("emulator-5554", "Pixel A", "11", 8200, 9515, 7810, null, 0),
+            new Device("emulator-5556", "Pixel B", "12", 8201, 9516, 7811, null, 0)));
+
+    @BeforeClass
+    public void useFakeDevices() {
+        SETTINGS.forEach((key, value) -> previous.put(key, System.setProperty(key, value)));
+        DriverManager.useDeviceRegistry(registry);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restore() {
+        DriverManager.useDeviceRegistry(null);
+        boolean wasSimulated = "simulated".equalsIgnoreCase(previous.get("executionMode"));
+        previous.forEach((key, value) -> {
+            if (value == null) {
+                System.clearProperty(key);
+            } else {
+                System.setProperty(key, value);
+            }
+        });
+        if (!wasSimulated) {
+            SimulatedAppiumServer.stopShared();
+        }
+    }
+
+    @Test(description = "Concurrent workers each get their own device, bound into their session, and hand it back")
+    public void testEachWorkerSessionIsBoundToItsLeasedDevice() throws Exception {
+        CyclicBarrier bothLeased = new CyclicBarrier(2);
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        Map<String, Object> a;
+        Map<String, Object> b;
+        try {
+            Future<Map<String, Object>> first = workers.submit(() -> openSession(bothLeased));
+            Future<Map<String, Object>> second = workers.submit(() -> openSession(bothLeased));
+            a = first.get(30, TimeUnit.SECONDS);
+            b = second.get(30, TimeUnit.SECONDS);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        Assert.assertEquals(Set.of(a.get("leased"), b.get("leased")), Set.of("emulator-5554", "emulator-5556"),
+                " Two concurrent workers should lease different devices");
+        for (Map<String, Object> session : List.of(a, b)) {
+            Device device = registry.get((String) session.get("leased"));
+            Assert.assertEquals(session.get("appium:udid"), device.udid());
+            Assert.assertEquals(session.get("appium:deviceName"), device.deviceName());
+            Assert.assertEquals(((Number) session.get("appium:systemPort")).intValue(), device.systemPort());
+            Assert.assertEquals(((Number) session.get("appium:chromedriverPort")).intValue(), device.chromedriverPort());
+            Assert.assertEquals(((Number) session.get("appium:mjpegServerPort")).intValue(), device.mjpegServerPort());
+        }
+
+        // quitDriver gave both devices back
+        Device one = registry.lease(Duration.ZERO);
+        Device two = registry.lease(Duration.ZERO);
+        registry.release(one);
+        registry.release(two);
+    }
+
+
+    // Open a session on this thread, wait until the other worker holds one too, then quit
+
+    private static Map<String, Object> openSession(CyclicBarrier bothLeased) throws Exception {
+        DriverManager.initDriver();
+        try {
+            AppiumDriver driver = DriverManager.getDriver();
+            Map<String, Object> seen = new HashMap<>(driver.getCapabilities().asMap());
+            seen.put("leased", DriverManager.getCurrentDevice().udid());
+            bothLeased.await(10, TimeUnit.SECONDS);
+            return seen;
+        } finally {
+            DriverManager.quitDriver();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.mobile.tests.core;
+
+import com.mobile.tests.sim.SimulatedAppiumServer;
+import com.mobile.tests.sim.SimulatorModel;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// SessionPool's recycling rules (max reuse, idle timeout, health probe) and the NAVIGATE_TO_LOGIN
+// reset, with real sessions on a private simulated Appium server. Each test builds its own pool
+// and counts the sessions it opened and quit.
+
+public class SessionPoolTest {
+
+    private static final String APP_PACKAGE = "com.swaglabsmobileapp";
+    private static final String DEVICE = "emulator-5554";
+
+    private SimulatedAppiumServer server;
+
+    @BeforeClass
+    public void startServer() {
+        server = new SimulatedAppiumServer(SimulatorModel.load("simulator/swaglabs.json"), 0, 0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test(description = "A session is reused up to sessionMaxReuse tests, then quit and replaced")
+    public void testSessionIsRecycledAfterMaxReuse() {
+        Sessions sessions = new Sessions();
+        SessionPool pool = sessions.pool(2, Duration.ZERO, AppResetStrategy.TERMINATE_ACTIVATE);
+        try {
+            SessionPool.PooledSession first = pool.acquire(DEVICE);
+            pool.release(first);
+            SessionPool.PooledSession second = pool.acquire(DEVICE);
+            Assert.assertSame(second.getDriver(), first.getDriver(), " The idle session should be reused");
+            Assert.assertEquals(second.getUses(), 2);
+
+            pool.release(second);
+            Assert.assertEquals(sessions.closed, List.of(first.getDriver()), " The worn-out session should be quit on release");
+
+            SessionPool.PooledSession third = pool.acquire(DEVICE);
+            Assert.assertNotSame(third.getDriver(), first.getDriver());
+            Assert.assertEquals(third.getUses(), 1);
+            Assert.assertEquals(sessions.opened.size(), 2);
+            pool.release(third);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(description = "A session idle for longer than sessionIdleTimeout is quit instead of handed out")
+    public void testIdleSessionIsEvicted() throws InterruptedException {
+        Sessions sessions = new Sessions();
+        SessionPool pool = sessions.pool(0, Duration.ofMillis(300), AppResetStrategy.NONE);
+        try {
+            SessionPool.PooledSession first = pool.acquire(DEVICE);
+            pool.release(first);
+            SessionPool.PooledSession again = pool.acquire(DEVICE);
+            Assert.assertSame(again.getDriver(), first.getDriver(), " A freshly released session should be reused");
+            pool.release(again);
+
+            Thread.sleep(600);
+            SessionPool.PooledSession fresh = pool.acquire(DEVICE);
+            Assert.assertNotSame(fresh.getDriver(), first.getDriver(), " The idle session should have expired");
+            Assert.assertEquals(sessions.closed, List.of(first.getDriver()));
+            pool.release(fresh);
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(sessions.closed.size(), 2, " shutdown() should quit the remaining idle session");
+    }
+
+    @Test(description = "A session whose app is gone, or whose server session is gone, fails the health probe and is replaced")
+    public void testUnhealthySessionIsEvicted() {
+        Sessions sessions = new Sessions();
+        SessionPool pool = sessions.pool(0, Duration.ZERO, AppResetStrategy.NONE);
+        try {
+            // App no longer running: queryAppState answers 1
+            SessionPool.PooledSession first = pool.acquire(DEVICE);
+            first.getDriver().executeScript("mobile: terminateApp", Map.of("appId", APP_PACKAGE));
+            pool.release(first);
+            SessionPool.PooledSession second = pool.acquire(DEVICE);
+            Assert.assertNotSame(second.getDriver(), first.getDriver(), " A session with a stopped app should be evicted");
+            Assert.assertEquals(sessions.closed, List.of(first.getDriver()));
+
+            // Session quit behind the pool's back: the probe throws
+            second.getDriver().quit();
+            pool.release(second);
+            SessionPool.PooledSession third = pool.acquire(DEVICE);
+            Assert.assertNotSame(third.getDriver(), second.getDriver(), " A dead session should be evicted");
+            Assert.assertEquals(sessions.closed, List.of(first.getDriver(), second.getDriver()));
+            Assert.assertEquals(sessions.opened.size(), 3);
+            pool.release(third);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(description = "NAVIGATE_TO_LOGIN resets app state and logs out through the menu, without relaunching")
+    public void testNavigateToLoginResetsThroughTheMenu() {
+        Sessions sessions = new Sessions();
+        SessionPool pool = sessions.pool(0, Duration.ZERO, AppResetStrategy.NAVIGATE_TO_LOGIN);
+        try {
+            SessionPool.PooledSession first = pool.acquire(DEVICE);
+            AppiumDriver driver = first.getDriver();
+            String sessionId = driver.getSessionId().toString();
+            openProducts(driver);
+            driver.findElements(AppiumBy.accessibilityId("test-ADD TO CART")).get(0).click();
+            Assert.assertEquals(server.getScreen(sessionId), "products-added");
+
+            pool.release(first);
+            Assert.assertEquals(server.getScreen(sessionId), "login", " Release should end on the login screen");
+
+            SessionPool.PooledSession second = pool.acquire(DEVICE);
+            Assert.assertSame(second.getDriver(), driver, " The reset session should be kept");
+            openProducts(driver);
+            Assert.assertEquals(server.getScreen(sessionId), "products", " Reset app state should have emptied the cart");
+
+            // Already on the login screen: nothing to do
+            second.getDriver().executeScript("mobile: terminateApp", Map.of("appId", APP_PACKAGE));
+            second.getDriver().executeScript("mobile: activateApp", Map.of("appId", APP_PACKAGE));
+            pool.release(second);
+            Assert.assertEquals(server.getScreen(sessionId), "login");
+            Assert.assertTrue(sessions.closed.isEmpty(), " No session should have been quit: " + sessions.closed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    private static void openProducts(AppiumDriver driver) {
+        driver.executeScript("mobile: deepLink", Map.of("url", "swaglabs://swag-overview/", "package", APP_PACKAGE));
+    }
+
+
+    // One pool's sessions on the test server, in the order they were opened and quit
+
+    private final class Sessions {
+
+        private final List<AppiumDriver> opened = new CopyOnWriteArrayList<>();
+        private final List<AppiumDriver> closed = new CopyOnWriteArrayList<>();
+
+        private SessionPool pool(int maxReuse, Duration idleTimeout, AppResetStrategy resetStrategy) {
+            return new SessionPool(1, maxReuse, idleTimeout, Duration.ofSeconds(10), resetStrategy, APP_PACKAGE,
+                    key -> open(), driver -> {
+                        closed.add(driver);
+                        driver.quit();
+                    });
+        }
+
+        private AppiumDriver open() {
+            DesiredCapabilities capabilities = new DesiredCapabilities();
+            capabilities.setCapability("platformName", "Android");
+            capabilities.setCapability("appium:automationName", "UiAutomator2");
+            capabilities.setCapability("appium:appPackage", APP_PACKAGE);
+            try {
+                AppiumDriver driver = new AppiumDriver(new URL(server.url()), capabilities);
+                opened.add(driver);
+                return driver;
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mobile.tests.dataproviders;
+
+import com.mobile.tests.core.Shard;
+import com.mobile.tests.utils.ConfigReader;
+import com.mobile.tests.utils.StreamingTestData;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+
+// Lazy @DataProviders for large data sets. Rows are read one at a time as TestNG asks
+// for them; dataSampleRate/dataSampleSeed pick a stable random subset.
+//
+// In a split run the rows of a streamed method are split, not the method: ShardMethodInterceptor
+// keeps it on every shard and each shard reads rows n % shardCount == shardIndex. WorkCoordinator
+// queues one item per slice of rows instead, and the worker running an item sets dataShardIndex /
+// dataShardCount for it, which then take precedence over the worker's own shard.
+//
+// The providers are sequential on purpose: TestNG drains a parallel=true provider's iterator into
+// its executor before running any row, which would hold every row of the file in memory. Rows of
+// one method run one after another; other test methods still run alongside them.
+
+public class StreamingDataProviders {
+
+    private static final String LOGIN_VARIANTS = "testdata/loginVariants.jsonl";
+    private static final String CHECKOUT_CUSTOMERS = "testdata/checkoutCustomers.csv";
+
+    @DataProvider(name = "loginVariants")
+    public static Iterator<Object[]> loginVariants() {
+        return configured(StreamingTestData.from(LOGIN_VARIANTS))
+                .rows(row -> new Object[]{row});
+    }
+
+    @DataProvider(name = "checkoutCustomers")
+    public static Iterator<Object[]> checkoutCustomers() {
+        return configured(StreamingTestData.from(CHECKOUT_CUSTOMERS))
+                .rows(row -> new Object[]{row});
+    }
+
+
+    // Whether a test method reads its rows from these providers (its rows are split, not the method)
+
+    public static boolean isStreamed(Method method) {
+        Test test = method.getAnnotation(Test.class);
+        return test != null && test.dataProviderClass() == StreamingDataProviders.class;
+    }
+
+
+    // Slice of the rows this JVM runs: the work item's when set, else this JVM's shard
+
+    public static Shard rowShard() {
+        String count = ConfigReader.getProperty("dataShardCount", "");
+        if (count.isEmpty()) {
+            return Shard.current();
+        }
+        return new Shard(Integer.parseInt(ConfigReader.getProperty("dataShardIndex", "0")), Integer.parseInt(count));
+    }
+
+
+    // Apply sampling from config.properties (or -D overrides), then this JVM's slice of the rows
+
+    private static StreamingTestData configured(StreamingTestData data) {
+        double sampleRate = Double.parseDouble(ConfigReader.getProperty("dataSampleRate", "1.0"));
+        if (sampleRate < 1.0) {
+            data.sample(sampleRate, Long.parseLong(ConfigReader.getProperty("dataSampleSeed", "42")));
+        }
+        Shard rows = rowShard();
+        if (rows.isSharded()) {
+            data.partition(rows.index(), rows.count());
+        }
+        return data;
+    }
+}
@@ -0,0 +1,180 @@
+package com.mobile.tests.listeners;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+// How long each test method took in past runs, rebuilt from the Allure results directory
+// (one *-result.json per test invocation with start/stop in epoch millis). Per-method
+// @BeforeMethod/@AfterMethod time comes from the *-container.json that wraps a single result
+// and is added to that invocation, since a worker is busy for all of it.
+//
+// A data-driven method runs as one unit per worker, so its estimate is the sum over the
+// parameter sets it was seen with; each invocation is the median of its most recent samples.
+
+@Slf4j
+public final class DurationHistory {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static volatile DurationHistory configured;
+
+    // method -> parameter set -> durations in ms, oldest first
+    private final Map<String, Map<String, List<Long>>> samples;
+    private final int maxSamples;
+
+    private DurationHistory(Map<String, Map<String, List<Long>>> samples, int maxSamples) {
+        this.samples = samples;
+        this.maxSamples = maxSamples;
+    }
+
+    public static DurationHistory empty() {
+        return new DurationHistory(Map.of(), 1);
+    }
+
+
+    // The history in testHistoryDir, read once per JVM and shared by the method interceptors
+
+    public static DurationHistory configured() {
+        DurationHistory loaded = configured;
+        if (loaded == null) {
+            synchronized (DurationHistory.class) {
+                loaded = configured;
+                if (loaded == null) {
+                    loaded = fromAllureResults(
+                            Paths.get(ConfigReader.getProperty("testHistoryDir", "allure-results")),
+                            Integer.parseInt(ConfigReader.getProperty("testHistorySamples", "10")));
+                    configured = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+
+    // Read every result in the directory (a missing directory is an empty history)
+
+    public static DurationHistory fromAllureResults(Path directory, int maxSamples) {
+        if (!Files.isDirectory(directory)) {
+            return empty();
+        }
+        Map<String, Result> results = new HashMap<>();
+        Map<String, Long> fixtureMillis = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith("-result.json")) {
+                    Result result = readResult(file);
+                    if (result != null) {
+                        results.put(result.uuid(), result);
+                    }
+                } else if (name.endsWith("-container.json")) {
+                    readFixture(file, fixtureMillis);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read test history from {}: {}", directory, e.getMessage());
+            return empty();
+        }
+
+        List<Result> ordered = new ArrayList<>(results.values());
+        ordered.sort(Comparator.comparingLong(Result::start));
+        Map<String, Map<String, List<Long>>> samples = new HashMap<>();
+        for (Result result : ordered) {
+            long millis = result.millis() + fixtureMillis.getOrDefault(result.uuid(), 0L);
+            samples.computeIfAbsent(result.method(), key -> new HashMap<>())
+                    .computeIfAbsent(result.parameters(), key -> new ArrayList<>())
+                    .add(millis);
+        }
+        log.info("Test history: {} methods from {} results in {}", samples.size(), ordered.size(), directory);
+        return new DurationHistory(samples, maxSamples);
+    }
+
+
+    // Expected duration of one run of the method (all its data rows), if it ran before
+
+    public OptionalLong estimateMillis(String qualifiedMethodName) {
+        Map<String, List<Long>> byParameters = samples.get(qualifiedMethodName);
+        if (byParameters == null || byParameters.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        long total = 0;
+        for (List<Long> durations : byParameters.values()) {
+            total += median(durations.subList(Math.max(0, durations.size() - maxSamples), durations.size()));
+        }
+        return OptionalLong.of(total);
+    }
+
+    public int size() {
+        return samples.size();
+    }
+
+
+    // Median of all known method estimates (the fallback for methods without history), or -1
+
+    public long medianEstimateMillis() {
+        List<Long> estimates = new ArrayList<>();
+        for (String method : samples.keySet()) {
+            estimateMillis(method).ifPresent(estimates::add);
+        }
+        return estimates.isEmpty() ? -1 : median(estimates);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static Result readResult(Path file) {
+        try {
+            JsonNode root = mapper.readTree(file.toFile());
+            String status = root.path("status").asText();
+            long start = root.path("start").asLong(-1);
+            long stop = root.path("stop").asLong(-1);
+            // Skipped tests never ran and broken ones often died early; neither says how long a run takes
+            if (!("passed".equals(status) || "failed".equals(status)) || start < 0 || stop < start) {
+                return null;
+            }
+            return new Result(root.path("uuid").asText(), root.path("fullName").asText(),
+                    root.path("parameters").toString(), start, stop - start);
+        } catch (IOException e) {
+            log.debug("Skipping unreadable result {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void readFixture(Path file, Map<String, Long> fixtureMillis) {
+        try {
+            JsonNode root = mapper.readTree(file.toFile());
+            JsonNode children = root.path("children");
+            if (children.size() != 1) {
+                return;
+            }
+            long millis = 0;
+            for (String phase : new String[]{"befores", "afters"}) {
+                for (JsonNode fixture : root.path(phase)) {
+                    millis += Math.max(0, fixture.path("stop").asLong() - fixture.path("start").asLong());
+                }
+            }
+            fixtureMillis.merge(children.get(0).asText(), millis, Long::sum);
+        } catch (IOException e) {
+            log.debug("Skipping unreadable container {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record Result(String uuid, String method, String parameters, long start, long millis) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.mobile.tests.listeners;
+
+import com.mobile.tests.replay.DriverRecording;
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Orders the methods of each <test> longest-first (LPT) using DurationHistory, so with
+// parallel="methods" the long checkout flows start first and the short ones fill the gaps
+// instead of one long test running alone at the end. TestNG hands free methods to its worker
+// pool in list order, so sorting the list is the whole schedule.
+//
+// Methods without history get lptDefaultEstimateMs (0 = median of the known methods).
+// The predicted makespan (LPT simulated on the <test>'s thread-count) is logged with the
+// order, and the actual one when the <test> finishes. Registered in testng.xml;
+// lptOrdering=false keeps TestNG's own order, and so does a run with driverRecording on (the
+// durations in allure-results change between the recording and the replay).
+
+@Slf4j
+public class LptMethodInterceptor implements IMethodInterceptor, ITestListener {
+
+    private static final long FALLBACK_ESTIMATE_MS = 30_000;
+
+    private final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("lptOrdering", "true"))
+            && DriverRecording.getMode() == DriverRecording.Mode.OFF;
+    private final Map<String, Long> predictedMillis = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!enabled || methods.size() < 2) {
+            return methods;
+        }
+        DurationHistory durations = DurationHistory.configured();
+        long defaultEstimate = defaultEstimate(durations);
+
+        List<Estimate> estimates = new ArrayList<>(methods.size());
+        int unknown = 0;
+        for (IMethodInstance method : methods) {
+            String name = method.getMethod().getQualifiedName();
+            var known = durations.estimateMillis(name);
+            if (known.isEmpty()) {
+                unknown++;
+            }
+            estimates.add(new Estimate(method, name, known.orElse(defaultEstimate), known.isPresent()));
+        }
+        // Longest first; ties keep the class/method name order so runs are repeatable
+        estimates.sort(Comparator.comparingLong(Estimate::millis).reversed().thenComparing(Estimate::name));
+
+        int workers = workers(context.getCurrentXmlTest());
+        long makespan = lptMakespan(estimates, workers);
+        predictedMillis.put(context.getName(), makespan);
+        log.info("LPT order for '{}': {} methods on {} workers, predicted makespan {} s ({} without history, estimated {} ms)",
+                context.getName(), estimates.size(), workers, seconds(makespan), unknown, defaultEstimate);
+        for (Estimate estimate : estimates) {
+            log.debug("  {} ms{} {}", estimate.millis(), estimate.known() ? "" : " (default)", estimate.name());
+        }
+
+        List<IMethodInstance> ordered = new ArrayList<>(estimates.size());
+        for (Estimate estimate : estimates) {
+            ordered.add(estimate.method());
+        }
+        return ordered;
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        Long predicted = predictedMillis.remove(context.getName());
+        if (predicted == null) {
+            return;
+        }
+        long actual = context.getEndDate().getTime() - context.getStartDate().getTime();
+        log.info("Makespan of '{}': actual {} s, predicted {} s ({}{}%)", context.getName(), seconds(actual),
+                seconds(predicted), actual >= predicted ? "+" : "",
+                predicted > 0 ? Math.round((actual - predicted) * 100.0 / predicted) : 0);
+    }
+
+
+    // Finish time of the busiest worker when each method goes to the first free worker in list order
+
+    static long lptMakespan(List<Estimate> ordered, int workers) {
+        PriorityQueue<Long> finishTimes = new PriorityQueue<>();
+        for (int i = 0; i < workers; i++) {
+            finishTimes.add(0L);
+        }
+        long makespan = 0;
+        for (Estimate estimate : ordered) {
+            long finish = finishTimes.poll() + estimate.millis();
+            finishTimes.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        return makespan;
+    }
+
+    // Estimate for methods without history; ShardMethodInterceptor balances shards with the same one
+
+    public static long defaultEstimate(DurationHistory durations) {
+        long configured = Long.parseLong(ConfigReader.getProperty("lptDefaultEstimateMs", "0"));
+        if (configured > 0) {
+            return configured;
+        }
+        long median = durations.medianEstimateMillis();
+        return median > 0 ? median : FALLBACK_ESTIMATE_MS;
+    }
+
+    private static int workers(XmlTest test) {
+        XmlSuite.ParallelMode mode = test.getParallel();
+        if (mode == null || mode == XmlSuite.ParallelMode.NONE || mode == XmlSuite.ParallelMode.TESTS) {
+            return 1;
+        }
+        return Math.max(1, test.getThreadCount());
+    }
+
+    private static String seconds(long millis) {
+        return String.format("%.1f", millis / 1000.0);
+    }
+
+    record Estimate(IMethodInstance method, String name, long millis, boolean known) {
+    }
+}
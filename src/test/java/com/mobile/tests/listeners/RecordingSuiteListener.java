@@ -0,0 +1,38 @@
+package com.mobile.tests.listeners;
+
+import com.mobile.tests.replay.DriverRecording;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+
+// Runs the suite on one thread while driverRecording is record or replay. The replayer hands out the
+// recorded sessions in creation order and expects each one's commands in the recorded order; with
+// parallel methods (or rows) sharing pooled sessions, which test lands on which session changes from
+// run to run. One thread plus TestNG's own method order (LptMethodInterceptor stands down as well)
+// makes the replay run send what the recording run sent. Registered through
+// META-INF/services/org.testng.ITestNGListener, so -Dtest runs (which skip testng.xml) get it too.
+
+@Slf4j
+public class RecordingSuiteListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (DriverRecording.getMode() == DriverRecording.Mode.OFF) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            suite.setParallel(XmlSuite.ParallelMode.NONE);
+            suite.setThreadCount(1);
+            suite.setDataProviderThreadCount(1);
+            for (XmlTest test : suite.getTests()) {
+                test.setParallel(XmlSuite.ParallelMode.NONE);
+                test.setThreadCount(1);
+            }
+            log.info("driverRecording={}: running suite '{}' on one thread in TestNG's order",
+                    DriverRecording.getMode().name().toLowerCase(), suite.getName());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.mobile.tests.listeners;
+
+import com.mobile.tests.core.Shard;
+import com.mobile.tests.dataproviders.StreamingDataProviders;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Keeps only this JVM's share of each <test> in a sharded run (see ShardRunner). Every shard runs the
+// same testng.xml, reads the same DurationHistory and makes the same plan: methods longest-first, each
+// to the shard with the least predicted work so far (lowest index on a tie), then keeps its own.
+// Loads carry over from one <test> to the next, so the whole suite is balanced rather than each
+// <test> on its own. Estimates are rounded to whole seconds so a few ms of noise between runs does
+// not move methods around. A streamed data-driven method (StreamingDataProviders) stays on every
+// shard instead, each running its own slice of the rows, and adds its share of the time to each.
+// Registered in testng.xml before LptMethodInterceptor, which then orders what is left;
+// shardCount=1 leaves the list alone.
+
+@Slf4j
+public class ShardMethodInterceptor implements IMethodInterceptor {
+
+    private final Shard shard = Shard.current();
+    private final long[] shardSeconds = new long[shard.count()];
+
+    @Override
+    public synchronized List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!shard.isSharded() || methods.isEmpty()) {
+            return methods;
+        }
+        DurationHistory durations = DurationHistory.configured();
+        long defaultEstimate = LptMethodInterceptor.defaultEstimate(durations);
+
+        List<Planned> planned = new ArrayList<>(methods.size());
+        for (IMethodInstance method : methods) {
+            String name = method.getMethod().getQualifiedName();
+            long millis = durations.estimateMillis(name).orElse(defaultEstimate);
+            boolean rowsSplit = StreamingDataProviders.isStreamed(method.getMethod().getConstructorOrMethod().getMethod());
+            planned.add(new Planned(method, name, Math.max(1, Math.round(millis / 1000.0)), rowsSplit));
+        }
+        planned.sort(Comparator.comparingLong(Planned::seconds).reversed().thenComparing(Planned::name));
+
+        List<IMethodInstance> kept = new ArrayList<>();
+        long keptSeconds = 0;
+        int rowsSplit = 0;
+        for (Planned method : planned) {
+            if (method.rowsSplit()) {
+                long share = Math.max(1, (method.seconds() + shard.count() - 1) / shard.count());
+                for (int i = 0; i < shardSeconds.length; i++) {
+                    shardSeconds[i] += share;
+                }
+                kept.add(method.method());
+                keptSeconds += share;
+                rowsSplit++;
+                continue;
+            }
+            int target = leastLoaded();
+            shardSeconds[target] += method.seconds();
+            if (target == shard.index()) {
+                kept.add(method.method());
+                keptSeconds += method.seconds();
+            }
+        }
+        log.info("Sharding '{}': {} keeps {} of {} methods ({} of them for a slice of their rows, {} s), "
+                        + "suite so far {} s on this shard, {} s on the busiest",
+                context.getName(), shard, kept.size(), methods.size(), rowsSplit, keptSeconds,
+                shardSeconds[shard.index()], max(shardSeconds));
+
+        // Keep TestNG's order among the kept methods; LptMethodInterceptor reorders them if enabled
+        List<IMethodInstance> result = new ArrayList<>(kept.size());
+        for (IMethodInstance method : methods) {
+            if (kept.contains(method)) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    private int leastLoaded() {
+        int least = 0;
+        for (int i = 1; i < shardSeconds.length; i++) {
+            if (shardSeconds[i] < shardSeconds[least]) {
+                least = i;
+            }
+        }
+        return least;
+    }
+
+    private static long max(long[] values) {
+        long max = 0;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private record Planned(IMethodInstance method, String name, long seconds, boolean rowsSplit) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.mobile.tests.locators;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+// LocatorCompiler.rewrite over the rewrites listed in its class comment, the quoting of values
+// into UiSelector strings, and the XPaths it has to leave alone. Expectations are written as
+// "strategy: value", the form the locator is sent to Appium in.
+
+public class LocatorCompilerTest {
+
+    @DataProvider(name = "rewrites")
+    public Object[][] rewrites() {
+        return new Object[][]{
+                // //*[@content-desc] is the accessibility id itself
+                {"//*[@content-desc='test-Menu']", "accessibility id: test-Menu"},
+                {"//*[@content-desc=\"test-Menu\"]", "accessibility id: test-Menu"},
+
+                // A tag becomes className(), * adds no class filter
+                {"//android.widget.TextView[@content-desc='test-Price']",
+                        "-android uiautomator: new UiSelector().className(\"android.widget.TextView\").description(\"test-Price\")"},
+                {"//android.widget.TextView[@text='PRODUCTS']",
+                        "-android uiautomator: new UiSelector().className(\"android.widget.TextView\").text(\"PRODUCTS\")"},
+                {"//*[@text=\"PRODUCTS\"]", "-android uiautomator: new UiSelector().text(\"PRODUCTS\")"},
+                {"//android.widget.TextView[contains(@text,'Sauce')]",
+                        "-android uiautomator: new UiSelector().className(\"android.widget.TextView\").textContains(\"Sauce\")"},
+                {"//*[contains(@text, \"Sauce\")]", "-android uiautomator: new UiSelector().textContains(\"Sauce\")"},
+                {"//*[contains(@content-desc,'Item')]", "-android uiautomator: new UiSelector().descriptionContains(\"Item\")"},
+                {"//android.widget.FrameLayout[@resource-id='android:id/content']",
+                        "-android uiautomator: new UiSelector().className(\"android.widget.FrameLayout\").resourceId(\"android:id/content\")"},
+                {"//*[@resource-id=\"android:id/content\"]",
+                        "-android uiautomator: new UiSelector().resourceId(\"android:id/content\")"},
+
+                // Whitespace around the predicate and the whole expression
+                {"  //*[ @text = 'PRODUCTS' ]  ", "-android uiautomator: new UiSelector().text(\"PRODUCTS\")"},
+                {"//*[ contains( @text , 'Sauce' ) ]", "-android uiautomator: new UiSelector().textContains(\"Sauce\")"},
+
+                // Quotes and backslashes in the value are escaped for the UiSelector string literal
+                {"//*[@text='say \"hi\"']", "-android uiautomator: new UiSelector().text(\"say \\\"hi\\\"\")"},
+                {"//*[@text=\"it's\"]", "-android uiautomator: new UiSelector().text(\"it's\")"},
+                {"//*[@text='C:\\dir']", "-android uiautomator: new UiSelector().text(\"C:\\\\dir\")"},
+                {"//*[contains(@content-desc,'a\\\"b')]",
+                        "-android uiautomator: new UiSelector().descriptionContains(\"a\\\\\\\"b\")"},
+                {"//*[@content-desc='say \"hi\"']", "accessibility id: say \"hi\""},
+                {"//*[@text='']", "-android uiautomator: new UiSelector().text(\"\")"},
+        };
+    }
+
+    @Test(dataProvider = "rewrites", description = "Single-step XPaths are rewritten to the equivalent UiAutomator2 strategy")
+    public void testSimpleXPathIsRewritten(String xpath, String expected) {
+        By rewritten = LocatorCompiler.rewrite(xpath);
+
+        Assert.assertNotNull(rewritten, " Should rewrite " + xpath);
+        Assert.assertEquals(describe(rewritten), expected);
+    }
+
+    @DataProvider(name = "kept")
+    public Object[][] kept() {
+        return new Object[][]{
+                // Child and descendant steps
+                {"//android.view.ViewGroup[@content-desc='test-Item']/android.widget.TextView"},
+                {"//*[@content-desc='test-Item']//*[@text='ADD TO CART']"},
+                {"/hierarchy[@text='PRODUCTS']"},
+                // Indexes
+                {"//android.view.ViewGroup[@content-desc='test-Item'][2]"},
+                {"(//*[@text='PRODUCTS'])[1]"},
+                {"//*[@text='PRODUCTS'][last()]"},
+                // Other attributes, functions and operators
+                {"//*[@class='android.widget.TextView']"},
+                {"//*[text()='PRODUCTS']"},
+                {"//*[contains(@resource-id,'content')]"},
+                {"//*[starts-with(@text,'Sauce')]"},
+                {"//*[@text!='PRODUCTS']"},
+                {"//*[@text='PRODUCTS' and @index='0']"},
+                {"//*[not(@text='PRODUCTS')]"},
+                // Malformed or unquoted
+                {"//*[@text=PRODUCTS]"},
+                {"//*[@text='PRODUCTS\"]"},
+                {"//*[@text='PRODUCTS'"},
+                {"//*"},
+        };
+    }
+
+    @Test(dataProvider = "kept", description = "XPaths outside the rewritable shape are left to the driver")
+    public void testOtherXPathIsNotRewritten(String xpath) {
+        Assert.assertNull(LocatorCompiler.rewrite(xpath), " Should not rewrite " + xpath);
+    }
+
+    @Test(description = "compile wraps rewritable XPaths once and passes everything else through")
+    public void testCompileWrapsOnlyRewritableXPaths() {
+        By xpath = By.xpath("//*[@content-desc='test-Cart']");
+        By compiled = LocatorCompiler.compile(xpath);
+
+        Assert.assertTrue(compiled instanceof CompiledLocator, " Expected a CompiledLocator but got " + compiled);
+        CompiledLocator locator = (CompiledLocator) compiled;
+        Assert.assertEquals(locator.getOriginal(), xpath);
+        Assert.assertEquals(describe(locator.getFast()), "accessibility id: test-Cart");
+        Assert.assertSame(LocatorCompiler.compile(By.xpath("//*[@content-desc='test-Cart']")), compiled,
+                " An equal locator should come from the cache");
+        Assert.assertSame(LocatorCompiler.compile(compiled), compiled);
+
+        By childStep = By.xpath("//*[@content-desc='test-Item']/android.widget.TextView");
+        Assert.assertSame(LocatorCompiler.compile(childStep), childStep);
+        By accessibilityId = AppiumBy.accessibilityId("test-Cart");
+        Assert.assertSame(LocatorCompiler.compile(accessibilityId), accessibilityId);
+    }
+
+
+    private static String describe(By locator) {
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        return parameters.using() + ": " + parameters.value();
+    }
+}
@@ -0,0 +1,85 @@
+package com.mobile.tests.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+// LatencyHistogram's bucket arithmetic at the edges: the linear buckets below 8 us, the first
+// log-linear ones, the clamp at 2^35 us, and percentiles read back from recorded values.
+
+public class LatencyHistogramTest {
+
+    private static final long CLAMP = 1L << 35;
+    private static final int LAST_BUCKET = 263;
+
+    @DataProvider(name = "boundaries")
+    public Object[][] boundaries() {
+        return new Object[][]{
+                // micros, bucket, upper bound of that bucket
+                {0L, 0, 0L},
+                {1L, 1, 1L},
+                {7L, 7, 7L},
+                {8L, 8, 8L},
+                {15L, 15, 15L},
+                {16L, 16, 17L},
+                {17L, 16, 17L},
+                {18L, 17, 19L},
+                {31L, 23, 31L},
+                {32L, 24, 35L},
+                {1L << 34, 256, (1L << 34) + (1L << 31) - 1},
+                {CLAMP - 1, LAST_BUCKET, CLAMP - 1},
+                {CLAMP, LAST_BUCKET, CLAMP - 1},
+                {Long.MAX_VALUE, LAST_BUCKET, CLAMP - 1},
+        };
+    }
+
+    @Test(dataProvider = "boundaries", description = "bucketOf and upperBoundOf agree at the bucket edges")
+    public void testBucketBoundaries(long micros, int bucket, long upperBound) {
+        Assert.assertEquals(LatencyHistogram.bucketOf(micros), bucket, " Bucket of " + micros + " us");
+        Assert.assertEquals(LatencyHistogram.upperBoundOf(bucket), upperBound, " Upper bound of bucket " + bucket);
+    }
+
+    @Test(description = "Buckets are contiguous, end at their upper bound and are at most 12.5% wide")
+    public void testBucketsTileTheRange() {
+        for (int bucket = 1; bucket <= LAST_BUCKET; bucket++) {
+            long lower = LatencyHistogram.upperBoundOf(bucket - 1) + 1;
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            Assert.assertEquals(LatencyHistogram.bucketOf(lower), bucket, " First value of bucket " + bucket);
+            Assert.assertEquals(LatencyHistogram.bucketOf(upper), bucket, " Last value of bucket " + bucket);
+            Assert.assertTrue(upper - lower + 1 <= Math.max(1, lower / 8), " Bucket " + bucket + " is too wide");
+        }
+        Assert.assertEquals(LatencyHistogram.upperBoundOf(LAST_BUCKET), CLAMP - 1);
+    }
+
+    @Test(description = "Percentiles report the bucket's upper bound, capped at the recorded max")
+    public void testPercentilesFromRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.percentileMicros(50), 0L, " Empty histogram");
+
+        for (long micros = 1; micros <= 100; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros), micros % 10 == 0);
+        }
+        histogram.record(-5, false);
+
+        Assert.assertEquals(histogram.getCount(), 101);
+        Assert.assertEquals(histogram.getFailures(), 10);
+        Assert.assertEquals(histogram.getTotalMicros(), 5050);
+        Assert.assertEquals(histogram.getMaxMicros(), 100);
+        Assert.assertEquals(histogram.percentileMicros(0), 0L, " The negative duration counts as 0 us");
+        Assert.assertEquals(histogram.percentileMicros(50), 51L, " 50 us falls in bucket [48, 51]");
+        Assert.assertEquals(histogram.percentileMicros(99), 100L, " 99 us falls in bucket [96, 103], capped at the max");
+        Assert.assertEquals(histogram.percentileMicros(100), 100L);
+    }
+
+    @Test(description = "Durations past 2^35 us are counted in the last bucket and keep their real max")
+    public void testDurationsPastTheRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long micros = CLAMP * 4;
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(micros), false);
+
+        Assert.assertEquals(histogram.getMaxMicros(), micros);
+        Assert.assertEquals(histogram.percentileMicros(50), CLAMP - 1, " Reported as the last bucket's upper bound");
+    }
+}
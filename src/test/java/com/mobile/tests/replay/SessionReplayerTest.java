@@ -0,0 +1,202 @@
+package com.mobile.tests.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// SessionReplayer over a hand-written recording (replay/two-sessions.jsonl): two sessions, the
+// first finding an element, reading its text and polling queryAppState twice (3, then 4), plus a
+// server-level GET /status. Requests go straight to the replayer's HttpClient, the way the
+// driver's executor would send them.
+
+public class SessionReplayerTest {
+
+    private static final String NEW_SESSION =
+            "{\"capabilities\":{\"alwaysMatch\":{\"platformName\":\"Android\",\"appium:automationName\":\"UiAutomator2\"}}}";
+    private static final String FIND_LOGIN = "{\"using\":\"accessibility id\",\"value\":\"test-LOGIN\"}";
+    private static final String QUERY_APP_STATE =
+            "{\"script\":\"mobile: queryAppState\",\"args\":[{\"appId\":\"com.swaglabsmobileapp\"}]}";
+
+    @Test(description = "Sequential matching replays both sessions in the recorded order")
+    public void testSequentialReplaysTheRecordedOrder() {
+        SessionReplayer replayer = replayer(SessionReplayer.Match.SEQUENTIAL);
+        HttpClient client = replayer.createClient(ClientConfig.defaultConfig());
+
+        Assert.assertEquals(replayer.getUnusedSessionCount(), 2);
+        Assert.assertEquals(value(client, post("/session", NEW_SESSION)).path("sessionId").asText(), "s1");
+        Assert.assertEquals(value(client, post("/session/s1/element", FIND_LOGIN))
+                .path("element-6066-11e4-a52e-4f735466cecf").asText(), "e1");
+        Assert.assertEquals(value(client, get("/session/s1/element/e1/text")).asText(), "LOGIN");
+        Assert.assertEquals(value(client, post("/session/s1/execute/sync", QUERY_APP_STATE)).asInt(), 3);
+        Assert.assertEquals(value(client, post("/session/s1/execute/sync", QUERY_APP_STATE)).asInt(), 4);
+        Assert.assertTrue(value(client, get("/status")).path("ready").asBoolean(), " Server-level calls are answered too");
+        Assert.assertTrue(value(client, delete("/session/s1")).isNull());
+
+        Assert.assertEquals(value(client, post("/session", NEW_SESSION)).path("sessionId").asText(), "s2");
+        Assert.assertEquals(value(client, get("/session/s2/source")).asText(), "<hierarchy/>");
+        Assert.assertTrue(value(client, delete("/session/s2")).isNull());
+
+        Assert.assertEquals(replayer.getServedCount(), 10);
+        Assert.assertEquals(replayer.getUnusedSessionCount(), 0);
+    }
+
+    @Test(description = "Sequential matching reports a changed request body field by field, then lets teardown quit")
+    public void testSequentialMismatchShowsTheDiff() {
+        HttpClient client = replayer(SessionReplayer.Match.SEQUENTIAL).createClient(ClientConfig.defaultConfig());
+        client.execute(post("/session", NEW_SESSION));
+
+        ReplayMismatchException mismatch = Assert.expectThrows(ReplayMismatchException.class,
+                () -> client.execute(post("/session/s1/element", "{\"using\":\"accessibility id\",\"value\":\"test-Menu\"}")));
+        String message = mismatch.getMessage();
+        assertContains(message, "session s1 at command #1 of 5 (sequential matching");
+        assertContains(message, "expected: POST /session/s1/element " + FIND_LOGIN);
+        assertContains(message, "actual:   POST /session/s1/element {\"using\":\"accessibility id\",\"value\":\"test-Menu\"}");
+        assertContains(message, "/value: \"test-LOGIN\" -> \"test-Menu\"");
+        Assert.assertFalse(message.contains("/using"), " Unchanged fields are not listed: " + message);
+        assertContains(message, "after:    POST /session " + NEW_SESSION);
+
+        // Once derailed, the session only answers its DELETE
+        ReplayMismatchException derailed = Assert.expectThrows(ReplayMismatchException.class,
+                () -> client.execute(get("/session/s1/element/e1/text")));
+        assertContains(derailed.getMessage(), "already diverged from the recording");
+        Assert.assertEquals(client.execute(delete("/session/s1")).getStatus(), 200);
+    }
+
+    @Test(description = "Sequential matching rejects reordered requests, extra requests and different capabilities")
+    public void testSequentialRejectsAnyOtherOrder() {
+        HttpClient reordered = replayer(SessionReplayer.Match.SEQUENTIAL).createClient(ClientConfig.defaultConfig());
+        reordered.execute(post("/session", NEW_SESSION));
+        String message = Assert.expectThrows(ReplayMismatchException.class,
+                () -> reordered.execute(get("/session/s1/element/e1/text"))).getMessage();
+        assertContains(message, "method: POST -> GET");
+        assertContains(message, "path: /session/s1/element -> /session/s1/element/e1/text");
+        assertContains(message, "body: " + FIND_LOGIN + " -> <missing>");
+
+        HttpClient extra = replayer(SessionReplayer.Match.SEQUENTIAL).createClient(ClientConfig.defaultConfig());
+        extra.execute(post("/session", NEW_SESSION));
+        extra.execute(post("/session", NEW_SESSION));
+        extra.execute(get("/session/s2/source"));
+        extra.execute(delete("/session/s2"));
+        message = Assert.expectThrows(ReplayMismatchException.class,
+                () -> extra.execute(get("/session/s2/source"))).getMessage();
+        assertContains(message, "command #3 of 2");
+        assertContains(message, "expected: <end of recording>");
+        assertContains(message, "after:    DELETE /session/s2");
+
+        HttpClient capabilities = replayer(SessionReplayer.Match.SEQUENTIAL).createClient(ClientConfig.defaultConfig());
+        message = Assert.expectThrows(ReplayMismatchException.class, () -> capabilities.execute(post("/session",
+                "{\"capabilities\":{\"alwaysMatch\":{\"platformName\":\"iOS\",\"appium:automationName\":\"UiAutomator2\"}}}")))
+                .getMessage();
+        assertContains(message, "at new session #1");
+        assertContains(message, "/capabilities/alwaysMatch/platformName: \"Android\" -> \"iOS\"");
+    }
+
+    @Test(description = "Request matching answers in any order and repeats the last recorded answer to a poll")
+    public void testRequestMatchingIgnoresOrderAndRepeatsTheLastAnswer() {
+        SessionReplayer replayer = replayer(SessionReplayer.Match.REQUEST);
+        HttpClient client = replayer.createClient(ClientConfig.defaultConfig());
+
+        // Capabilities are not compared in this mode
+        client.execute(post("/session", "{\"capabilities\":{\"alwaysMatch\":{\"platformName\":\"Android\"}}}"));
+        Assert.assertEquals(value(client, get("/session/s1/element/e1/text")).asText(), "LOGIN");
+        Assert.assertEquals(value(client, post("/session/s1/execute/sync", QUERY_APP_STATE)).asInt(), 3);
+        Assert.assertEquals(value(client, post("/session/s1/element", FIND_LOGIN))
+                .path("element-6066-11e4-a52e-4f735466cecf").asText(), "e1");
+        Assert.assertEquals(value(client, post("/session/s1/execute/sync", QUERY_APP_STATE)).asInt(), 4);
+        Assert.assertEquals(value(client, post("/session/s1/execute/sync", QUERY_APP_STATE)).asInt(), 4,
+                " Past the recording, a repeated request gets the last recorded answer");
+        Assert.assertEquals(value(client, get("/session/s1/element/e1/text")).asText(), "LOGIN");
+        Assert.assertEquals(replayer.getUnusedSessionCount(), 1);
+    }
+
+    @Test(description = "Request matching diffs an unrecorded request against the closest recorded one")
+    public void testRequestMismatchDiffsAgainstTheClosestRequest() {
+        HttpClient client = replayer(SessionReplayer.Match.REQUEST).createClient(ClientConfig.defaultConfig());
+        client.execute(post("/session", NEW_SESSION));
+
+        String message = Assert.expectThrows(ReplayMismatchException.class, () -> client.execute(post(
+                "/session/s1/execute/sync",
+                "{\"script\":\"mobile: queryAppState\",\"args\":[{\"appId\":\"com.android.settings\"}]}"))).getMessage();
+        assertContains(message, "session s1 at command #1 (request matching");
+        assertContains(message, "expected: POST /session/s1/execute/sync " + QUERY_APP_STATE);
+        assertContains(message, "/args/0/appId: \"com.swaglabsmobileapp\" -> \"com.android.settings\"");
+
+        HttpClient other = replayer(SessionReplayer.Match.REQUEST).createClient(ClientConfig.defaultConfig());
+        other.execute(post("/session", NEW_SESSION));
+        message = Assert.expectThrows(ReplayMismatchException.class,
+                () -> other.execute(get("/session/s1/screenshot"))).getMessage();
+        assertContains(message, "expected: GET /session/s1/element/e1/text");
+        assertContains(message, "path: /session/s1/element/e1/text -> /session/s1/screenshot");
+    }
+
+    @Test(description = "Sessions and server-level calls the recording does not have are refused")
+    public void testUnrecordedSessionsAreRefused() {
+        HttpClient client = replayer(SessionReplayer.Match.REQUEST).createClient(ClientConfig.defaultConfig());
+        client.execute(post("/session", NEW_SESSION));
+        client.execute(post("/session", NEW_SESSION));
+
+        assertContains(Assert.expectThrows(ReplayMismatchException.class,
+                () -> client.execute(post("/session", NEW_SESSION))).getMessage(),
+                "session #3 requested, but the recording only has 2 sessions");
+        assertContains(Assert.expectThrows(ReplayMismatchException.class,
+                () -> client.execute(get("/session/s9/source"))).getMessage(),
+                "session s9 was never started in this replay");
+        assertContains(Assert.expectThrows(ReplayMismatchException.class,
+                () -> client.execute(get("/sessions"))).getMessage(),
+                "nothing recorded for GET /sessions");
+    }
+
+
+    private static SessionReplayer replayer(SessionReplayer.Match match) {
+        try {
+            Path recording = Paths.get(SessionReplayerTest.class.getClassLoader()
+                    .getResource("replay/two-sessions.jsonl").toURI());
+            return new SessionReplayer(recording, match);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpRequest post(String uri, String json) {
+        HttpRequest request = new HttpRequest(HttpMethod.POST, uri);
+        request.setContent(Contents.utf8String(json));
+        return request;
+    }
+
+    private static HttpRequest get(String uri) {
+        return new HttpRequest(HttpMethod.GET, uri);
+    }
+
+    private static HttpRequest delete(String uri) {
+        return new HttpRequest(HttpMethod.DELETE, uri);
+    }
+
+
+    // "value" of the W3C answer
+
+    private static JsonNode value(HttpClient client, HttpRequest request) {
+        HttpResponse response = client.execute(request);
+        Assert.assertEquals(response.getStatus(), 200, " Status of " + request.getMethod() + " " + request.getUri());
+        try {
+            return RecordedExchange.MAPPER.readTree(Contents.string(response)).path("value");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void assertContains(String message, String part) {
+        Assert.assertTrue(message.contains(part), " Expected \"" + part + "\" in:" + System.lineSeparator() + message);
+    }
+}
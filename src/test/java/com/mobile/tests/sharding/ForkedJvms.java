@@ -0,0 +1,190 @@
+package com.mobile.tests.sharding;
+
+import com.mobile.tests.core.DriverManager;
+import com.mobile.tests.replay.DriverRecording;
+import com.mobile.tests.utils.ConfigReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+// Starting the JVMs of a sharded or work-queue run (ShardRunner, WorkCoordinator) and merging what
+// they wrote once they are done. Every JVM gets its own directory for Allure results, failure
+// artifacts, logs, command metrics, its trace and its console output (output.log).
+
+final class ForkedJvms {
+
+    private static final String jvmArgs = ConfigReader.getProperty("shardJvmArgs", "");
+
+    private ForkedJvms() {
+        // Prevent instantiation
+    }
+
+
+    // Devices are split between JVMs only through the registry, and all JVMs would share one recording file
+
+    static void checkSplittable(int jvms) {
+        if (jvms < 2) {
+            return;
+        }
+        if (DriverRecording.getMode() != DriverRecording.Mode.OFF) {
+            throw new IllegalStateException(" driverRecording=" + DriverRecording.getMode().name().toLowerCase()
+                    + " cannot be split over JVMs: all of them would use the same driverRecordingFile");
+        }
+        if (!DriverManager.isSimulated()
+                && !Boolean.parseBoolean(ConfigReader.getProperty("useDeviceRegistry", "false"))) {
+            throw new IllegalStateException(" Splitting a run on devices over JVMs needs useDeviceRegistry=true "
+                    + "so that each JVM gets its own devices from devicesFile");
+        }
+    }
+
+
+    // java [shardJvmArgs] [-D overrides of this JVM] [properties] -cp <test classpath> mainAndArgs
+
+    static Process start(Path dir, Map<String, String> properties, List<String> mainAndArgs) {
+        Map<String, String> all = new LinkedHashMap<>();
+        for (String key : forwardedProperties()) {
+            all.put(key, System.getProperty(key));
+        }
+        all.putAll(outputProperties(dir));
+        all.putAll(properties);
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        all.forEach((key, value) -> command.add("-D" + key + "=" + value));
+        command.add("-cp");
+        command.add(classPath());
+        command.addAll(mainAndArgs);
+
+        try {
+            Files.createDirectories(dir);
+            return new ProcessBuilder(command)
+                    .directory(Paths.get(System.getProperty("user.dir")).toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(dir.resolve("output.log").toFile())
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to start JVM for " + dir, e);
+        }
+    }
+
+
+    // Copy a finished JVM's Allure results into testHistoryDir and its artifacts into artifactDir;
+    // returns {Allure files, artifacts} copied
+
+    static int[] merge(Path dir, int index) {
+        int allureFiles = copyFlat(dir.resolve("allure-results"),
+                Paths.get(ConfigReader.getProperty("testHistoryDir", "allure-results")));
+        int artifacts = copyTree(dir.resolve("artifacts"),
+                Paths.get(ConfigReader.getProperty("artifactDir", "screenshots")), index);
+        return new int[]{allureFiles, artifacts};
+    }
+
+    static void deleteRecursively(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to clean " + dir, e);
+        }
+    }
+
+    static String seconds(long millis) {
+        return String.format("%.1f", millis / 1000.0);
+    }
+
+    private static Map<String, String> outputProperties(Path dir) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("artifactDir", dir.resolve("artifacts").toString());
+        properties.put("commandMetricsReport", dir.resolve("command-metrics.json").toString());
+        properties.put("log.dir", dir.resolve("logs").toString());
+        properties.put("traceFile", dir.resolve("trace.json").toString());
+        properties.put("allure.results.directory", dir.resolve("allure-results").toString());
+        return properties;
+    }
+
+
+    // -D overrides given to this JVM that the forked ones need too: config.properties keys and logging levels
+
+    private static TreeSet<String> forwardedProperties() {
+        TreeSet<String> keys = new TreeSet<>();
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (ConfigReader.keys().contains(key) || key.startsWith("log.")) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+
+    // Inside Surefire java.class.path is only its booter jar; the real test classpath is in surefire.test.class.path
+
+    private static String classPath() {
+        return System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+    }
+
+
+    // Allure result files have unique (UUID) names, so they are copied side by side
+
+    private static int copyFlat(Path from, Path to) {
+        if (!Files.isDirectory(from)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(from)) {
+            Files.createDirectories(to);
+            int copied = 0;
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, to.resolve(file.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+                copied++;
+            }
+            return copied;
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to merge " + from + " into " + to, e);
+        }
+    }
+
+
+    // Artifacts keep their <Class>/ folders; a name another JVM already used gets a _<index> suffix
+
+    private static int copyTree(Path from, Path to, int index) {
+        if (!Files.isDirectory(from)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(from)) {
+            int copied = 0;
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                Path target = to.resolve(from.relativize(file).toString());
+                if (Files.exists(target)) {
+                    String name = target.getFileName().toString();
+                    int dot = name.lastIndexOf('.');
+                    target = target.resolveSibling(dot < 0 ? name + "_" + index
+                            : name.substring(0, dot) + "_" + index + name.substring(dot));
+                }
+                Files.createDirectories(target.getParent());
+                Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+                copied++;
+            }
+            return copied;
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to merge " + from + " into " + to, e);
+        }
+    }
+}
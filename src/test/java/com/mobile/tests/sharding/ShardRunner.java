@@ -0,0 +1,159 @@
+package com.mobile.tests.sharding;
+
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Runs the suite as shardCount JVMs side by side instead of one Surefire JVM. Each shard is a plain
+// org.testng.TestNG run of shardSuite with -DshardIndex/-DshardCount, so ShardMethodInterceptor keeps
+// its share of the methods and DeviceRegistry its share of the devices. Shards write their Allure
+// results, failure artifacts, logs and command metrics under shardOutputDir/shard-<n>/. When all
+// have finished the Allure results are copied into testHistoryDir (allure-results/, so the next
+// run's plan sees them) and the artifacts into artifactDir, and one line per shard is logged.
+//
+// Run with "mvn test -Psharded -DshardCount=4" (this class is the only test of testng-sharded.xml)
+// or as a main class. -D overrides of config.properties keys and log.* are passed on to every shard.
+
+@Slf4j
+public class ShardRunner {
+
+    private final int shardCount = Integer.parseInt(ConfigReader.getProperty("shardCount", "1"));
+    private final String suite = ConfigReader.getProperty("shardSuite", "testng.xml");
+    private final Path outputDir = Paths.get(ConfigReader.getProperty("shardOutputDir", "target/shards"));
+    private final long timeoutMinutes = Long.parseLong(ConfigReader.getProperty("shardTimeoutMinutes", "60"));
+
+    public static void main(String[] args) {
+        List<ShardResult> results = new ShardRunner().run();
+        System.exit(results.stream().allMatch(ShardResult::succeeded) ? 0 : 1);
+    }
+
+    @Test(description = "Run the suite in shardCount forked JVMs and merge their results")
+    public void runShards() {
+        List<ShardResult> failed = run().stream().filter(result -> !result.succeeded()).toList();
+        if (!failed.isEmpty()) {
+            StringBuilder message = new StringBuilder(" " + failed.size() + " of " + shardCount + " shards failed:");
+            for (ShardResult result : failed) {
+                message.append(System.lineSeparator()).append("  ").append(result);
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+
+    // Start every shard, wait for all of them, merge their output and report
+
+    public List<ShardResult> run() {
+        ForkedJvms.checkSplittable(shardCount);
+        ForkedJvms.deleteRecursively(outputDir);
+
+        long started = System.nanoTime();
+        List<Process> processes = new ArrayList<>(shardCount);
+        for (int index = 0; index < shardCount; index++) {
+            processes.add(start(index));
+        }
+        log.info("Started {} shards of {} (output under {})", shardCount, suite, outputDir.toAbsolutePath());
+
+        long deadline = started + TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        List<ShardResult> results = new ArrayList<>(shardCount);
+        for (int index = 0; index < shardCount; index++) {
+            results.add(await(index, processes.get(index), started, deadline));
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        int allureFiles = 0;
+        int artifacts = 0;
+        for (int index = 0; index < shardCount; index++) {
+            int[] merged = ForkedJvms.merge(shardDir(index), index);
+            allureFiles += merged[0];
+            artifacts += merged[1];
+        }
+
+        results.forEach(result -> log.info("{}", result));
+        long busiest = results.stream().mapToLong(ShardResult::millis).max().orElse(0);
+        long total = results.stream().mapToLong(ShardResult::millis).sum();
+        log.info("Sharded run: {} shards in {} s, busiest shard {} s, shards together {} s ({}x); "
+                        + "merged {} Allure files and {} artifacts",
+                shardCount, ForkedJvms.seconds(wallMillis), ForkedJvms.seconds(busiest), ForkedJvms.seconds(total),
+                String.format("%.1f", wallMillis > 0 ? (double) total / wallMillis : 0), allureFiles, artifacts);
+        return results;
+    }
+
+
+    private Process start(int index) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("shardIndex", String.valueOf(index));
+        properties.put("shardCount", String.valueOf(shardCount));
+        return ForkedJvms.start(shardDir(index), properties,
+                List.of("org.testng.TestNG", "-d", shardDir(index).resolve("testng").toString(), suite));
+    }
+
+    private ShardResult await(int index, Process process, long started, long deadline) {
+        int exitCode;
+        try {
+            if (process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                exitCode = process.exitValue();
+            } else {
+                log.error("Shard {} still running after {} min, killing it", index, timeoutMinutes);
+                process.destroyForcibly().waitFor();
+                exitCode = -1;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            throw new IllegalStateException(" Interrupted while waiting for shard " + index, e);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        int[] counts = readCounts(shardDir(index).resolve("testng").resolve("testng-results.xml"));
+        return new ShardResult(index, exitCode, millis, counts[0], counts[1], counts[2], shardDir(index));
+    }
+
+
+    private Path shardDir(int index) {
+        return outputDir.resolve("shard-" + index);
+    }
+
+
+    // passed / failed / skipped from TestNG's testng-results.xml, -1 each when the shard wrote none
+
+    private static int[] readCounts(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new int[]{-1, -1, -1};
+        }
+        try {
+            Element root = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile()).getDocumentElement();
+            return new int[]{Integer.parseInt(root.getAttribute("passed")), Integer.parseInt(root.getAttribute("failed")),
+                    Integer.parseInt(root.getAttribute("skipped"))};
+        } catch (Exception e) {
+            log.warn("Failed to read {}: {}", file, e.getMessage());
+            return new int[]{-1, -1, -1};
+        }
+    }
+
+
+    // TestNG exits with 0, or with bit flags: 1 failed, 2 skipped, 4 failed within success percentage, 8 no tests
+
+    public record ShardResult(int index, int exitCode, long millis, int passed, int failed, int skipped, Path dir) {
+
+        public boolean succeeded() {
+            return exitCode >= 0 && exitCode < 16 && (exitCode & 1) == 0 && failed <= 0;
+        }
+
+        @Override
+        public String toString() {
+            String counts = passed < 0 ? "no results" : passed + " passed, " + failed + " failed, " + skipped + " skipped";
+            return String.format("Shard %d: %s, exit %d in %s s (%s)", index, counts, exitCode, ForkedJvms.seconds(millis),
+                    dir.resolve("output.log"));
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.mobile.tests.sharding;
+
+import com.mobile.tests.core.Shard;
+import com.mobile.tests.dataproviders.StreamingDataProviders;
+import com.mobile.tests.listeners.DurationHistory;
+import com.mobile.tests.listeners.LptMethodInterceptor;
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Work-stealing alternative to ShardRunner: instead of a fixed split decided up front, a queue in this
+// JVM hands the suite's test methods out one at a time, longest first, to `workers` WorkQueueWorker
+// JVMs over a localhost socket. A worker asks for the next method as soon as its last one is done, so
+// one long checkout test no longer leaves the other workers idle at the end. A method that fails (or
+// whose worker dies) is queued again for a worker that has not failed it yet, up to workRetries times.
+//
+// A streamed data-driven method (StreamingDataProviders) is queued as one item per worker, each for
+// the rows n % workers == i; the slice belongs to the item, so a retry runs the same rows.
+//
+// Each worker owns the devices n % workers == its index (through DeviceRegistry.forShard) and keeps
+// its sessions and servers for its whole life. A line is logged for every finished method, and at the
+// end the workers' Allure results and artifacts are merged as in a sharded run; Allure shows a method
+// that passed on retry with its failed attempt under Retries.
+//
+// Protocol, one tab-separated line each way:
+//   worker: READY <index>                          coordinator: RUN <id> <attempt> <test> <class> <method> <rows>
+//   worker: DONE <id> <passed> <failed> <skipped> <ms>   coordinator: RUN ... | EXIT
+// where <rows> is the slice of a streamed method's rows as <index>/<count>, or - for every row.
+
+@Slf4j
+public class WorkCoordinator {
+
+    private final int workers = Integer.parseInt(ConfigReader.getProperty("workers", "2"));
+    private final int retries = Integer.parseInt(ConfigReader.getProperty("workRetries", "1"));
+    private final String suite = ConfigReader.getProperty("shardSuite", "testng.xml");
+    private final Path outputDir = Paths.get(ConfigReader.getProperty("workQueueDir", "target/workqueue"));
+    private final long timeoutNanos =
+            (long) (Double.parseDouble(ConfigReader.getProperty("workTimeoutMinutes", "60")) * TimeUnit.MINUTES.toNanos(1));
+
+    // Queue state, guarded by this
+    private final Deque<Work> queue = new ArrayDeque<>();
+    private final Map<Integer, Work> running = new HashMap<>();
+    private final Set<Integer> connected = new HashSet<>();
+    private final List<Outcome> outcomes = new ArrayList<>();
+    private final Map<Integer, long[]> workerTotals = new TreeMap<>();
+    private int total;
+    private boolean closed;
+
+    public static void main(String[] args) {
+        List<Outcome> outcomes = new WorkCoordinator().run();
+        System.exit(outcomes.stream().allMatch(Outcome::passed) ? 0 : 1);
+    }
+
+    @Test(description = "Run the suite's methods on worker JVMs that pull them from a shared queue")
+    public void runWorkQueue() {
+        List<Outcome> failed = run().stream().filter(outcome -> !outcome.passed()).toList();
+        if (!failed.isEmpty()) {
+            StringBuilder message = new StringBuilder(" " + failed.size() + " of " + total + " methods failed:");
+            for (Outcome outcome : failed) {
+                message.append(System.lineSeparator()).append("  ").append(outcome);
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+
+    // Plan the queue, start the workers, serve them until every method has an outcome, then merge
+
+    public List<Outcome> run() {
+        ForkedJvms.checkSplittable(workers);
+        ForkedJvms.deleteRecursively(outputDir);
+        List<Work> plan = plan();
+        synchronized (this) {
+            queue.addAll(plan);
+            total = plan.size();
+        }
+
+        long started = System.nanoTime();
+        List<Process> processes = new ArrayList<>(workers);
+        boolean completed = false;
+        try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            Thread acceptor = new Thread(() -> accept(server), "work-queue-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            for (int index = 0; index < workers; index++) {
+                processes.add(startWorker(index, server.getLocalPort()));
+            }
+            log.info("Work queue: {} methods of {} for {} workers on port {} (output under {})",
+                    total, suite, workers, server.getLocalPort(), outputDir.toAbsolutePath());
+            completed = awaitQueue(processes, started + timeoutNanos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to open the work queue socket", e);
+        } finally {
+            stopWorkers(processes, completed);
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        int allureFiles = 0;
+        int artifacts = 0;
+        for (int index = 0; index < workers; index++) {
+            int[] merged = ForkedJvms.merge(workerDir(index), index);
+            allureFiles += merged[0];
+            artifacts += merged[1];
+        }
+        return report(wallMillis, allureFiles, artifacts);
+    }
+
+
+    // Every @Test method of every <test> in the suite, filtered by the <test>'s groups and <methods>
+    // the way TestNG would, longest first by DurationHistory (a streamed method once per slice of rows)
+
+    private List<Work> plan() {
+        XmlSuite xmlSuite = WorkQueueWorker.parseSuite(suite);
+        DurationHistory durations = DurationHistory.configured();
+        long defaultEstimate = LptMethodInterceptor.defaultEstimate(durations);
+
+        List<Work> plan = new ArrayList<>();
+        for (XmlTest test : xmlSuite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                for (Method method : testMethods(test, xmlClass)) {
+                    String qualifiedName = xmlClass.getName() + "." + method.getName();
+                    long estimate = durations.estimateMillis(qualifiedName).orElse(defaultEstimate);
+                    if (workers > 1 && StreamingDataProviders.isStreamed(method)) {
+                        for (int slice = 0; slice < workers; slice++) {
+                            plan.add(new Work(plan.size(), test.getName(), xmlClass.getName(), method.getName(),
+                                    new Shard(slice, workers), estimate / workers));
+                        }
+                    } else {
+                        plan.add(new Work(plan.size(), test.getName(), xmlClass.getName(), method.getName(), null, estimate));
+                    }
+                }
+            }
+        }
+        plan.sort(Comparator.comparingLong(Work::estimateMillis).reversed().thenComparing(Work::name));
+        return plan;
+    }
+
+    private static Collection<Method> testMethods(XmlTest test, XmlClass xmlClass) {
+        Class<?> testClass;
+        try {
+            testClass = Class.forName(xmlClass.getName(), false, WorkCoordinator.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(" Test class not found: " + xmlClass.getName(), e);
+        }
+        Set<String> included = new HashSet<>();
+        for (XmlInclude include : xmlClass.getIncludedMethods()) {
+            included.add(include.getName());
+        }
+        Test classTest = testClass.getAnnotation(Test.class);
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : testClass.getMethods()) {
+            Test methodTest = method.getAnnotation(Test.class);
+            if (methodTest == null || !methodTest.enabled()
+                    || (!included.isEmpty() && !included.contains(method.getName()))
+                    || xmlClass.getExcludedMethods().contains(method.getName())) {
+                continue;
+            }
+            Set<String> groups = new HashSet<>(Arrays.asList(methodTest.groups()));
+            if (classTest != null) {
+                groups.addAll(Arrays.asList(classTest.groups()));
+            }
+            if ((test.getIncludedGroups().isEmpty() || !Collections.disjoint(groups, test.getIncludedGroups()))
+                    && Collections.disjoint(groups, test.getExcludedGroups())) {
+                methods.putIfAbsent(method.getName(), method);
+            }
+        }
+        return methods.values();
+    }
+
+    private Process startWorker(int index, int port) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("workQueuePort", String.valueOf(port));
+        properties.put("workerIndex", String.valueOf(index));
+        // The worker's share of the device registry
+        properties.put("shardIndex", String.valueOf(index));
+        properties.put("shardCount", String.valueOf(workers));
+        return ForkedJvms.start(workerDir(index), properties, List.of(WorkQueueWorker.class.getName()));
+    }
+
+    private void accept(ServerSocket server) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread thread = new Thread(() -> serve(socket), "work-queue-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    log.warn("Work queue stopped accepting workers: {}", e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+
+    // One worker connection: hand out work until the queue says EXIT or the worker goes away
+
+    private void serve(Socket socket) {
+        int worker = -1;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            String[] ready = readLine(in);
+            worker = Integer.parseInt(ready[1]);
+            connected(worker);
+            while (true) {
+                Work work = next(worker);
+                if (work == null) {
+                    out.println("EXIT");
+                    return;
+                }
+                out.println(String.join("\t", "RUN", String.valueOf(work.id), String.valueOf(work.attempts),
+                        work.test, work.className, work.method,
+                        work.rows == null ? "-" : work.rows.index() + "/" + work.rows.count()));
+                String[] done = readLine(in);
+                finished(worker, work, Integer.parseInt(done[2]), Integer.parseInt(done[3]),
+                        Integer.parseInt(done[4]), Long.parseLong(done[5]));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Worker {} disconnected: {}", worker, e.getMessage());
+        } finally {
+            disconnected(worker);
+        }
+    }
+
+    private static String[] readLine(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new EOFException("connection closed");
+        }
+        return line.split("\t");
+    }
+
+    private synchronized void connected(int worker) {
+        connected.add(worker);
+        workerTotals.putIfAbsent(worker, new long[2]);
+        notifyAll();
+    }
+
+
+    // Next item for this worker; blocks while the only work left is running elsewhere (it may come back
+    // for a retry) or was already failed by this worker while another worker could take it
+
+    private synchronized Work next(int worker) {
+        while (true) {
+            for (Iterator<Work> it = queue.iterator(); it.hasNext(); ) {
+                Work work = it.next();
+                if (!work.failedOn.contains(worker) || !hasOtherWorker(work)) {
+                    it.remove();
+                    work.attempts++;
+                    running.put(worker, work);
+                    return work;
+                }
+            }
+            if (closed || (queue.isEmpty() && running.isEmpty())) {
+                return null;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private boolean hasOtherWorker(Work work) {
+        for (int worker : connected) {
+            if (!work.failedOn.contains(worker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void finished(int worker, Work work, int passed, int failed, int skipped, long millis) {
+        running.remove(worker);
+        long[] totals = workerTotals.get(worker);
+        totals[0]++;
+        totals[1] += millis;
+        boolean ok = failed == 0 && (passed > 0 || skipped == 0);
+        String result = ok ? "passed" : "failed";
+        if (!ok && retryable(work, worker)) {
+            log.info("[{}/{}] {} {} on worker {} in {} s ({} passed, {} failed, {} skipped), retrying on another worker | {}",
+                    outcomes.size(), total, result, work.name(), worker, ForkedJvms.seconds(millis),
+                    passed, failed, skipped, progress());
+        } else {
+            outcomes.add(new Outcome(work, ok, worker, work.attempts, ok ? "" : passed + " passed, " + failed + " failed, " + skipped + " skipped"));
+            log.info("[{}/{}] {} {} on worker {} in {} s{} | {}", outcomes.size(), total, result, work.name(), worker,
+                    ForkedJvms.seconds(millis), work.attempts > 1 ? " (attempt " + work.attempts + ")" : "", progress());
+        }
+        notifyAll();
+    }
+
+    private synchronized void disconnected(int worker) {
+        connected.remove(worker);
+        Work work = running.remove(worker);
+        if (work != null) {
+            if (retryable(work, worker)) {
+                log.warn("Worker {} went away while running {}, queued it again", worker, work.name());
+            } else {
+                outcomes.add(new Outcome(work, false, worker, work.attempts, "worker exited during the run"));
+            }
+        }
+        notifyAll();
+    }
+
+
+    // Queue a failed item again, at the front, unless it used up its retries
+
+    private boolean retryable(Work work, int worker) {
+        if (closed || work.attempts > retries) {
+            return false;
+        }
+        work.failedOn.add(worker);
+        queue.addFirst(work);
+        return true;
+    }
+
+    private String progress() {
+        long queuedMillis = queue.stream().mapToLong(Work::estimateMillis).sum();
+        long failed = outcomes.stream().filter(outcome -> !outcome.passed()).count();
+        return String.format("running %d, queued %d, failed %d, ETA %s s", running.size(), queue.size(), failed,
+                ForkedJvms.seconds(queuedMillis / Math.max(1, connected.size())));
+    }
+
+    // Wait until every method has an outcome; on timeout, or when no worker is left, whatever is still
+    // queued or running is recorded as failed. Returns whether the queue ran to the end
+
+    private synchronized boolean awaitQueue(List<Process> processes, long deadline) {
+        while (!(queue.isEmpty() && running.isEmpty())) {
+            if (System.nanoTime() > deadline) {
+                log.error("Work queue still busy after {} s, stopping the workers",
+                        ForkedJvms.seconds(TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+                break;
+            }
+            if (connected.isEmpty() && processes.stream().noneMatch(Process::isAlive)) {
+                log.error("All workers exited with {} methods still queued", queue.size());
+                break;
+            }
+            try {
+                wait(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        boolean completed = queue.isEmpty() && running.isEmpty();
+        running.forEach((worker, work) ->
+                outcomes.add(new Outcome(work, false, worker, work.attempts, "still running when the queue stopped")));
+        for (Work work : queue) {
+            outcomes.add(new Outcome(work, false, -1, work.attempts, "never finished"));
+        }
+        running.clear();
+        queue.clear();
+        closed = true;
+        notifyAll();
+        return completed;
+    }
+
+
+    // Workers leave on EXIT; after a timeout they are killed straight away
+
+    private void stopWorkers(List<Process> processes, boolean completed) {
+        for (Process process : processes) {
+            try {
+                if (!completed || !process.waitFor(60, TimeUnit.SECONDS)) {
+                    if (completed) {
+                        log.warn("Worker JVM {} did not exit, killing it", process.pid());
+                    }
+                    process.destroyForcibly().waitFor();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private synchronized List<Outcome> report(long wallMillis, int allureFiles, int artifacts) {
+        workerTotals.forEach((worker, totals) -> log.info("Worker {}: {} runs, busy {} s ({})", worker, totals[0],
+                ForkedJvms.seconds(totals[1]), workerDir(worker).resolve("output.log")));
+        long passed = outcomes.stream().filter(Outcome::passed).count();
+        long retried = outcomes.stream().filter(outcome -> outcome.passed() && outcome.attempts() > 1).count();
+        log.info("Work queue: {} methods on {} workers in {} s ({} passed, {} of them on retry, {} failed); "
+                        + "merged {} Allure files and {} artifacts", outcomes.size(), workers,
+                ForkedJvms.seconds(wallMillis), passed, retried, outcomes.size() - passed, allureFiles, artifacts);
+        outcomes.stream().filter(outcome -> !outcome.passed()).forEach(outcome -> log.warn("Failed: {}", outcome));
+        return List.copyOf(outcomes);
+    }
+
+    private Path workerDir(int index) {
+        return outputDir.resolve("worker-" + index);
+    }
+
+    private static final class Work {
+        private final int id;
+        private final String test;
+        private final String className;
+        private final String method;
+        private final Shard rows;
+        private final long estimateMillis;
+        private final Set<Integer> failedOn = new HashSet<>();
+        private int attempts;
+
+        private Work(int id, String test, String className, String method, Shard rows, long estimateMillis) {
+            this.id = id;
+            this.test = test;
+            this.className = className;
+            this.method = method;
+            this.rows = rows;
+            this.estimateMillis = estimateMillis;
+        }
+
+        private long estimateMillis() {
+            return estimateMillis;
+        }
+
+        private String name() {
+            return className.substring(className.lastIndexOf('.') + 1) + "." + method
+                    + (rows == null ? "" : " [rows " + rows.index() + "/" + rows.count() + "]");
+        }
+    }
+
+    public record Outcome(String method, String test, boolean passed, int worker, int attempts, String detail) {
+
+        private Outcome(Work work, boolean passed, int worker, int attempts, String detail) {
+            this(work.name(), work.test, passed, worker, attempts, detail);
+        }
+
+        @Override
+        public String toString() {
+            return method + " (" + test + ") " + (passed ? "passed" : "failed") + " after " + attempts
+                    + " attempt(s), last on worker " + worker + (detail.isEmpty() ? "" : ": " + detail);
+        }
+    }
+}
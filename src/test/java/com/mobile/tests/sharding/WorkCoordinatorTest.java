@@ -0,0 +1,172 @@
+package com.mobile.tests.sharding;
+
+import com.mobile.tests.core.Shard;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// WorkCoordinator end to end: real worker JVMs, each logging in on its own simulated Appium server,
+// run WorkQueueFixtures methods that fail, kill their worker or hang on purpose. Each run gets its own
+// suite file, queue directory and Allure/artifact merge target under target/workqueue-test, so
+// nothing reaches the real allure-results. The settings are System properties read when the
+// coordinator is built, so the methods run one at a time. Inside a shard or worker JVM of a sharded
+// or work-queue run the class is skipped rather than forking workers of its own.
+
+@Test(singleThreaded = true)
+public class WorkCoordinatorTest {
+
+    private static final Path ROOT = Paths.get("target", "workqueue-test");
+
+    private final Map<String, String> previous = new HashMap<>();
+
+    @BeforeClass
+    public void skipInsideShards() {
+        if (Shard.current().isSharded()) {
+            throw new SkipException(" Not run inside " + Shard.current());
+        }
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreSettings() {
+        previous.forEach((key, value) -> {
+            if (value == null) {
+                System.clearProperty(key);
+            } else {
+                System.setProperty(key, value);
+            }
+        });
+        previous.clear();
+    }
+
+    @Test(description = "A failed method is retried on a worker that has not failed it, until workRetries runs out")
+    public void testFailedMethodIsRetriedOnAnotherWorker() throws IOException {
+        Map<String, WorkCoordinator.Outcome> outcomes = runQueue("retry", 2, 1, "60",
+                "testLogsIn", "testFailsOnFirstAttempt", "testAlwaysFails");
+
+        WorkCoordinator.Outcome logsIn = outcomes.get("testLogsIn");
+        Assert.assertTrue(logsIn.passed(), " " + logsIn);
+        Assert.assertEquals(logsIn.attempts(), 1);
+
+        WorkCoordinator.Outcome flaky = outcomes.get("testFailsOnFirstAttempt");
+        Assert.assertTrue(flaky.passed(), " Should pass on retry: " + flaky);
+        Assert.assertEquals(flaky.attempts(), 2);
+        assertDistinctWorkers("retry", "testFailsOnFirstAttempt", 2, flaky.worker());
+
+        WorkCoordinator.Outcome broken = outcomes.get("testAlwaysFails");
+        Assert.assertFalse(broken.passed(), " " + broken);
+        Assert.assertEquals(broken.attempts(), 2, " One run plus workRetries=1");
+        Assert.assertEquals(broken.detail(), "0 passed, 1 failed, 0 skipped");
+        assertDistinctWorkers("retry", "testAlwaysFails", 2, broken.worker());
+    }
+
+    @Test(description = "The method a worker was running when its JVM died is queued again for the surviving worker")
+    public void testMethodOfDeadWorkerIsRetried() throws IOException {
+        Map<String, WorkCoordinator.Outcome> outcomes = runQueue("death", 2, 1, "60",
+                "testLogsIn", "testWorkerDiesOnFirstAttempt");
+
+        Assert.assertTrue(outcomes.get("testLogsIn").passed(), " " + outcomes.get("testLogsIn"));
+        WorkCoordinator.Outcome survivor = outcomes.get("testWorkerDiesOnFirstAttempt");
+        Assert.assertTrue(survivor.passed(), " Should pass on the surviving worker: " + survivor);
+        Assert.assertEquals(survivor.attempts(), 2);
+        List<String> workers = assertDistinctWorkers("death", "testWorkerDiesOnFirstAttempt", 2, survivor.worker());
+        Assert.assertTrue(Files.readString(queueDir("death").resolve("worker-" + workers.get(0)).resolve("output.log"))
+                        .contains("testWorkerDiesOnFirstAttempt"),
+                " The dead worker's log should end in the method that killed it");
+    }
+
+    @Test(description = "At workTimeoutMinutes the running and queued methods are failed and the workers killed")
+    public void testTimeoutStopsTheQueue() throws IOException {
+        long started = System.nanoTime();
+        Map<String, WorkCoordinator.Outcome> outcomes = runQueue("timeout", 1, 1, "0.2",
+                "testHangs", "testLogsIn");
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+
+        // Equal estimates, so the queue is in name order: testHangs first, on the only worker
+        WorkCoordinator.Outcome hung = outcomes.get("testHangs");
+        Assert.assertFalse(hung.passed());
+        Assert.assertEquals(hung.detail(), "still running when the queue stopped");
+        Assert.assertEquals(hung.worker(), 0);
+        WorkCoordinator.Outcome queued = outcomes.get("testLogsIn");
+        Assert.assertFalse(queued.passed());
+        Assert.assertEquals(queued.detail(), "never finished");
+        Assert.assertEquals(queued.attempts(), 0);
+        Assert.assertTrue(seconds < 60, " The hung worker should have been killed, the run took " + seconds + " s");
+    }
+
+
+    // Run the given fixture methods through a fresh coordinator; outcomes by method name
+
+    private Map<String, WorkCoordinator.Outcome> runQueue(String name, int workers, int retries, String timeoutMinutes,
+                                                          String... methods) throws IOException {
+        Path suite = ROOT.resolve(name + "-suite.xml");
+        Files.createDirectories(ROOT);
+        Files.writeString(suite, suiteXml(name, methods));
+        ForkedJvms.deleteRecursively(ROOT.resolve(name + "-merged"));
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("executionMode", "simulated");
+        settings.put("workers", String.valueOf(workers));
+        settings.put("workRetries", String.valueOf(retries));
+        settings.put("workTimeoutMinutes", timeoutMinutes);
+        settings.put("shardSuite", suite.toString());
+        settings.put("workQueueDir", queueDir(name).toString());
+        settings.put("testHistoryDir", ROOT.resolve(name + "-merged").resolve("allure-results").toString());
+        settings.put("artifactDir", ROOT.resolve(name + "-merged").resolve("artifacts").toString());
+        settings.forEach((key, value) -> previous.putIfAbsent(key, System.setProperty(key, value)));
+
+        List<WorkCoordinator.Outcome> outcomes = new WorkCoordinator().run();
+        Assert.assertEquals(outcomes.size(), methods.length, " One outcome per method: " + outcomes);
+        return outcomes.stream().collect(Collectors.toMap(
+                outcome -> outcome.method().substring(outcome.method().lastIndexOf('.') + 1), Function.identity()));
+    }
+
+
+    // Workers that ran the method's attempts, in order; checks they are all different and the last is lastWorker
+
+    private static List<String> assertDistinctWorkers(String name, String method, int attempts, int lastWorker)
+            throws IOException {
+        List<String> workers = Files.readAllLines(queueDir(name).resolve("fixtures").resolve("attempts").resolve(method));
+        Assert.assertEquals(workers.size(), attempts, " Attempts of " + method + ": " + workers);
+        Assert.assertEquals(workers.stream().distinct().count(), (long) attempts,
+                " Each attempt of " + method + " should run on a different worker: " + workers);
+        Assert.assertEquals(workers.get(workers.size() - 1), String.valueOf(lastWorker));
+        return workers;
+    }
+
+    private static Path queueDir(String name) {
+        return ROOT.resolve(name).toAbsolutePath();
+    }
+
+    private static String suiteXml(String name, String... methods) {
+        StringBuilder includes = new StringBuilder();
+        for (String method : methods) {
+            includes.append("                    <include name=\"").append(method).append("\"/>\n");
+        }
+        return "<!DOCTYPE suite SYSTEM \"https://testng.org/testng-1.0.dtd\">\n"
+                + "<suite name=\"Work Queue " + name + "\">\n"
+                + "    <test name=\"Fixtures\">\n"
+                + "        <classes>\n"
+                + "            <class name=\"" + WorkQueueFixtures.class.getName() + "\">\n"
+                + "                <methods>\n"
+                + includes
+                + "                </methods>\n"
+                + "            </class>\n"
+                + "        </classes>\n"
+                + "    </test>\n"
+                + "</suite>\n";
+    }
+}
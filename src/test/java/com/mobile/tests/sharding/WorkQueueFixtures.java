@@ -0,0 +1,133 @@
+package com.mobile.tests.sharding;
+
+import com.mobile.tests.base.BaseTest;
+import com.mobile.tests.core.DriverManager;
+import com.mobile.tests.pages.LoginPage;
+import com.mobile.tests.utils.ConfigReader;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Methods for the work-queue runs of WorkCoordinatorTest; no suite file lists them. Each logs in on the
+// simulated Appium server and then passes, fails, kills its worker JVM or hangs on purpose. Every
+// attempt appends the index of the worker that ran it to <workQueueDir>/fixtures/attempts/<method>.
+// A method that fails or dies first waits until every worker has started a method, so the coordinator
+// always has another connected worker to send the retry to.
+
+public class WorkQueueFixtures extends BaseTest {
+
+    private static final long WORKERS_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    @BeforeMethod(alwaysRun = true)
+    public void markWorkerStarted() {
+        write(fixturesDir().resolve("workers").resolve(workerIndex()), "", StandardOpenOption.CREATE);
+    }
+
+    @Test
+    public void testLogsIn() {
+        logIn();
+    }
+
+    @Test
+    public void testFailsOnFirstAttempt() {
+        int attempt = recordAttempt("testFailsOnFirstAttempt");
+        logIn();
+        if (attempt == 1) {
+            awaitAllWorkers();
+            Assert.fail(" Deliberate failure on the first attempt");
+        }
+    }
+
+    @Test
+    public void testAlwaysFails() {
+        recordAttempt("testAlwaysFails");
+        logIn();
+        awaitAllWorkers();
+        Assert.fail(" Deliberate failure on every attempt");
+    }
+
+    @Test
+    public void testWorkerDiesOnFirstAttempt() {
+        int attempt = recordAttempt("testWorkerDiesOnFirstAttempt");
+        logIn();
+        if (attempt == 1) {
+            awaitAllWorkers();
+            Runtime.getRuntime().halt(3);
+        }
+    }
+
+    @Test
+    public void testHangs() throws InterruptedException {
+        recordAttempt("testHangs");
+        Thread.sleep(TimeUnit.MINUTES.toMillis(10));
+    }
+
+
+    static Path fixturesDir() {
+        return Paths.get(ConfigReader.getProperty("workQueueDir", "target/workqueue"), "fixtures");
+    }
+
+    private static void logIn() {
+        LoginPage loginPage = new LoginPage(DriverManager.getDriver());
+        Assert.assertTrue(loginPage.loginToProducts("standard_user", "secret_sauce").isPageDisplayed(),
+                " Products page was not displayed after login");
+    }
+
+    private static int recordAttempt(String method) {
+        Path file = fixturesDir().resolve("attempts").resolve(method);
+        write(file, workerIndex() + System.lineSeparator(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        try {
+            return Files.readAllLines(file).size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void awaitAllWorkers() {
+        int workers = Integer.parseInt(ConfigReader.getProperty("workers", "2"));
+        Path dir = fixturesDir().resolve("workers");
+        long deadline = System.currentTimeMillis() + WORKERS_TIMEOUT_MILLIS;
+        while (count(dir) < workers) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException(" Only " + count(dir) + " of " + workers + " workers started a method");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static long count(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String workerIndex() {
+        return ConfigReader.getProperty("workerIndex", "0");
+    }
+
+    private static void write(Path file, String text, StandardOpenOption... options) {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, text, StandardCharsets.UTF_8, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
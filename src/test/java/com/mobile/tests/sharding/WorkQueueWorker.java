@@ -0,0 +1,145 @@
+package com.mobile.tests.sharding;
+
+import com.mobile.tests.base.BaseTest;
+import com.mobile.tests.utils.ConfigReader;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.SuiteXmlParser;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One worker JVM of a WorkCoordinator run: connects to the coordinator on workQueuePort and runs
+// the methods it is handed, each as a one-method TestNG suite with the <test> name and settings of
+// shardSuite, so Allure groups the results as in a normal run. BaseTest's suite is held open for
+// the worker's life, so sessions, pooled drivers and local servers are reused from one method to
+// the next and closed once after the coordinator says EXIT.
+
+@Slf4j
+public final class WorkQueueWorker {
+
+    private WorkQueueWorker() {
+        // Prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        int port = Integer.parseInt(ConfigReader.getProperty("workQueuePort"));
+        int index = Integer.parseInt(ConfigReader.getProperty("workerIndex"));
+        XmlSuite template = parseSuite(ConfigReader.getProperty("shardSuite", "testng.xml"));
+
+        BaseTest.holdSuite();
+        int runs = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            out.println("READY\t" + index);
+            String line;
+            while ((line = in.readLine()) != null && line.startsWith("RUN\t")) {
+                String[] run = line.split("\t");
+                log.info("Worker {}: {}.{} (attempt {}{})", index, run[4], run[5], run[2],
+                        "-".equals(run[6]) ? "" : ", rows " + run[6]);
+                long started = System.nanoTime();
+                int[] counts = runMethod(template, run[3], run[4], run[5], run[6]);
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                out.println(String.join("\t", "DONE", run[1], String.valueOf(counts[0]), String.valueOf(counts[1]),
+                        String.valueOf(counts[2]), String.valueOf(millis)));
+                runs++;
+            }
+        } catch (IOException e) {
+            log.error("Worker {} lost the coordinator: {}", index, e.getMessage());
+        } finally {
+            BaseTest.closeSuite();
+            log.info("Worker {} done after {} runs", index, runs);
+        }
+        System.exit(0);
+    }
+
+
+    // Run one method in a fresh TestNG run; returns passed / failed / skipped invocations. A slice of
+    // rows (<index>/<count>) is handed to StreamingDataProviders through dataShardIndex/dataShardCount
+
+    private static int[] runMethod(XmlSuite template, String testName, String className, String method, String rows) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(template.getName());
+        suite.setVerbose(0);
+        suite.setDataProviderThreadCount(template.getDataProviderThreadCount());
+        XmlTest test = new XmlTest(suite);
+        test.setName(testName);
+        XmlClass xmlClass = new XmlClass(className, false);
+        xmlClass.setIncludedMethods(List.of(new XmlInclude(method)));
+        test.setXmlClasses(List.of(xmlClass));
+
+        Counter counter = new Counter();
+        TestNG testng = new TestNG(false);
+        testng.setXmlSuites(List.of(suite));
+        testng.setOutputDirectory(Paths.get(ConfigReader.getProperty("log.dir", "target/logs"), "testng").toString());
+        testng.addListener(counter);
+        if (!"-".equals(rows)) {
+            String[] slice = rows.split("/");
+            System.setProperty("dataShardIndex", slice[0]);
+            System.setProperty("dataShardCount", slice[1]);
+        }
+        try {
+            testng.run();
+        } finally {
+            System.clearProperty("dataShardIndex");
+            System.clearProperty("dataShardCount");
+        }
+        return new int[]{counter.passed.get(), counter.failed.get(), counter.skipped.get()};
+    }
+
+
+    // The suite file as TestNG reads it, without loading the test classes
+
+    static XmlSuite parseSuite(String path) {
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            return new SuiteXmlParser().parse(path, in, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(" Failed to parse suite " + path, e);
+        }
+    }
+
+    private static final class Counter implements ITestListener {
+        private final AtomicInteger passed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+
+        @Override
+        public void onTestSuccess(ITestResult result) {
+            passed.incrementAndGet();
+        }
+
+        @Override
+        public void onTestFailure(ITestResult result) {
+            failed.incrementAndGet();
+        }
+
+        @Override
+        public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+            failed.incrementAndGet();
+        }
+
+        @Override
+        public void onTestSkipped(ITestResult result) {
+            skipped.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.mobile.tests.snapshot;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// SnapshotQuery and PageSnapshot against the page sources recorded from the Swag Labs app
+// (pagesources/*.xml): each row is a page, a locator and the attribute values of every match in
+// document order, so a wrong node, a missing node or a wrong order all fail the row.
+
+public class SnapshotQueryTest {
+
+    private static final List<String> PRODUCT_NAMES = List.of(
+            "Sauce Labs Backpack", "Sauce Labs Bike Light", "Sauce Labs Bolt T-Shirt", "Sauce Labs Fleece Jacket");
+    private static final List<String> PRODUCT_PRICES = List.of("$29.99", "$9.99", "$15.99", "$49.99");
+    private static final String ITEM = "//android.view.ViewGroup[@content-desc='test-Item']";
+
+    private final Map<String, PageSnapshot> pages = new ConcurrentHashMap<>();
+
+    @DataProvider(name = "matches")
+    public Object[][] matches() {
+        return new Object[][]{
+                // Plain locator strategies
+                {"products", AppiumBy.accessibilityId("test-Item title"), "text", PRODUCT_NAMES},
+                {"products", By.id("android:id/content"), "resource-id", List.of("android:id/content")},
+                {"products", By.id("content"), "resource-id", List.of("android:id/content")},
+                {"login", By.className("android.widget.EditText"), "text", List.of("Username", "Password")},
+
+                // Attribute predicates, both quote styles
+                {"products", By.xpath("//android.widget.TextView[@content-desc='test-Price']"), "text", PRODUCT_PRICES},
+                {"products", By.xpath("//android.widget.TextView[@content-desc=\"test-Price\"]"), "text", PRODUCT_PRICES},
+                {"products", By.xpath("//*[text()='PRODUCTS']"), "text", List.of("PRODUCTS")},
+                {"products", By.xpath("//*[@resource-id]"), "resource-id", List.of("android:id/content")},
+                {"login", By.xpath("//*[@password='true']"), "text", List.of("Password")},
+                {"login", By.xpath("//android.widget.EditText[@content-desc!='test-Username']"), "text", List.of("Password")},
+                {"products", By.xpath("//*[@content-desc='no such element']"), "text", List.of()},
+
+                // contains(), starts-with() and the boolean operators
+                {"products", By.xpath("//*[contains(@content-desc, 'Item')]"), "content-desc", List.of(
+                        "test-Item", "test-Item title", "test-Item", "test-Item title",
+                        "test-Item", "test-Item title", "test-Item", "test-Item title")},
+                {"login-error", By.xpath("//*[contains(text(), 'do not match')]"), "text",
+                        List.of("Username and password do not match any user in this service.")},
+                {"products", By.xpath("//android.widget.TextView[starts-with(text(), 'Sauce Labs B')]"), "text",
+                        PRODUCT_NAMES.subList(0, 3)},
+                {"products", By.xpath("//android.widget.TextView[contains(text(), '$') or text()='PRODUCTS']"), "text",
+                        List.of("PRODUCTS", "$29.99", "$9.99", "$15.99", "$49.99")},
+                {"products", By.xpath("//android.widget.TextView[contains(text(), '$') and not(contains(text(), '.99'))]"),
+                        "text", List.of()},
+                {"products", By.xpath("//android.widget.TextView[starts-with(text(), 'Sauce') and (contains(text(), 'Bike') or contains(text(), 'Fleece'))]"),
+                        "text", List.of("Sauce Labs Bike Light", "Sauce Labs Fleece Jacket")},
+
+                // Child steps: / only looks one level down, // the whole subtree
+                {"products", By.xpath(ITEM + "/android.widget.TextView"), "text", List.of(
+                        "Sauce Labs Backpack", "$29.99", "Sauce Labs Bike Light", "$9.99",
+                        "Sauce Labs Bolt T-Shirt", "$15.99", "Sauce Labs Fleece Jacket", "$49.99")},
+                {"products", By.xpath(ITEM + "//android.widget.TextView[@text='ADD TO CART']"), "text",
+                        List.of("ADD TO CART", "ADD TO CART", "ADD TO CART", "ADD TO CART")},
+                {"products", By.xpath(ITEM + "/android.widget.TextView[@text='ADD TO CART']"), "text", List.of()},
+                {"products", By.xpath(ITEM + "/*/android.widget.ImageView"), "class",
+                        List.of("android.widget.ImageView", "android.widget.ImageView",
+                                "android.widget.ImageView", "android.widget.ImageView")},
+                {"products", By.xpath("/hierarchy/android.widget.FrameLayout"), "class", List.of("android.widget.FrameLayout")},
+                {"products", By.xpath("/android.widget.FrameLayout"), "class", List.of()},
+
+                // Indexes count among the step's matches under the same parent, from 1
+                {"products", By.xpath(ITEM + "/android.widget.TextView[1]"), "text", PRODUCT_NAMES},
+                {"products", By.xpath(ITEM + "/android.widget.TextView[last()]"), "text", PRODUCT_PRICES},
+                {"products", By.xpath(ITEM + "/*[2]"), "text", PRODUCT_NAMES},
+                {"products", By.xpath(ITEM + "[2]/android.widget.TextView[@content-desc='test-Price']"), "text",
+                        List.of("$9.99")},
+                {"products", By.xpath(ITEM + "[last()]//*[@content-desc='test-Item title']"), "text",
+                        List.of("Sauce Labs Fleece Jacket")},
+                {"products", By.xpath(ITEM + "[5]"), "text", List.of()},
+                {"products", By.xpath(ITEM + "/android.widget.TextView[contains(text(), '$')][1]"), "text", PRODUCT_PRICES},
+
+                // UiSelector chains
+                {"login", AppiumBy.androidUIAutomator("new UiSelector().className(\"android.widget.EditText\").instance(1)"),
+                        "text", List.of("Password")},
+                {"login", AppiumBy.androidUIAutomator("new UiSelector().description(\"test-LOGIN\");"),
+                        "content-desc", List.of("test-LOGIN")},
+                {"login-error", AppiumBy.androidUIAutomator("new UiSelector().descriptionContains(\"Error\")"),
+                        "content-desc", List.of("test-Error message")},
+                {"products", AppiumBy.androidUIAutomator("new UiSelector().textStartsWith(\"Sauce\").index(1)"),
+                        "text", PRODUCT_NAMES},
+                {"products", AppiumBy.androidUIAutomator("new UiSelector().scrollable(true)"),
+                        "content-desc", List.of("test-PRODUCTS")},
+        };
+    }
+
+    @Test(dataProvider = "matches", description = "Each supported locator matches the recorded nodes in document order")
+    public void testLocatorMatchesRecordedNodes(String page, By locator, String attribute, List<String> expected) {
+        PageSnapshot snapshot = page(page);
+
+        Assert.assertTrue(PageSnapshot.supports(locator), " Locator should compile: " + locator);
+        Assert.assertEquals(snapshot.attributes(locator, attribute), expected, " Matches of " + locator + " on " + page);
+        Assert.assertEquals(snapshot.count(locator), expected.size(), " Count of " + locator + " on " + page);
+        Assert.assertEquals(snapshot.findAll(locator).size(), expected.size(), " findAll of " + locator + " on " + page);
+    }
+
+    @DataProvider(name = "unsupported")
+    public Object[][] unsupported() {
+        return new Object[][]{
+                {By.xpath("//*[@content-desc='test-Item']/following-sibling::*")},
+                {By.xpath("(//android.widget.TextView)[1]")},
+                {By.xpath("//android.widget.TextView[position()=1]")},
+                {By.xpath("//android.widget.TextView[@text='unterminated]")},
+                {By.xpath("android.widget.TextView")},
+                {AppiumBy.androidUIAutomator("new UiSelector().description(\"test-Item\").childSelector(new UiSelector().index(1))")},
+                {AppiumBy.androidUIAutomator("new UiScrollable(new UiSelector().scrollable(true)).scrollIntoView(new UiSelector().text(\"x\"))")},
+                {AppiumBy.androidUIAutomator("new UiSelector().password(true)")},
+                {By.cssSelector("div.item")},
+                {By.linkText("PRODUCTS")},
+        };
+    }
+
+    @Test(dataProvider = "unsupported", description = "Locators outside the subset compile to null and snapshot reads refuse them")
+    public void testUnsupportedLocatorIsRefused(By locator) {
+        PageSnapshot snapshot = page("products");
+
+        Assert.assertNull(SnapshotQuery.compile(locator), " Locator should not compile: " + locator);
+        Assert.assertFalse(PageSnapshot.supports(locator));
+        UnsupportedOperationException refused =
+                Assert.expectThrows(UnsupportedOperationException.class, () -> snapshot.count(locator));
+        Assert.assertTrue(refused.getMessage().contains("not supported by page snapshots"), refused.getMessage());
+        Assert.expectThrows(UnsupportedOperationException.class, () -> snapshot.findAll(locator));
+        Assert.expectThrows(UnsupportedOperationException.class, () -> snapshot.node(1).findAll(locator));
+    }
+
+    @Test(description = "Node.findAll and Node.text stay inside the node's subtree")
+    public void testNodeQueriesAreScopedToTheSubtree() {
+        PageSnapshot snapshot = page("products");
+        List<PageSnapshot.Node> items = snapshot.findAll(AppiumBy.accessibilityId("test-Item"));
+
+        Assert.assertEquals(items.size(), 4);
+        for (int i = 0; i < items.size(); i++) {
+            PageSnapshot.Node item = items.get(i);
+            Assert.assertEquals(item.text(AppiumBy.accessibilityId("test-Item title")), PRODUCT_NAMES.get(i));
+            Assert.assertEquals(item.text(AppiumBy.accessibilityId("test-Price")), PRODUCT_PRICES.get(i));
+            Assert.assertEquals(item.findAll(By.xpath("//android.widget.TextView")).size(), 3,
+                    " Title, price and button label of item " + i);
+            Assert.assertEquals(item.text(AppiumBy.accessibilityId("test-Menu")), "", " Menu lies outside the item");
+            Assert.assertTrue(item.findAll(AppiumBy.accessibilityId("test-Item")).isEmpty(),
+                    " The node itself is never matched");
+        }
+
+        PageSnapshot.Node title = snapshot.findAll(AppiumBy.accessibilityId("test-Item title")).get(1);
+        Assert.assertEquals(title.getParent().getIndex(), items.get(1).getIndex());
+        Assert.assertEquals(snapshot.node(title.getIndex()).getText(), "Sauce Labs Bike Light");
+        Assert.assertEquals(title.getTag(), "android.widget.TextView");
+    }
+
+    @Test(description = "isDisplayed follows the recorded displayed attribute")
+    public void testIsDisplayedReadsTheDisplayedAttribute() {
+        PageSnapshot overview = page("checkout-overview");
+
+        Assert.assertTrue(overview.count(AppiumBy.accessibilityId("test-FINISH")) > 0);
+        Assert.assertFalse(overview.isDisplayed(AppiumBy.accessibilityId("test-FINISH")),
+                " FINISH is below the fold on the overview's first screen");
+        Assert.assertTrue(overview.isDisplayed(AppiumBy.accessibilityId("test-Menu")));
+        Assert.assertFalse(overview.isDisplayed(AppiumBy.accessibilityId("no such element")));
+    }
+
+
+    // Parsed once per page; the tests only read from a snapshot
+
+    private PageSnapshot page(String name) {
+        return pages.computeIfAbsent(name, SnapshotQueryTest::load);
+    }
+
+    private static PageSnapshot load(String name) {
+        String resource = "pagesources/" + name + ".xml";
+        try (InputStream in = SnapshotQueryTest.class.getClassLoader().getResourceAsStream(resource)) {
+            Assert.assertNotNull(in, " Missing page source " + resource);
+            return PageSnapshot.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
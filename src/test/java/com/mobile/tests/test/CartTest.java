@@ -1,35 +1,41 @@
 package com.mobile.tests.test;
 
 import com.mobile.tests.base.BaseTest;
+import com.mobile.tests.core.DriverManager;
 import com.mobile.tests.pages.CheckoutInformationPage;
 import com.mobile.tests.pages.LoginPage;
 import com.mobile.tests.pages.ProductsPage;
 import com.mobile.tests.pages.CartPage;
+import com.mobile.tests.models.User;
+import com.mobile.tests.utils.TestDataRepository;
 import com.mobile.tests.utils.TestDataUtils;
 
+import io.appium.java_client.AppiumDriver;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.qameta.allure.Story;
 import io.qameta.allure.Description;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-import java.util.Map;
 
 public class CartTest extends BaseTest {
 
     private static final String DATA_FILE = "testdata/cartData.json";
 
-    private LoginPage loginPage;
-    private ProductsPage productsPage;
-    private CartPage cartPage;
+    // Test methods run in parallel on one instance, so each thread keeps its own pages on its own driver
+    private final ThreadLocal<CartPages> pages = new ThreadLocal<>();
 
-    @BeforeMethod
+    @BeforeMethod(alwaysRun = true)
     public void setUpPages() {
-        loginPage = new LoginPage(driver);
-        productsPage = new ProductsPage(driver);
-        cartPage = new CartPage(driver);
+        pages.set(new CartPages(DriverManager.getDriver()));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void clearPages() {
+        pages.remove();
     }
 
     @Test(description = "Verify adding a single product to the cart", groups = {"smoke"})
@@ -37,13 +43,15 @@ public class CartTest extends BaseTest {
     @Description("Should add a single product to the cart and verify the cart is not empty.")
     @Severity(SeverityLevel.CRITICAL)
     public void testAddSingleProductToCart() {
-        Map<String, String> validUser = TestDataUtils.getNestedMap(DATA_FILE, "validUser");
-        loginPage.login(validUser.get("username"), validUser.get("password"));
+        CartPages pages = this.pages.get();
+
+        User validUser = TestDataRepository.get(DATA_FILE, "/validUser", User.class);
+        pages.login().loginToProducts(validUser.username(), validUser.password());
 
-        productsPage.addFirstProductToCart();
-        productsPage.goToCart();
+        pages.products().addFirstProductToCart();
+        pages.products().goToCart();
 
-        Assert.assertFalse(cartPage.getCartItems().isEmpty(),
+        Assert.assertTrue(pages.cart().getCartItemCount() > 0,
                 " Cart should not be empty after adding a product.");
     }
 
@@ -52,15 +60,17 @@ public class CartTest extends BaseTest {
     @Description("Should remove a product from the cart and verify cart size decreases.")
     @Severity(SeverityLevel.NORMAL)
     public void testRemoveProductFromCart() {
-        Map<String, String> validUser = TestDataUtils.getNestedMap(DATA_FILE, "validUser");
-        loginPage.login(validUser.get("username"), validUser.get("password"));
+        CartPages pages = this.pages.get();
 
-        productsPage.addFirstProductToCart();
-        productsPage.goToCart();
+        User validUser = TestDataRepository.get(DATA_FILE, "/validUser", User.class);
+        pages.login().loginToProducts(validUser.username(), validUser.password());
 
-        int initialSize = cartPage.getCartItems().size();
-        cartPage.removeFirstItem();
-        int newSize = cartPage.getCartItems().size();
+        pages.products().addFirstProductToCart();
+        pages.products().goToCart();
+
+        int initialSize = pages.cart().getCartItemCount();
+        pages.cart().removeFirstItem();
+        int newSize = pages.cart().getCartItemCount();
 
         Assert.assertTrue(newSize < initialSize,
                 " Cart size should decrease after removing an item.");
@@ -71,16 +81,17 @@ public class CartTest extends BaseTest {
     @Description("Should navigate to Checkout Information page after clicking checkout.")
     @Severity(SeverityLevel.CRITICAL)
     public void testProceedToCheckout() {
-        Map<String, String> validUser = TestDataUtils.getNestedMap(DATA_FILE, "validUser");
-        loginPage.login(validUser.get("username"), validUser.get("password"));
+        CartPages pages = this.pages.get();
+
+        User validUser = TestDataRepository.get(DATA_FILE, "/validUser", User.class);
+        pages.login().loginToProducts(validUser.username(), validUser.password());
 
-        productsPage.addFirstProductToCart();
-        productsPage.goToCart();
+        pages.products().addFirstProductToCart();
+        pages.products().goToCart();
 
-        CartPage cartPage = new CartPage(driver);
-        cartPage.proceedToCheckout();
+        pages.cart().proceedToCheckout();
 
-        CheckoutInformationPage checkoutPage = new CheckoutInformationPage(driver);
+        CheckoutInformationPage checkoutPage = new CheckoutInformationPage(DriverManager.getDriver());
         Assert.assertTrue(checkoutPage.isPageDisplayed(),
                 " Did not navigate to Checkout Information page after clicking Checkout.");
     }
@@ -90,13 +101,14 @@ public class CartTest extends BaseTest {
     @Description("Should display correct message when the cart is empty.")
     @Severity(SeverityLevel.NORMAL)
     public void testEmptyCartMessage() {
-        Map<String, String> validUser = TestDataUtils.getNestedMap(DATA_FILE, "validUser");
-        loginPage.login(validUser.get("username"), validUser.get("password"));
+        CartPages pages = this.pages.get();
+
+        User validUser = TestDataRepository.get(DATA_FILE, "/validUser", User.class);
+        pages.login().loginToProducts(validUser.username(), validUser.password());
 
-        productsPage.goToCart();
-        CartPage cartPage = new CartPage(driver);
+        pages.products().goToCart();
 
-        Assert.assertTrue(cartPage.isEmptyCartMessageDisplayed(),
+        Assert.assertTrue(pages.cart().isEmptyCartMessageDisplayed(),
                 " Empty cart message not displayed.");
     }
 
@@ -105,16 +117,28 @@ public class CartTest extends BaseTest {
     @Description("Checkout should not proceed when the cart is empty, verifies known bug.")
     @Severity(SeverityLevel.CRITICAL)
     public void testCannotCheckoutWithEmptyCart() {
-        Map<String, String> validUser = TestDataUtils.getNestedMap(DATA_FILE, "validUser");
-        loginPage.login(validUser.get("username"), validUser.get("password"));
+        CartPages pages = this.pages.get();
 
-        productsPage.goToCart();
+        User validUser = TestDataRepository.get(DATA_FILE, "/validUser", User.class);
+        pages.login().loginToProducts(validUser.username(), validUser.password());
 
-        Assert.assertFalse(cartPage.proceedToCheckout(),
+        pages.products().goToCart();
+
+        Assert.assertFalse(pages.cart().proceedToCheckout(),
                 " Checkout should NOT be allowed with an empty cart (known bug).");
 
         String expectedMessage = TestDataUtils.getData(DATA_FILE, "emptyCartMessage");
-        Assert.assertEquals(cartPage.isEmptyCartMessageDisplayed(), expectedMessage,
+        Assert.assertEquals(pages.cart().isEmptyCartMessageDisplayed(), expectedMessage,
                 " Empty cart message mismatch.");
     }
+
+
+    // The pages of the cart flow, all on one driver
+
+    private record CartPages(LoginPage login, ProductsPage products, CartPage cart) {
+
+        private CartPages(AppiumDriver driver) {
+            this(new LoginPage(driver), new ProductsPage(driver), new CartPage(driver));
+        }
+    }
 }
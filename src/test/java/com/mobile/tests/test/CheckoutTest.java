@@ -1,20 +1,27 @@
 package com.mobile.tests.test;
 
 import com.mobile.tests.base.BaseTest;
+import com.mobile.tests.core.DriverManager;
+import com.mobile.tests.dataproviders.StreamingDataProviders;
 import com.mobile.tests.pages.LoginPage;
 import com.mobile.tests.pages.ProductsPage;
 import com.mobile.tests.pages.CartPage;
 import com.mobile.tests.pages.CheckoutInformationPage;
 import com.mobile.tests.pages.CheckoutOverviewPage;
 import com.mobile.tests.pages.CheckoutCompletePage;
+import com.mobile.tests.models.CheckoutInfo;
+import com.mobile.tests.models.User;
+import com.mobile.tests.utils.TestDataRepository;
 import com.mobile.tests.utils.TestDataUtils;
 
+import io.appium.java_client.AppiumDriver;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.qameta.allure.Story;
 import io.qameta.allure.Description;
 import org.openqa.selenium.WebElement;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -25,21 +32,17 @@ public class CheckoutTest extends BaseTest {
 
     private static final String DATA_FILE = "testdata/checkoutData.json";
 
-    private LoginPage loginPage;
-    private ProductsPage productsPage;
-    private CartPage cartPage;
-    private CheckoutInformationPage checkoutInformationPage;
-    private CheckoutOverviewPage checkoutOverviewPage;
-    private CheckoutCompletePage checkoutCompletePage;
+    // Test methods run in parallel on one instance, so each thread keeps its own pages on its own driver
+    private final ThreadLocal<CheckoutPages> pages = new ThreadLocal<>();
 
-    @BeforeMethod
+    @BeforeMethod(alwaysRun = true)
     public void setUpPages() {
-        loginPage = new LoginPage(driver);
-        productsPage = new ProductsPage(driver);
-        cartPage = new CartPage(driver);
-        checkoutInformationPage = new CheckoutInformationPage(driver);
-        checkoutOverviewPage = new CheckoutOverviewPage(driver);
-        checkoutCompletePage = new CheckoutCompletePage(driver);
+        pages.set(new CheckoutPages(DriverManager.getDriver()));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void clearPages() {
+        pages.remove();
     }
 
     @Test(groups = {"smoke", "checkout"}, description = "Verify end-to-end checkout flow from cart to order completion")
@@ -47,45 +50,87 @@ public class CheckoutTest extends BaseTest {
     @Description("User should be able to complete checkout from adding products to cart through order confirmation.")
     @Severity(SeverityLevel.CRITICAL)
     public void testEndToEndCheckoutFlow() {
+        CheckoutPages pages = this.pages.get();
+
         // Step 1: Login
-        Map<String, String> validUser = TestDataUtils.getNestedMap(DATA_FILE, "validUser");
-        loginPage.login(validUser.get("username"), validUser.get("password"));
+        User validUser = TestDataRepository.get(DATA_FILE, "/validUser", User.class);
+        pages.login().loginToProducts(validUser.username(), validUser.password());
 
         // Step 2: Add product(s) to cart
-        productsPage.addFirstProductToCart();
-        productsPage.goToCart();
-        Assert.assertFalse(cartPage.getCartItems().isEmpty(),
+        pages.products().addFirstProductToCart();
+        pages.products().goToCart();
+        Assert.assertTrue(pages.cart().getCartItemCount() > 0,
                 " Cart should contain at least one product before checkout.");
 
         // Step 3: Proceed to Checkout Information
-        cartPage.proceedToCheckout();
-        Assert.assertTrue(checkoutInformationPage.isPageDisplayed(),
+        pages.cart().proceedToCheckout();
+        Assert.assertTrue(pages.information().isPageDisplayed(),
                 " Checkout Information page not displayed.");
 
         // Step 4: Fill in customer info
-        Map<String, String> customerInfo = TestDataUtils.getNestedMap(DATA_FILE, "customerInfo");
-        checkoutInformationPage.enterFirstName(customerInfo.get("firstName"));
-        checkoutInformationPage.enterLastName(customerInfo.get("lastName"));
-        checkoutInformationPage.enterPostalCode(customerInfo.get("postalCode"));
-        checkoutInformationPage.continueToOverview();
+        CheckoutInfo customerInfo = TestDataRepository.get(DATA_FILE, "/customerInfo", CheckoutInfo.class);
+        pages.information().enterFirstName(customerInfo.firstName());
+        pages.information().enterLastName(customerInfo.lastName());
+        pages.information().enterPostalCode(customerInfo.postalCode());
+        pages.information().continueToOverview();
 
         // Step 5: Verify Overview Page
-        Assert.assertTrue(checkoutOverviewPage.isPageDisplayed(),
+        Assert.assertTrue(pages.overview().isPageDisplayed(),
                 " Checkout Overview page not displayed.");
 
-        List<WebElement> overviewItems = checkoutOverviewPage.getOverviewItems();
+        List<WebElement> overviewItems = pages.overview().getOverviewItems();
 
         // Step 6: Finish Checkout
-        checkoutOverviewPage.finishCheckout();
+        pages.overview().finishCheckout();
 
         // Step 7: Verify Checkout Complete Page
-        Assert.assertTrue(checkoutCompletePage.isPageDisplayed(),
+        Assert.assertTrue(pages.complete().isPageDisplayed(),
                 "Checkout Complete page not displayed.");
 
         // Step 8: Verify Order Confirmation
         String expectedMessage = TestDataUtils.getData(DATA_FILE, "confirmationMessage");
-        String actualMessage = checkoutCompletePage.getConfirmationMessage();
+        String actualMessage = pages.complete().getConfirmationMessage();
         Assert.assertEquals(actualMessage, expectedMessage,
                 "Confirmation message mismatch.");
     }
+
+    @Test(groups = {"regression", "checkout"}, description = "Verify checkout information validation for each customer in the streamed data set",
+            dataProvider = "checkoutCustomers", dataProviderClass = StreamingDataProviders.class)
+    @Story("Data-driven checkout information")
+    @Description("Valid customers reach the Checkout Overview page; incomplete ones see the expected validation error.")
+    @Severity(SeverityLevel.NORMAL)
+    public void testCheckoutCustomerVariants(Map<String, String> customer) {
+        CheckoutPages pages = this.pages.get();
+        User validUser = TestDataRepository.get(DATA_FILE, "/validUser", User.class);
+        pages.login().loginToProducts(validUser.username(), validUser.password());
+
+        pages.products().addFirstProductToCart();
+        pages.products().goToCart();
+        pages.cart().proceedToCheckout();
+
+        pages.information().fillCheckoutInformation(customer.get("firstName"), customer.get("lastName"), customer.get("postalCode"));
+        pages.information().continueToOverview();
+
+        String expectedError = customer.get("expectedError");
+        if (expectedError.isEmpty()) {
+            Assert.assertTrue(pages.overview().isPageDisplayed(),
+                    " Checkout Overview page not displayed for customer: " + customer);
+        } else {
+            Assert.assertTrue(pages.information().getErrorMessage().contains(expectedError),
+                    " Expected validation error '" + expectedError + "' for customer: " + customer);
+        }
+    }
+
+
+    // The pages of the checkout flow, all on one driver
+
+    private record CheckoutPages(LoginPage login, ProductsPage products, CartPage cart,
+                                 CheckoutInformationPage information, CheckoutOverviewPage overview,
+                                 CheckoutCompletePage complete) {
+
+        private CheckoutPages(AppiumDriver driver) {
+            this(new LoginPage(driver), new ProductsPage(driver), new CartPage(driver),
+                    new CheckoutInformationPage(driver), new CheckoutOverviewPage(driver), new CheckoutCompletePage(driver));
+        }
+    }
 }
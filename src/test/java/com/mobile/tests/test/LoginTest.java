@@ -1,6 +1,8 @@
 package com.mobile.tests.test;
 
 import com.mobile.tests.base.BaseTest;
+import com.mobile.tests.core.DriverManager;
+import com.mobile.tests.dataproviders.StreamingDataProviders;
 import com.mobile.tests.pages.LoginPage;
 import com.mobile.tests.pages.ProductsPage;
 import com.mobile.tests.utils.TestDataUtils;
@@ -8,8 +10,8 @@ import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.qameta.allure.Story;
 import io.qameta.allure.Description;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -19,15 +21,26 @@ import java.util.Map;
 public class LoginTest extends BaseTest {
 
     private static final String DATA_FILE = "testdata/loginData.json";
-    private LoginPage loginPage;
+
+    // Test methods run in parallel on one instance, so each thread keeps its own page on its own driver
+    private final ThreadLocal<LoginPage> loginPage = new ThreadLocal<>();
 
     @BeforeMethod(alwaysRun = true)
     public void initPages() {
-        loginPage = new LoginPage(driver);
-        Assert.assertTrue(loginPage.isLoginPageDisplayed(),
+        loginPage.set(new LoginPage(DriverManager.getDriver()));
+        Assert.assertTrue(loginPage().isLoginPageDisplayed(),
                 " Login Page was not displayed before starting the test.");
     }
 
+    @AfterMethod(alwaysRun = true)
+    public void clearPages() {
+        loginPage.remove();
+    }
+
+    private LoginPage loginPage() {
+        return loginPage.get();
+    }
+
     @Test(groups = {"smoke", "login"}, description = "Verify user can login successfully with valid credentials")
     @Story("Login with valid credentials")
     @Description("User should be able to log in with valid credentials and navigate to the Products page.")
@@ -35,9 +48,9 @@ public class LoginTest extends BaseTest {
     public void testValidLogin() {
         Map<String, String> data = TestDataUtils.getNestedMap(DATA_FILE, "validLogin");
 
-        loginPage.login(data.get("username"), data.get("password"));
+        loginPage().login(data.get("username"), data.get("password"));
 
-        ProductsPage productsPage = new ProductsPage(driver);
+        ProductsPage productsPage = new ProductsPage(DriverManager.getDriver());
         Assert.assertTrue(productsPage.isPageDisplayed(),
                 " Products page was NOT displayed after valid login.");
     }
@@ -52,15 +65,11 @@ public class LoginTest extends BaseTest {
         String password = credentials.get("password");
         String expectedError = credentials.get("expectedError");
 
-        loginPage.login(username, password);
+        loginPage().login(username, password);
 
-        String actualError = new WebDriverWait(driver, Duration.ofSeconds(5))
-                .until(driver -> {
-                    String text = loginPage.getErrorMessage().trim();
-                    return text.isEmpty() ? null : text;
-                });
+        String actualError = loginPage().getErrorMessage(Duration.ofSeconds(5));
 
-        Assert.assertNotNull(actualError, " No error message displayed for invalid login.");
+        Assert.assertFalse(actualError.isEmpty(), " No error message displayed for invalid login.");
         Assert.assertTrue(actualError.contains(expectedError),
                 String.format(" Invalid login error message mismatch. Expected to contain: '%s', but was: '%s'", expectedError, actualError));
     }
@@ -72,9 +81,9 @@ public class LoginTest extends BaseTest {
     public void testLockedOutUser() {
         Map<String, String> data = TestDataUtils.getNestedMap(DATA_FILE, "lockedOutUser");
 
-        loginPage.login(data.get("username"), data.get("password"));
+        loginPage().login(data.get("username"), data.get("password"));
 
-        String errorMsg = loginPage.getErrorMessage().trim();
+        String errorMsg = loginPage().getErrorMessage().trim();
         Assert.assertFalse(errorMsg.isEmpty(), " No error message displayed for locked-out user.");
         Assert.assertEquals(errorMsg, data.get("expectedError"),
                 " Locked-out user error message mismatch.");
@@ -87,9 +96,9 @@ public class LoginTest extends BaseTest {
     public void testEmptyUsername() {
         Map<String, String> data = TestDataUtils.getNestedMap(DATA_FILE, "emptyUsername");
 
-        loginPage.login(data.get("username"), data.get("password"));
+        loginPage().login(data.get("username"), data.get("password"));
 
-        String errorMsg = loginPage.getEmptyUsernameError();
+        String errorMsg = loginPage().getEmptyUsernameError();
 
         Assert.assertFalse(errorMsg.isEmpty(), " No error message displayed when username is empty.");
         Assert.assertEquals(errorMsg, data.get("expectedError"),
@@ -103,9 +112,9 @@ public class LoginTest extends BaseTest {
     public void testEmptyPassword() {
         Map<String, String> data = TestDataUtils.getNestedMap(DATA_FILE, "emptyPassword");
 
-        loginPage.login(data.get("username"), data.get("password"));
+        loginPage().login(data.get("username"), data.get("password"));
 
-        String errorMsg = loginPage.getEmptyPasswordError();
+        String errorMsg = loginPage().getEmptyPasswordError();
 
         Assert.assertFalse(errorMsg.isEmpty(), " No error message displayed when password is empty.");
         Assert.assertEquals(errorMsg, data.get("expectedError"),
@@ -118,15 +127,33 @@ public class LoginTest extends BaseTest {
     @Severity(SeverityLevel.NORMAL)
     public void testLogout() {
         Map<String, String> loginData = TestDataUtils.getNestedMap(DATA_FILE, "validLogin");
-        loginPage.login(loginData.get("username"), loginData.get("password"));
+        loginPage().login(loginData.get("username"), loginData.get("password"));
 
-        ProductsPage productsPage = new ProductsPage(driver);
+        ProductsPage productsPage = new ProductsPage(DriverManager.getDriver());
         Assert.assertTrue(productsPage.isPageDisplayed(),
                 " Products page was NOT displayed after valid login.");
 
         productsPage.logout();
 
-        Assert.assertTrue(loginPage.isPageDisplayed(),
+        Assert.assertTrue(loginPage().isPageDisplayed(),
                 " Login page was NOT displayed after logout.");
     }
+
+    @Test(groups = {"regression", "login"}, description = "Verify login outcome for each user variant in the streamed data set",
+            dataProvider = "loginVariants", dataProviderClass = StreamingDataProviders.class)
+    @Story("Data-driven login")
+    @Description("Each row either logs in to the Products page or shows the expected error.")
+    @Severity(SeverityLevel.NORMAL)
+    public void testLoginVariants(Map<String, String> row) {
+        loginPage().login(row.get("username"), row.get("password"));
+
+        String expectedError = row.get("expectedError");
+        if (expectedError == null || expectedError.isEmpty()) {
+            Assert.assertTrue(new ProductsPage(DriverManager.getDriver()).isPageDisplayed(),
+                    " Products page was NOT displayed for user: " + row.get("username"));
+        } else {
+            Assert.assertEquals(loginPage().getErrorMessage().trim(), expectedError,
+                    " Login error message mismatch for user: " + row.get("username"));
+        }
+    }
 }
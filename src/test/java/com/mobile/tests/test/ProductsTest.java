@@ -1,14 +1,18 @@
 package com.mobile.tests.test;
 
 import com.mobile.tests.base.BaseTest;
+import com.mobile.tests.core.DriverManager;
+import com.mobile.tests.models.Product;
 import com.mobile.tests.pages.LoginPage;
 import com.mobile.tests.pages.ProductsPage;
 import com.mobile.tests.utils.TestDataUtils;
+import io.appium.java_client.AppiumDriver;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.qameta.allure.Story;
 import io.qameta.allure.Description;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -19,24 +23,30 @@ public class ProductsTest extends BaseTest {
 
     private static final String DATA_FILE = "testdata/productData.json";
 
-    private LoginPage loginPage;
-    private ProductsPage productsPage;
+    // Test methods run in parallel on one instance, so each thread keeps its own pages on its own driver
+    private final ThreadLocal<ProductsPages> pages = new ThreadLocal<>();
 
     @BeforeMethod(alwaysRun = true)
     public void setUpPages() {
-        loginPage = new LoginPage(driver);
-        productsPage = new ProductsPage(driver);
+        pages.set(new ProductsPages(DriverManager.getDriver()));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void clearPages() {
+        pages.remove();
     }
 
 
      // Helper: log in with valid user from test data
 
     private void loginWithValidUser() {
+        ProductsPages pages = this.pages.get();
+
         Map<String, String> validUser = TestDataUtils.getNestedMap(DATA_FILE, "validUser");
         Assert.assertNotNull(validUser, " 'validUser' not found in " + DATA_FILE);
 
-        loginPage.login(validUser.get("username"), validUser.get("password"));
-        Assert.assertTrue(productsPage.isPageDisplayed(),
+        pages.login().loginToProducts(validUser.get("username"), validUser.get("password"));
+        Assert.assertTrue(pages.products().isPageDisplayed(),
                 " Products page was not displayed after login.");
     }
 
@@ -46,8 +56,10 @@ public class ProductsTest extends BaseTest {
     @Description("The product list should be displayed on the Products page after login.")
     @Severity(SeverityLevel.NORMAL)
     public void testProductListIsDisplayed() {
+        ProductsPages pages = this.pages.get();
+
         loginWithValidUser();
-        List<String> productNames = productsPage.getAllProductNames();
+        List<String> productNames = pages.products().getAllProductNames();
         Assert.assertFalse(productNames.isEmpty(), " No products found on the Products page.");
     }
 
@@ -56,6 +68,8 @@ public class ProductsTest extends BaseTest {
     @Description("First product's name and price should match expected values from test data.")
     @Severity(SeverityLevel.NORMAL)
     public void testFirstProductDetails() {
+        ProductsPages pages = this.pages.get();
+
         loginWithValidUser();
 
         List<Map<String, String>> products = TestDataUtils.getListOfMaps(DATA_FILE, "products");
@@ -64,11 +78,11 @@ public class ProductsTest extends BaseTest {
         String expectedName = products.get(0).get("name");
         String expectedPrice = products.get(0).get("price");
 
-        String actualName = productsPage.getAllProductNames().get(0);
-        String actualPrice = productsPage.getAllProductPrices().get(0);
+        // First row only: name and price come from the same row, no scrolling needed
+        Product actual = pages.products().products().iterator().next();
 
-        Assert.assertEquals(actualName, expectedName, " Product name mismatch.");
-        Assert.assertEquals(actualPrice, expectedPrice, " Product price mismatch.");
+        Assert.assertEquals(actual.name(), expectedName, " Product name mismatch.");
+        Assert.assertEquals(actual.price(), expectedPrice, " Product price mismatch.");
     }
 
 
@@ -77,12 +91,24 @@ public class ProductsTest extends BaseTest {
     @Description("User should be able to add a product to the cart and navigate to the cart page.")
     @Severity(SeverityLevel.NORMAL)
     public void testAddFirstProductToCart() {
+        ProductsPages pages = this.pages.get();
+
         loginWithValidUser();
 
-        productsPage.addFirstProductToCart();
-        productsPage.goToCart();
+        pages.products().addFirstProductToCart();
+        pages.products().goToCart();
 
         // Placeholder: replace with CartPage validation later
         Assert.assertTrue(true, " Navigation to cart performed after adding product.");
     }
+
+
+    // The pages the products tests use, all on one driver
+
+    private record ProductsPages(LoginPage login, ProductsPage products) {
+
+        private ProductsPages(AppiumDriver driver) {
+            this(new LoginPage(driver), new ProductsPage(driver));
+        }
+    }
 }